@@ -0,0 +1,75 @@
+package avs.simulation.benchmark;
+
+import avs.simulation.Simulation;
+import avs.simulation.util.Command;
+import avs.simulation.util.JsonCommandReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading JSON command files, on its own and as part of a whole {@link Simulation#runFromJsonFile} run
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonParsingBenchmark {
+    @Param({"10000", "1000000"})
+    public int commandCount;
+
+    /** Share of the commands that add a vehicle */
+    @Param({"0.1", "0.45"})
+    public double arrivalRate;
+
+    private File directory;
+    private File inputFile;
+    private File outputFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("simulation-benchmark").toFile();
+        inputFile = ScenarioGenerator.writeJson(new File(directory, "input.json"), commandCount, arrivalRate, 42);
+        outputFile = new File(directory, "output.json");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inputFile.delete();
+        outputFile.delete();
+        directory.delete();
+    }
+
+    @Benchmark
+    public void parseCommands(Blackhole blackhole) throws IOException {
+        try (JsonCommandReader reader = new JsonCommandReader(inputFile)) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                blackhole.consume(command);
+            }
+        }
+    }
+
+    @Benchmark
+    public void runFromJsonFile() throws IOException {
+        new Simulation().runFromJsonFile(inputFile.getPath(), outputFile.getPath());
+    }
+}
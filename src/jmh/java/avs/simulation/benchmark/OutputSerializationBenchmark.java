@@ -0,0 +1,59 @@
+package avs.simulation.benchmark;
+
+import avs.simulation.util.JsonStepStatusWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialising the step statuses of a run, with empty steps expanded or written as runs.
+ * The output is discarded so only the JSON generation is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OutputSerializationBenchmark {
+    @Param({"100000"})
+    public int stepCount;
+
+    /** Share of the steps in which no vehicle leaves */
+    @Param({"0.1", "0.9", "0.999"})
+    public double emptyStepRatio;
+
+    @Param({"false", "true"})
+    public boolean compactEmptySteps;
+
+    private String[][] steps;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        steps = ScenarioGenerator.leftVehicles(stepCount, emptyStepRatio, 42);
+    }
+
+    @Benchmark
+    public void writeStepStatuses() throws IOException {
+        try (JsonStepStatusWriter writer = new JsonStepStatusWriter(OutputStream.nullOutputStream(),
+                JsonStepStatusWriter.DEFAULT_FLUSH_INTERVAL)) {
+            writer.setCompactEmptySteps(compactEmptySteps);
+            for (String[] leftVehicles : steps) {
+                writer.write(leftVehicles);
+            }
+        }
+    }
+}
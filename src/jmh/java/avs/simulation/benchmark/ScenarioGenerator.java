@@ -0,0 +1,96 @@
+package avs.simulation.benchmark;
+
+import avs.simulation.Simulation;
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+/**
+ * Reproducible scenarios for the benchmarks, generated from a seed
+ */
+public final class ScenarioGenerator {
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+    private static final String[] ROADS = {"north", "east", "south", "west"};
+
+    private ScenarioGenerator() {
+    }
+
+    /**
+     * Builds a JSON command file in which each command adds a vehicle with the given probability
+     * and is a step otherwise
+     */
+    public static String json(int commandCount, double arrivalRate, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("{\"commands\": [");
+        int vehicles = 0;
+        for (int i = 0; i < commandCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            if (random.nextDouble() < arrivalRate) {
+                json.append("{\"type\": \"addVehicle\", \"vehicleId\": \"car").append(++vehicles)
+                        .append("\", \"startRoad\": \"").append(ROADS[random.nextInt(ROADS.length)])
+                        .append("\", \"endRoad\": \"").append(ROADS[random.nextInt(ROADS.length)]).append("\"}");
+            } else {
+                json.append("{\"type\": \"step\"}");
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    public static File writeJson(File file, int commandCount, double arrivalRate, long seed) throws IOException {
+        Files.writeString(file.toPath(), json(commandCount, arrivalRate, seed), StandardCharsets.UTF_8);
+        return file;
+    }
+
+    /**
+     * Builds the vehicles left in each step of a run, empty for the given share of the steps
+     */
+    public static String[][] leftVehicles(int stepCount, double emptyStepRatio, long seed) {
+        Random random = new Random(seed);
+        String[][] steps = new String[stepCount][];
+        int vehicles = 0;
+        for (int i = 0; i < stepCount; i++) {
+            if (random.nextDouble() < emptyStepRatio) {
+                steps[i] = new String[0];
+            } else {
+                steps[i] = new String[1 + random.nextInt(DIRECTIONS.length)];
+                for (int j = 0; j < steps[i].length; j++) {
+                    steps[i][j] = "car" + ++vehicles;
+                }
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Creates the ids the benchmarks cycle through, so adding vehicles does not build strings
+     */
+    public static String[] vehicleIds(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = "car" + i;
+        }
+        return ids;
+    }
+
+    /**
+     * Queues the given number of vehicles on every approach, with random destinations
+     */
+    public static void fillQueues(Simulation simulation, int depth, String[] vehicleIds, Random random) {
+        int next = 0;
+        for (int i = 0; i < depth; i++) {
+            for (TrafficLight.Direction startRoad : DIRECTIONS) {
+                simulation.addVehicle(vehicleIds[next++ % vehicleIds.length], startRoad, randomDestination(random));
+            }
+        }
+    }
+
+    public static TrafficLight.Direction randomDestination(Random random) {
+        return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    }
+}
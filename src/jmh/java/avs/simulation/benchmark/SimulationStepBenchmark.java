@@ -0,0 +1,70 @@
+package avs.simulation.benchmark;
+
+import avs.simulation.Simulation;
+import avs.simulation.model.Intersection;
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one simulation step for every controller type at a steady queue depth.
+ * The vehicles that leave in a step are queued again on the same approach, so the depth does not drift.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimulationStepBenchmark {
+    @Param({"STANDARD", "PRIORITY", "OPPOSING"})
+    public Intersection.ControllerType controllerType;
+
+    /** Vehicles waiting on each approach */
+    @Param({"1", "16", "256", "4096"})
+    public int queueDepth;
+
+    private Simulation simulation;
+    private final List<Vehicle> departed = new ArrayList<>();
+    private String[] vehicleIds;
+    private int nextId = 0;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new Random(42);
+        vehicleIds = ScenarioGenerator.vehicleIds(4 * queueDepth + 64);
+        simulation = new Simulation();
+        simulation.setIntersectionControllerType(controllerType);
+        simulation.addDepartureListener(departed::add);
+        ScenarioGenerator.fillQueues(simulation, queueDepth, vehicleIds, random);
+        nextId = 4 * queueDepth;
+    }
+
+    @Benchmark
+    public StepStatus performSimulationStep() {
+        departed.clear();
+        StepStatus status = simulation.performSimulationStep();
+        for (int i = 0; i < departed.size(); i++) {
+            simulation.addVehicle(vehicleIds[nextId++ % vehicleIds.length], departed.get(i).getStartRoad(),
+                    ScenarioGenerator.randomDestination(random));
+        }
+        return status;
+    }
+}
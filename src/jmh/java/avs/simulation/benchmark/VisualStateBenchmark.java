@@ -0,0 +1,76 @@
+package avs.simulation.benchmark;
+
+import avs.simulation.Simulation;
+import avs.simulation.UI.SimulationState;
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.Vehicle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a step in visual mode, where every step rebuilds the {@link SimulationState} shown by the UI.
+ * Without a UI no animation ever finishes, so the oldest crossing vehicles are dropped to keep as many
+ * animating as the parameter asks for.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VisualStateBenchmark {
+    /** Vehicles waiting on each approach */
+    @Param({"4", "64", "512"})
+    public int queueDepth;
+
+    /** Vehicles still animating across the intersection */
+    @Param({"8", "256"})
+    public int animatingVehicles;
+
+    private Simulation simulation;
+    private final List<Vehicle> departed = new ArrayList<>();
+    private String[] vehicleIds;
+    private int nextId = 0;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        random = new Random(42);
+        vehicleIds = ScenarioGenerator.vehicleIds(4 * queueDepth + 64);
+        simulation = new Simulation();
+        simulation.setVisualMode(true);
+        simulation.addDepartureListener(departed::add);
+        ScenarioGenerator.fillQueues(simulation, queueDepth, vehicleIds, random);
+        nextId = 4 * queueDepth;
+    }
+
+    @Benchmark
+    public StepStatus performVisualStep() {
+        departed.clear();
+        StepStatus status = simulation.performSimulationStep();
+        for (int i = 0; i < departed.size(); i++) {
+            simulation.addVehicle(vehicleIds[nextId++ % vehicleIds.length], departed.get(i).getStartRoad(),
+                    ScenarioGenerator.randomDestination(random));
+        }
+        SimulationState state = simulation.getCurrentState();
+        while (state.getCrossingVehicles().size() > animatingVehicles) {
+            state.getCrossingVehicles().removeFirst();
+        }
+        return status;
+    }
+}
@@ -0,0 +1,223 @@
+package avs.simulation;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.util.CommandReader;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs an independent simulation for every scenario file of a batch on a work-stealing pool,
+ * so one JVM start and JIT warm-up is shared by all files.
+ * Each output is written next to its input as {@code <name>-output.json}, see {@link #outputFileFor(Path)}.
+ */
+public class BatchRunner {
+    public static final String OUTPUT_SUFFIX = "-output.json";
+
+    private final Intersection.ControllerType controllerType;
+    private final int parallelism;
+
+    /**
+     * @param controllerType Controller used for every scenario, or null for the default controller
+     */
+    public BatchRunner(Intersection.ControllerType controllerType) {
+        this(controllerType, Runtime.getRuntime().availableProcessors());
+    }
+
+    public BatchRunner(Intersection.ControllerType controllerType, int parallelism) {
+        this.controllerType = controllerType;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Collects the scenario files matching a directory or a glob pattern.
+     * A directory selects all of its .json and .bin files, a glob may use wildcards in its last path element.
+     * Outputs of earlier batch runs are skipped.
+     */
+    public static List<Path> findInputs(String directoryOrGlob) throws IOException {
+        Path directory;
+        String glob;
+        int separator = Math.max(directoryOrGlob.lastIndexOf('/'), directoryOrGlob.lastIndexOf(File.separatorChar));
+        if (!containsWildcard(directoryOrGlob) && Files.isDirectory(Paths.get(directoryOrGlob))) {
+            directory = Paths.get(directoryOrGlob);
+            glob = "*.{json,bin}";
+        } else if (separator >= 0) {
+            directory = Paths.get(directoryOrGlob.substring(0, Math.max(separator, 1)));
+            glob = directoryOrGlob.substring(separator + 1);
+        } else {
+            directory = Paths.get(".");
+            glob = directoryOrGlob;
+        }
+        if (containsWildcard(directory.toString())) {
+            throw new IllegalArgumentException("Wildcards are only supported in the file name: " + directoryOrGlob);
+        }
+
+        List<Path> inputs = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : files) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().endsWith(OUTPUT_SUFFIX)) {
+                    inputs.add(file);
+                }
+            }
+        }
+        inputs.sort(null);
+        return inputs;
+    }
+
+    private static boolean containsWildcard(String pattern) {
+        return pattern.chars().anyMatch(c -> c == '*' || c == '?' || c == '[' || c == '{');
+    }
+
+    /**
+     * Returns the output path written for an input file. The .json extension is dropped,
+     * other extensions are kept so that e.g. a.json and a.bin do not share an output.
+     */
+    public static Path outputFileFor(Path inputFile) {
+        String name = inputFile.getFileName().toString();
+        String baseName = name.endsWith(".json") ? name.substring(0, name.length() - ".json".length())
+                : name.replace('.', '-');
+        return inputFile.resolveSibling(baseName + OUTPUT_SUFFIX);
+    }
+
+    /**
+     * Runs all scenarios and waits for them to finish
+     *
+     * @return One result per input, in input order
+     */
+    public List<FileResult> run(List<Path> inputs) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<Callable<FileResult>> tasks = new ArrayList<>();
+            for (Path input : inputs) {
+                tasks.add(() -> runScenario(input));
+            }
+
+            List<FileResult> results = new ArrayList<>();
+            for (Future<FileResult> future : pool.invokeAll(tasks)) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    // runScenario records its own failures, so this only happens on errors like OutOfMemoryError
+                    throw new IllegalStateException("Batch task failed", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private FileResult runScenario(Path input) {
+        Path output = outputFileFor(input);
+        Simulation simulation = new Simulation();
+        if (controllerType != null) {
+            simulation.setIntersectionControllerType(controllerType);
+        }
+
+        long start = System.nanoTime();
+        try {
+            simulation.run(CommandReader.open(input.toFile()), output.toString());
+            return new FileResult(input, output, simulation.getStepCount(), System.nanoTime() - start, null);
+        } catch (IOException | RuntimeException e) {
+            return new FileResult(input, output, simulation.getStepCount(), System.nanoTime() - start, e);
+        }
+    }
+
+    /**
+     * Prints one row per scenario with its runtime and throughput, followed by the totals
+     */
+    public static void printSummary(List<FileResult> results, long wallClockNanos, PrintStream out) {
+        int nameWidth = "File".length();
+        for (FileResult result : results) {
+            nameWidth = Math.max(nameWidth, result.getInput().getFileName().toString().length());
+        }
+        String rowFormat = "%-" + nameWidth + "s  %12s  %12s  %14s  %s%n";
+
+        out.printf(rowFormat, "File", "Steps", "Time [ms]", "Steps/sec", "Status");
+        long totalSteps = 0;
+        int failures = 0;
+        for (FileResult result : results) {
+            totalSteps += result.getSteps();
+            if (!result.isSuccessful()) {
+                failures++;
+            }
+            out.printf(rowFormat,
+                    result.getInput().getFileName(),
+                    result.getSteps(),
+                    String.format("%.1f", result.getNanos() / 1_000_000.0),
+                    String.format("%.0f", result.getStepsPerSecond()),
+                    result.isSuccessful() ? "OK" : "FAILED: " + firstLine(result.getError().getMessage()));
+        }
+
+        double seconds = wallClockNanos / 1_000_000_000.0;
+        out.printf("%nTotal: %d files (%d failed), %d steps in %.1f ms, %.0f steps/sec%n",
+                results.size(), failures, totalSteps, wallClockNanos / 1_000_000.0,
+                seconds > 0 ? totalSteps / seconds : 0.0);
+    }
+
+    private static String firstLine(String message) {
+        if (message == null) {
+            return "";
+        }
+        int lineEnd = message.indexOf('\n');
+        return lineEnd >= 0 ? message.substring(0, lineEnd) : message;
+    }
+
+    /**
+     * Outcome of a single scenario in a batch
+     */
+    public static class FileResult {
+        private final Path input;
+        private final Path output;
+        private final long steps;
+        private final long nanos;
+        private final Exception error;
+
+        public FileResult(Path input, Path output, long steps, long nanos, Exception error) {
+            this.input = input;
+            this.output = output;
+            this.steps = steps;
+            this.nanos = nanos;
+            this.error = error;
+        }
+
+        public Path getInput() {
+            return input;
+        }
+
+        public Path getOutput() {
+            return output;
+        }
+
+        public long getSteps() {
+            return steps;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public boolean isSuccessful() {
+            return error == null;
+        }
+
+        public double getStepsPerSecond() {
+            return nanos > 0 ? steps / (nanos / 1_000_000_000.0) : 0.0;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package avs.simulation;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.util.Command;
+import avs.simulation.util.CommandLog;
+import avs.simulation.util.CommandReader;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Replays one parsed command stream with every controller type in parallel
+ * and reports throughput, waiting times and queue lengths per controller.
+ */
+public class ControllerComparison {
+    private final CommandLog commands;
+
+    public ControllerComparison(CommandLog commands) {
+        this.commands = commands;
+    }
+
+    /**
+     * Runs one simulation per controller type, all sharing the same command log
+     *
+     * @return One report per controller type, in declaration order
+     */
+    public List<ControllerReport> run() throws IOException, InterruptedException {
+        Intersection.ControllerType[] types = Intersection.ControllerType.values();
+        ForkJoinPool pool = new ForkJoinPool(Math.min(types.length, Runtime.getRuntime().availableProcessors()));
+        try {
+            List<Callable<ControllerReport>> tasks = new ArrayList<>();
+            for (Intersection.ControllerType type : types) {
+                tasks.add(() -> runController(type));
+            }
+
+            List<ControllerReport> reports = new ArrayList<>();
+            for (Future<ControllerReport> future : pool.invokeAll(tasks)) {
+                try {
+                    reports.add(future.get());
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException ioException) {
+                        throw ioException;
+                    } else if (e.getCause() instanceof RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw new IllegalStateException("Controller run failed", e.getCause());
+                }
+            }
+            return reports;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private ControllerReport runController(Intersection.ControllerType type) throws IOException {
+        Simulation simulation = new Simulation();
+        simulation.setIntersectionControllerType(type);
+        ControllerReport report = new ControllerReport(type);
+        simulation.addDepartureListener(vehicle -> report.recordDeparture(vehicle.getWaitingTime()));
+
+        long start = System.nanoTime();
+        try (CommandReader reader = commands.reader()) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                if (command.getType() == Command.CommandType.STEP) {
+                    simulation.performSimulationStep();
+                    int queued = 0;
+                    for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+                        queued += simulation.getQueueLength(direction);
+                    }
+                    report.recordQueueLength(queued);
+                } else {
+                    simulation.addVehicle(command.getVehicleId(), command.getStartRoad(), command.getEndRoad());
+                    report.vehiclesAdded++;
+                }
+            }
+        }
+        report.runtimeNanos = System.nanoTime() - start;
+        return report;
+    }
+
+    /**
+     * Prints the reports as a table, one row per controller
+     */
+    public static void printReport(List<ControllerReport> reports, PrintStream out) {
+        String rowFormat = "%-10s  %10s  %10s  %12s  %10s  %10s  %12s  %10s  %10s%n";
+        out.printf(rowFormat, "Controller", "Steps", "Departed", "Veh/step", "Mean wait", "Max wait",
+                "Mean queue", "Max queue", "Time [ms]");
+        for (ControllerReport report : reports) {
+            out.printf(rowFormat,
+                    report.getControllerType().name().toLowerCase(),
+                    report.getSteps(),
+                    report.getVehiclesDeparted(),
+                    String.format("%.3f", report.getThroughput()),
+                    String.format("%.2f", report.getMeanWait()),
+                    report.getMaxWait(),
+                    String.format("%.2f", report.getMeanQueueLength()),
+                    report.getMaxQueueLength(),
+                    String.format("%.1f", report.getRuntimeNanos() / 1_000_000.0));
+        }
+    }
+
+    /**
+     * Writes the reports as a JSON document
+     */
+    public static void writeReport(List<ControllerReport> reports, File reportFile) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode rootNode = mapper.createObjectNode();
+        ArrayNode controllersNode = rootNode.putArray("controllers");
+
+        for (ControllerReport report : reports) {
+            ObjectNode node = controllersNode.addObject();
+            node.put("controllerType", report.getControllerType().name().toLowerCase());
+            node.put("steps", report.getSteps());
+            node.put("vehiclesAdded", report.getVehiclesAdded());
+            node.put("vehiclesDeparted", report.getVehiclesDeparted());
+            node.put("throughput", report.getThroughput());
+            node.put("meanWait", report.getMeanWait());
+            node.put("maxWait", report.getMaxWait());
+            node.put("meanQueueLength", report.getMeanQueueLength());
+            node.put("maxQueueLength", report.getMaxQueueLength());
+            node.put("runtimeMillis", report.getRuntimeNanos() / 1_000_000.0);
+        }
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(reportFile, rootNode);
+    }
+
+    /**
+     * Aggregated results of one controller run
+     */
+    public static class ControllerReport {
+        private final Intersection.ControllerType controllerType;
+        private long steps;
+        private long vehiclesAdded;
+        private long vehiclesDeparted;
+        private long totalWait;
+        private long maxWait;
+        private long totalQueueLength;
+        private long maxQueueLength;
+        private long runtimeNanos;
+
+        ControllerReport(Intersection.ControllerType controllerType) {
+            this.controllerType = controllerType;
+        }
+
+        void recordDeparture(long waitingTime) {
+            vehiclesDeparted++;
+            totalWait += waitingTime;
+            maxWait = Math.max(maxWait, waitingTime);
+        }
+
+        void recordQueueLength(long queued) {
+            steps++;
+            totalQueueLength += queued;
+            maxQueueLength = Math.max(maxQueueLength, queued);
+        }
+
+        public Intersection.ControllerType getControllerType() {
+            return controllerType;
+        }
+
+        public long getSteps() {
+            return steps;
+        }
+
+        public long getVehiclesAdded() {
+            return vehiclesAdded;
+        }
+
+        public long getVehiclesDeparted() {
+            return vehiclesDeparted;
+        }
+
+        /**
+         * Returns the average number of vehicles leaving the intersection per step
+         */
+        public double getThroughput() {
+            return steps > 0 ? (double) vehiclesDeparted / steps : 0.0;
+        }
+
+        public double getMeanWait() {
+            return vehiclesDeparted > 0 ? (double) totalWait / vehiclesDeparted : 0.0;
+        }
+
+        public long getMaxWait() {
+            return maxWait;
+        }
+
+        /**
+         * Returns the average number of vehicles waiting on all approaches after a step
+         */
+        public double getMeanQueueLength() {
+            return steps > 0 ? (double) totalQueueLength / steps : 0.0;
+        }
+
+        public long getMaxQueueLength() {
+            return maxQueueLength;
+        }
+
+        public long getRuntimeNanos() {
+            return runtimeNanos;
+        }
+    }
+}
@@ -1,10 +1,44 @@
 package avs.simulation;
 
+import avs.simulation.model.DischargeModel;
 import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.FixedTimeTrafficLightController;
+import avs.simulation.model.LightControlers.PhasePlan;
+import avs.simulation.model.SimulationMetrics;
+import avs.simulation.network.ConservativeNetworkSimulation;
+import avs.simulation.network.Endpoint;
+import avs.simulation.network.NetworkCoordinator;
+import avs.simulation.network.NetworkSimulation;
+import avs.simulation.network.NetworkWorker;
+import avs.simulation.network.RoadNetwork;
+import avs.simulation.network.RoadNetworkLoader;
+import avs.simulation.util.BinaryCommandWriter;
+import avs.simulation.util.CommandLog;
+import avs.simulation.util.CommandReader;
+import avs.simulation.util.MetricsWriter;
+import avs.simulation.util.PhasePlanLoader;
+
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 public class Main {
     public static void main(String[] args) {
+        // Options start with "--" and may appear anywhere, the remaining arguments are positional
+        boolean pipelined = Arrays.asList(args).contains("--pipelined");
+        boolean discreteEvent = Arrays.asList(args).contains("--discrete-event");
+        boolean parallel = Arrays.asList(args).contains("--parallel");
+        boolean conservative = Arrays.asList(args).contains("--conservative");
+        boolean spawn = Arrays.asList(args).contains("--spawn");
+        boolean compactOutput = Arrays.asList(args).contains("--compact-output");
+        boolean collectMetrics = Arrays.asList(args).contains("--metrics");
+        String discharge = Arrays.stream(args).filter(arg -> arg.startsWith("--discharge="))
+                .map(arg -> arg.substring("--discharge=".length())).findFirst().orElse(null);
+        args = Arrays.stream(args).filter(arg -> !arg.startsWith("--")).toArray(String[]::new);
+
         if (args.length == 1 && args[0].equals("vis")) {
             // Visualization mode
             System.out.println("Starting traffic simulation visualization...");
@@ -12,6 +46,137 @@ public class Main {
             return;
         }
         
+        if (args.length == 3 && args[0].equals("convert")) {
+            // JSON to binary conversion mode
+            try {
+                System.out.println("Converting " + args[1] + " to binary format: " + args[2]);
+                long count = BinaryCommandWriter.convertJsonFile(new File(args[1]), new File(args[2]));
+                System.out.println("Converted " + count + " commands.");
+            } catch (IOException e) {
+                System.err.println("Error converting file: " + e.getMessage());
+                e.printStackTrace();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+
+        if ((args.length == 2 || args.length == 3) && args[0].equals("compare")) {
+            // Controller comparison mode, the input is parsed once and shared by all controllers
+            try {
+                System.out.println("Comparing controllers on: " + args[1]);
+                CommandLog commands = CommandLog.read(CommandReader.open(new File(args[1])));
+                List<ControllerComparison.ControllerReport> reports = new ControllerComparison(commands).run();
+                ControllerComparison.printReport(reports, System.out);
+                if (args.length == 3) {
+                    ControllerComparison.writeReport(reports, new File(args[2]));
+                    System.out.println("Report saved to: " + args[2]);
+                }
+            } catch (IOException e) {
+                System.err.println("Error comparing controllers: " + e.getMessage());
+                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Comparison was interrupted");
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (args.length == 5 && args[0].equals("network-coordinator")) {
+            // Distributed network mode, the workers connect to the given address and own one partition each
+            try (NetworkCoordinator coordinator = new NetworkCoordinator(new File(args[1]), Integer.parseInt(args[3]),
+                    Endpoint.parse(args[4]))) {
+                System.out.println("Waiting for " + coordinator.getWorkerCount() + " workers on "
+                        + Endpoint.format(coordinator.getAddress()));
+                List<Process> workers = spawn ? coordinator.spawnLocalWorkers() : List.of();
+                try {
+                    coordinator.run(CommandReader.open(new File(args[1])), args[2]);
+                } finally {
+                    workers.forEach(Process::destroy);
+                }
+                System.out.println("Simulated " + coordinator.getStepCount() + " steps on "
+                        + coordinator.getWorkerCount() + " workers, results saved to: " + args[2]);
+            } catch (IOException e) {
+                System.err.println("Error running distributed network simulation: " + e.getMessage());
+                e.printStackTrace();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (args.length == 2 && args[0].equals("network-worker")) {
+            // Worker of a distributed network run, exits when the coordinator ends the run
+            try {
+                NetworkWorker.run(Endpoint.parse(args[1]));
+            } catch (IOException e) {
+                System.err.println("Error in network worker: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+
+        if (args.length == 3 && args[0].equals("network")) {
+            // Road network mode, the scenario file holds the network description and the commands
+            try {
+                RoadNetwork network = RoadNetworkLoader.load(new File(args[1]));
+                System.out.println("Running network of " + network.size() + " intersections and "
+                        + network.getLinks().size() + " links from: " + args[1]);
+                if (conservative) {
+                    // One thread per partition, synchronised only through the links between partitions
+                    ConservativeNetworkSimulation simulation = new ConservativeNetworkSimulation(network,
+                            Runtime.getRuntime().availableProcessors());
+                    simulation.run(CommandReader.open(new File(args[1])), args[2]);
+                    System.out.println("Simulated " + simulation.getStepCount() + " steps in "
+                            + simulation.getPartitionCount() + " partitions, results saved to: " + args[2]);
+                    return;
+                }
+                ForkJoinPool pool = parallel ? new ForkJoinPool() : null;
+                try {
+                    NetworkSimulation simulation = new NetworkSimulation(network, pool, parallel ? pool.getParallelism() : 1);
+                    simulation.run(CommandReader.open(new File(args[1])), args[2]);
+                    System.out.println("Simulated " + simulation.getStepCount() + " steps in "
+                            + simulation.getPartitionCount() + " partitions, results saved to: " + args[2]);
+                } finally {
+                    if (pool != null) {
+                        pool.shutdown();
+                    }
+                }
+            } catch (IOException e) {
+                System.err.println("Error running network simulation: " + e.getMessage());
+                e.printStackTrace();
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+            }
+            return;
+        }
+
+        if ((args.length == 2 || args.length == 3) && args[0].equals("batch")) {
+            // Batch mode over many scenario files
+            try {
+                Intersection.ControllerType controllerType = args.length == 3 ? Intersection.ControllerType.parse(args[2]) : null;
+                List<Path> inputs = BatchRunner.findInputs(args[1]);
+                System.out.println("Running " + inputs.size() + " scenario files from: " + args[1]);
+
+                long start = System.nanoTime();
+                List<BatchRunner.FileResult> results = new BatchRunner(controllerType).run(inputs);
+                BatchRunner.printSummary(results, System.nanoTime() - start, System.out);
+            } catch (IOException e) {
+                System.err.println("Error listing scenario files: " + e.getMessage());
+                e.printStackTrace();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                System.err.println("Batch run was interrupted");
+            } catch (IllegalArgumentException e) {
+                System.err.println("Error: " + e.getMessage());
+                System.err.println("Valid controller types: standard, priority, opposing");
+            }
+            return;
+        }
+
         if (args.length >= 2) {
             // File processing mode
             String inputFile = args[0];
@@ -25,15 +190,50 @@ public class Main {
                 // Create simulation
                 Simulation simulation = new Simulation();
                 
-                // Set controller type if provided
-                if (controllerTypeArg != null) {
-                    Intersection.ControllerType controllerType = parseControllerType(controllerTypeArg);
+                // Set controller type if provided, a JSON file holds a timing plan
+                if (controllerTypeArg != null && controllerTypeArg.endsWith(".json")) {
+                    PhasePlan plan = PhasePlanLoader.load(new File(controllerTypeArg));
+                    FixedTimeTrafficLightController.register(plan);
+                    System.out.println("Using timing plan: " + plan.getName());
+                    simulation.setIntersectionController(plan.getName());
+                } else if (controllerTypeArg != null) {
+                    Intersection.ControllerType controllerType = Intersection.ControllerType.parse(controllerTypeArg);
                     System.out.println("Using controller type: " + controllerType);
                     simulation.setIntersectionControllerType(controllerType);
                 }
                 
+                if (discharge != null) {
+                    DischargeModel dischargeModel = DischargeModel.parse(discharge);
+                    System.out.println("Using discharge model: " + dischargeModel);
+                    simulation.setDischargeModel(dischargeModel);
+                }
+
+                if (compactOutput) {
+                    simulation.setCompactOutput(true);
+                }
+
+                if (collectMetrics) {
+                    simulation.setMetrics(new SimulationMetrics());
+                }
+
+                if (discreteEvent) {
+                    System.out.println("Using discrete-event engine");
+                    simulation.setEngineMode(Simulation.EngineMode.DISCRETE_EVENT);
+                }
+
                 // Run the simulation
-                simulation.runFromJsonFile(inputFile, outputFile);
+                CommandReader reader = CommandReader.open(new File(inputFile));
+                if (pipelined) {
+                    System.out.println("Using pipelined execution");
+                    simulation.runPipelined(reader, outputFile);
+                } else {
+                    simulation.run(reader, outputFile);
+                }
+
+                if (collectMetrics) {
+                    File metricsFile = MetricsWriter.write(simulation.getMetrics(), outputFile);
+                    System.out.println("Metrics saved to: " + metricsFile);
+                }
                 
                 System.out.println("Simulation completed successfully.");
             } catch (IOException e) {
@@ -49,23 +249,28 @@ public class Main {
         // If we get here, show usage info
         System.out.println("Usage:");
         System.out.println("  java -jar TrafficSimulation-1.0.jar vis");
-        System.out.println("  java -jar TrafficSimulation-1.0.jar <inputFile.json> <outputFile.json> [controllerType]");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar <inputFile.json|inputFile.bin> <outputFile.json> [controllerType] [--pipelined] [--discrete-event] [--discharge=<vehiclesPerStep>[:<lostSteps>]] [--compact-output] [--metrics]");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar convert <inputFile.json> <outputFile.bin>");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar batch <inputDirectory|glob> [controllerType]");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar compare <inputFile.json|inputFile.bin> [reportFile.json]");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar network <scenario.json> <outputFile.json> [--parallel|--conservative]");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar network-coordinator <scenario.json> <outputFile.json> <workers> <tcp:host:port|unix:path> [--spawn]");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar network-worker <tcp:host:port|unix:path>");
         System.out.println("Examples:");
         System.out.println("  java -jar TrafficSimulation-1.0.jar vis");
         System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json");
         System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json opposing");
-        System.out.println("\nValid controller types: standard, priority, opposing");
-    }
-    
-    /**
-     * Parses the controller type string into the corresponding enum value
-     */
-    private static Intersection.ControllerType parseControllerType(String type) {
-        return switch (type.toLowerCase()) {
-            case "standard" -> Intersection.ControllerType.STANDARD;
-            case "priority" -> Intersection.ControllerType.PRIORITY;
-            case "opposing" -> Intersection.ControllerType.OPPOSING;
-            default -> throw new IllegalArgumentException("Unknown controller type: " + type);
-        };
+        System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json timing-plan.json");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json --pipelined");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json --discrete-event");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json --discharge=3:2");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar input.json output.json --metrics");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar convert input.json input.bin");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar batch scenarios/ opposing");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar batch 'scenarios/night-*.json'");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar compare input.json report.json");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar network city.json city-output.json --parallel");
+        System.out.println("  java -jar TrafficSimulation-1.0.jar network-coordinator city.json city-output.json 4 tcp:localhost:7000 --spawn");
+        System.out.println("\nValid controller types: standard, priority, opposing, or a timing plan file (.json)");
     }
 }
\ No newline at end of file
@@ -1,138 +1,522 @@
 package avs.simulation;
 
 import avs.simulation.UI.SimulationState;
+import avs.simulation.model.DepartureStatistics;
+import avs.simulation.model.DischargeModel;
+import avs.simulation.model.EventQueue;
 import avs.simulation.model.Intersection;
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.SimulationEvent;
+import avs.simulation.model.SimulationMetrics;
 import avs.simulation.model.StepStatus;
 import avs.simulation.model.LightControlers.TrafficLight;
 import avs.simulation.model.Vehicle;
+import avs.simulation.model.VehicleIdDictionary;
+import avs.simulation.model.VehicleQueue;
+import avs.simulation.model.VehicleQueues;
+import avs.simulation.model.VehicleRegistry;
+import avs.simulation.model.VehicleRetention;
+import avs.simulation.util.BatchQueue;
+import avs.simulation.util.BinaryCommandReader;
 import avs.simulation.util.Command;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import avs.simulation.util.CommandReader;
+import avs.simulation.util.JsonCommandReader;
+import avs.simulation.util.JsonStepStatusWriter;
+import avs.simulation.util.StepLog;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.*;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 public class Simulation {
     private Intersection intersection;
-    private Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues;
-    private List<Vehicle> completedVehicles;
-    private List<StepStatus> stepStatuses;
+    private VehicleQueues vehicleQueues;
+    private final VehicleRegistry<Vehicle> completedVehicles = new VehicleRegistry<>(); // Departed vehicles by handle, visual mode only
+    private VehicleRetention completedVehicleRetention = VehicleRetention.DEFAULT;
+    private final DepartureStatistics departureStatistics = new DepartureStatistics();
+    private SimulationMetrics metrics; // Null unless metrics are collected
+    private final List<Vehicle> departedVehicles = new ArrayList<>(); // Vehicles that left during the current step
+    private final VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+    // Visual mode: handles of departed vehicles neither kept nor animated, released at the start of the next step
+    private int[] releasableHandles = new int[16];
+    private int releasableCount = 0;
+    private final Consumer<Vehicle> releaseUnlessAnimated = this::releaseUnlessAnimated;
+    private final StepStatus stepStatus = new StepStatus(); // Reused by every step
+    private int outputFlushInterval = JsonStepStatusWriter.DEFAULT_FLUSH_INTERVAL;
+    private boolean compactOutput = false;
+    private final SimulationClock clock = new SimulationClock();
+    private EngineMode engineMode = EngineMode.TIME_STEPPED;
+    private final EventQueue events = new EventQueue();
+    private boolean eventsScheduled = false;
 
     private boolean visualMode = false;
     private List<Consumer<SimulationState>> simulationListeners = new CopyOnWriteArrayList<>();
+    private List<Consumer<Vehicle>> departureListeners = new CopyOnWriteArrayList<>();
     private SimulationState currentState;
-    private static final int MAX_VEHICLES_PER_GREEN = 1; // Limit the number of vehicles per green/yellow light
+    private static final int PIPELINE_BATCH_SIZE = 1024;
+    private static final int PIPELINE_CAPACITY = 16; // Batches buffered between two pipeline stages
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    /**
+     * How the engine advances through steps in which no vehicle can leave
+     */
+    public enum EngineMode {
+        /** Every step updates every light, only steps without waiting vehicles are fast-forwarded */
+        TIME_STEPPED,
+        /** Time jumps from one scheduled phase change or departure to the next */
+        DISCRETE_EVENT
+    }
 
     public Simulation() {
         this.intersection = new Intersection();
-        this.vehicleQueues = new HashMap<>();
-        this.completedVehicles = new ArrayList<>();
-        this.stepStatuses = new ArrayList<>();
-
-        for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
-            vehicleQueues.put(direction, new LinkedList<>());
-        }
+        this.vehicleQueues = new VehicleQueues();
 
-        currentState = new SimulationState();
+        currentState = new SimulationState(vehicleIds);
+        currentState.setAnimationEndListener(handle -> {
+            if (!completedVehicles.contains(handle)) {
+                scheduleRelease(handle);
+            }
+        });
 
     }
 
     public void runFromJsonFile(String inputFile, String outputFile) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        Map input = mapper.readValue(new File(inputFile), Map.class);
-        List<Map<String, Object>> commandsData = (List<Map<String, Object>>) input.get("commands");
-        List<Command> commands = parseCommands(commandsData);
-
-        for (Command command : commands) {
-            executeCommand(command);
-        }
-        generateOutputFile(outputFile);
+        run(new JsonCommandReader(new File(inputFile)), outputFile);
     }
 
-    private List<Command> parseCommands(List<Map<String, Object>> commandsData) {
-
-        List<Command> commands = new ArrayList<>();
-        for (Map<String, Object> commandData : commandsData) {
-            String type = (String) commandData.get("type");
+    public void runFromBinaryFile(String inputFile, String outputFile) throws IOException {
+        run(new BinaryCommandReader(new File(inputFile)), outputFile);
+    }
 
-            if ("addVehicle".equals(type)) {
-                String vehicleId = (String) commandData.get("vehicleId");
-                TrafficLight.Direction startRoad = parseDirection((String) commandData.get("startRoad"));
-                TrafficLight.Direction endRoad = parseDirection((String) commandData.get("endRoad"));
+    /**
+     * Executes every command of the reader and writes the step statuses to the output file.
+     * Commands are executed as they are decoded and each step status is written as soon as
+     * it is produced, so neither the input nor the output is ever held in memory as a whole.
+     * Steps in which no vehicle can leave are skipped where possible, see {@link #skipQuietSteps(long)}.
+     * The reader is closed when the run ends.
+     */
+    public void run(CommandReader commandReader, String outputFile) throws IOException {
+        try (CommandReader reader = commandReader;
+             JsonStepStatusWriter writer = new JsonStepStatusWriter(new File(outputFile), outputFlushInterval)) {
+            writer.setCompactEmptySteps(compactOutput);
+            Command command = reader.next();
+            while (command != null) {
+                if (command.getType() == Command.CommandType.STEP) {
+                    long steps = 0;
+                    do {
+                        steps++;
+                        command = reader.next();
+                    } while (command != null && command.getType() == Command.CommandType.STEP);
+                    executeSteps(steps, writer);
+                } else {
+                    addVehicle(command.getVehicleId(), command.getStartRoad(), command.getEndRoad());
+                    command = reader.next();
+                }
+            }
+        }
+    }
 
-                commands.add(new Command(Command.CommandType.ADD_VEHICLE, vehicleId, startRoad, endRoad));
-            } else if ("step".equals(type)) {
-                commands.add(new Command(Command.CommandType.STEP));
+    /**
+     * Same as {@link #run(CommandReader, String)}, but parsing, simulation and output run on separate threads
+     * connected by bounded batch queues. The simulation runs on the calling thread and never waits on I/O
+     * unless a neighbouring stage falls behind by more than the queue capacity. Step statuses are handed
+     * over in {@link StepLog} chunks, so runs of empty steps cost nothing in between.
+     */
+    public void runPipelined(CommandReader commandReader, String outputFile) throws IOException {
+        BatchQueue<Command> commands = new BatchQueue<>(PIPELINE_BATCH_SIZE, PIPELINE_CAPACITY);
+        BatchQueue<StepLog> statuses = new BatchQueue<>(1, PIPELINE_CAPACITY);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+
+        Thread parserThread = new Thread(() -> {
+            try (CommandReader reader = commandReader) {
+                Command command;
+                while ((command = reader.next()) != null) {
+                    commands.add(command);
+                }
+            } catch (InterruptedException e) {
+                // The simulation stopped consuming commands
+                return;
+            } catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
             }
+            try {
+                commands.close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "simulation-parser");
+
+        Thread writerThread = new Thread(() -> {
+            try (JsonStepStatusWriter writer = new JsonStepStatusWriter(new File(outputFile), outputFlushInterval)) {
+                writer.setCompactEmptySteps(compactOutput);
+                List<StepLog> batch;
+                while ((batch = statuses.take()) != null) {
+                    for (StepLog log : batch) {
+                        log.writeTo(writer);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | RuntimeException e) {
+                failure.compareAndSet(null, e);
+                try {
+                    // Keep the simulation from blocking on a full queue
+                    statuses.drain();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "simulation-writer");
+
+        parserThread.start();
+        writerThread.start();
+
+        try {
+            List<Command> batch;
+            long pendingSteps = 0;
+            StepLog log = new StepLog();
+            while (failure.get() == null && (batch = commands.take()) != null) {
+                for (Command command : batch) {
+                    if (command.getType() == Command.CommandType.STEP) {
+                        // Runs of steps are executed together before the next vehicle arrives
+                        pendingSteps++;
+                    } else {
+                        log = executeSteps(pendingSteps, log, statuses);
+                        pendingSteps = 0;
+                        addVehicle(command.getVehicleId(), command.getStartRoad(), command.getEndRoad());
+                    }
+                }
+            }
+            log = executeSteps(pendingSteps, log, statuses);
+            if (log.getStepCount() > 0) {
+                statuses.add(log);
+            }
+            if (failure.get() != null) {
+                parserThread.interrupt();
+            }
+            statuses.close();
+            parserThread.join();
+            writerThread.join();
+        } catch (InterruptedException e) {
+            parserThread.interrupt();
+            writerThread.interrupt();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Pipelined simulation was interrupted");
+        } catch (RuntimeException e) {
+            parserThread.interrupt();
+            writerThread.interrupt();
+            throw e;
         }
 
-        return commands;
+        Exception error = failure.get();
+        if (error instanceof IOException ioException) {
+            throw ioException;
+        } else if (error instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
     }
 
-    private TrafficLight.Direction parseDirection(String direction) {
-        return switch (direction.toLowerCase()) {
-            case "north" -> TrafficLight.Direction.NORTH;
-            case "east" -> TrafficLight.Direction.EAST;
-            case "south" -> TrafficLight.Direction.SOUTH;
-            case "west" -> TrafficLight.Direction.WEST;
-            default -> throw new IllegalArgumentException("Unnown: " + direction);
-        };
+    private void executeSteps(long steps, JsonStepStatusWriter writer) throws IOException {
+        while (steps > 0) {
+            long skipped = skipQuietSteps(steps);
+            writer.writeEmpty(skipped);
+            steps -= skipped;
+            if (steps > 0) {
+                writer.write(performSimulationStep(), vehicleIds);
+                steps--;
+            }
+        }
     }
 
-    private void executeCommand(Command command) {
-        switch (command.getType()) {
-            case ADD_VEHICLE:
-                addVehicle(command.getVehicleId(), command.getStartRoad(), command.getEndRoad());
-                break;
-            case STEP:
-                performSimulationStep();
-                break;
+    /**
+     * Records the steps in a log, which is handed over once it holds a batch of non-empty steps
+     *
+     * @return The log to record the following steps in
+     */
+    private StepLog executeSteps(long steps, StepLog log, BatchQueue<StepLog> statuses) throws InterruptedException {
+        while (steps > 0) {
+            long skipped = skipQuietSteps(steps);
+            log.addEmpty(skipped);
+            steps -= skipped;
+            if (steps > 0) {
+                // Handles are only valid on this thread, so ids are resolved before the hand-off
+                log.add(resolveLeftVehicles(performSimulationStep()));
+                steps--;
+                if (log.getNonEmptyStepCount() == PIPELINE_BATCH_SIZE) {
+                    statuses.add(log);
+                    log = new StepLog();
+                }
+            }
         }
+        return log;
     }
 
-    public void performSimulationStep() {
+    /**
+     * Advances the simulation by one step.
+     * The returned status is only valid until the next step, which reuses it. Its vehicle handles
+     * can be resolved through {@link #getVehicleIds()} until then, after which they may be reused
+     * outside of visual mode. Once queues have reached their longest length, a step allocates nothing.
+     */
+    public StepStatus performSimulationStep() {
+        if (!visualMode) {
+            releaseVehicleIds(stepStatus);
+        }
+        releaseScheduledVehicleIds();
+        stepStatus.clear();
+        departedVehicles.clear();
+        eventsScheduled = false;
 
-        StepStatus stepStatus = new StepStatus();
         intersection.update(vehicleQueues);
-        intersection.processVehicles(vehicleQueues, stepStatus, completedVehicles);
-        updateWaitingVehicles();
-        stepStatuses.add(stepStatus);
+        if (metrics != null) {
+            recordPhase();
+        }
+        intersection.processVehicles(vehicleQueues, stepStatus, departedVehicles);
+        for (int i = 0; i < departedVehicles.size(); i++) {
+            departureStatistics.accept(departedVehicles.get(i));
+        }
+        if (metrics != null) {
+            metrics.recordDepartures(departedVehicles, intersection.getCurrentGreenDirection());
+        }
+        if (!departureListeners.isEmpty()) {
+            for (int i = 0; i < departedVehicles.size(); i++) {
+                for (int j = 0; j < departureListeners.size(); j++) {
+                    departureListeners.get(j).accept(departedVehicles.get(i));
+                }
+            }
+        }
+        clock.advance();
+        if (metrics != null) {
+            metrics.recordQueueLengths(clock.now(), vehicleQueues);
+        }
 
         if (visualMode) {
+            // Crossing animations look up departed vehicles by handle
+            for (int i = 0; i < departedVehicles.size(); i++) {
+                Vehicle vehicle = departedVehicles.get(i);
+                completedVehicles.put(vehicle.getHandle(), vehicle);
+            }
             updateSimulationState(stepStatus);
+            completedVehicleRetention.evict(completedVehicles, clock.now(), releaseUnlessAnimated);
         }
+        return stepStatus;
     }
 
-
-    private void updateWaitingVehicles() {
-        for (Queue<Vehicle> queue : vehicleQueues.values()) {
-            for (Vehicle vehicle : queue) {
-                vehicle.update();
+    /**
+     * Advances the simulation by a number of steps while no vehicle is waiting.
+     * Outside visual mode this takes the same time for any number of steps; the statuses of the
+     * skipped steps are all empty and are not produced.
+     *
+     * @throws IllegalStateException If a vehicle is waiting
+     */
+    public void performIdleSteps(long steps) {
+        if (vehicleQueues.totalSize() > 0) {
+            throw new IllegalStateException("Cannot skip steps while vehicles are waiting");
+        }
+        if (visualMode) {
+            for (long i = 0; i < steps; i++) {
+                performSimulationStep();
             }
+            return;
+        }
+        releaseVehicleIds(stepStatus);
+        stepStatus.clear();
+        eventsScheduled = false;
+        intersection.advanceIdle(vehicleQueues, steps);
+        clock.advance(steps);
+        if (metrics != null) {
+            recordPhase();
         }
     }
 
-    private void generateOutputFile(String outputFile) throws IOException {
-        ObjectMapper mapper = new ObjectMapper();
-        ObjectNode rootNode = mapper.createObjectNode();
-        ArrayNode stepStatusesNode = rootNode.putArray("stepStatuses");
+    /**
+     * Skips upcoming steps in which no vehicle can leave, in time independent of their number.
+     * Steps without waiting vehicles are always skipped. In {@link EngineMode#DISCRETE_EVENT} mode, steps
+     * before the next scheduled phase change or departure are skipped as well. Visual mode never skips.
+     *
+     * @param maxSteps The maximum number of steps to skip
+     * @return The number of skipped steps, whose statuses are all empty
+     */
+    public long skipQuietSteps(long maxSteps) {
+        if (visualMode || maxSteps <= 0) {
+            return 0;
+        }
+        if (vehicleQueues.totalSize() == 0) {
+            performIdleSteps(maxSteps);
+            return maxSteps;
+        }
+        if (engineMode != EngineMode.DISCRETE_EVENT) {
+            return 0;
+        }
 
-        for (StepStatus status : stepStatuses) {
-            ObjectNode statusNode = mapper.createObjectNode();
-            ArrayNode leftVehiclesNode = statusNode.putArray("leftVehicles");
+        if (!eventsScheduled) {
+            scheduleEvents();
+        }
+        long quietSteps = Math.min(maxSteps, events.nextEventTime() - clock.now() - 1);
+        if (quietSteps <= 0) {
+            return 0;
+        }
+        releaseVehicleIds(stepStatus);
+        stepStatus.clear();
+        intersection.advanceWithinPhase(vehicleQueues, quietSteps);
+        clock.advance(quietSteps);
+        return quietSteps;
+    }
 
-            for (String vehicleId : status.getLeftVehicles()) {
-                leftVehiclesNode.add(vehicleId);
+    /**
+     * Schedules the next phase change and, for every approach whose first vehicle could leave
+     * under the current lights, a departure in the next step. Arrivals come from the command stream
+     * and invalidate the schedule, as does every executed step.
+     */
+    private void scheduleEvents() {
+        events.clear();
+        long nextStep = clock.now() + 1;
+        events.schedule(new SimulationEvent(clock.now() + intersection.getStepsUntilPhaseChange(),
+                SimulationEvent.Type.PHASE_CHANGE, null));
+
+        // Light states only change with the phase, so this is also the next step's set of crossable approaches
+        int crossableDirections = intersection.getCrossableDirections(vehicleQueues);
+        for (TrafficLight.Direction direction : DIRECTIONS) {
+            if ((crossableDirections & (1 << direction.ordinal())) != 0) {
+                events.schedule(new SimulationEvent(nextStep, SimulationEvent.Type.DEPARTURE, direction));
             }
+        }
+        eventsScheduled = true;
+    }
+
+    private void releaseVehicleIds(StepStatus stepStatus) {
+        for (int i = 0; i < stepStatus.getLeftVehicleCount(); i++) {
+            vehicleIds.release(stepStatus.getLeftVehicle(i));
+        }
+    }
+
+    private void releaseUnlessAnimated(Vehicle vehicle) {
+        if (!currentState.isCrossing(vehicle.getHandle())) {
+            scheduleRelease(vehicle.getHandle());
+        }
+    }
+
+    private void scheduleRelease(int handle) {
+        if (releasableCount == releasableHandles.length) {
+            releasableHandles = Arrays.copyOf(releasableHandles, releasableCount * 2);
+        }
+        releasableHandles[releasableCount++] = handle;
+    }
+
+    /**
+     * Releases the handles of departed vehicles that are no longer kept or animated. This waits for the next step
+     * so that the state shown for the previous one can still resolve them.
+     */
+    private void releaseScheduledVehicleIds() {
+        for (int i = 0; i < releasableCount; i++) {
+            vehicleIds.release(releasableHandles[i]);
+        }
+        releasableCount = 0;
+    }
+
+    private String[] resolveLeftVehicles(StepStatus stepStatus) {
+        String[] leftVehicleIds = new String[stepStatus.getLeftVehicleCount()];
+        for (int i = 0; i < leftVehicleIds.length; i++) {
+            leftVehicleIds[i] = vehicleIds.resolve(stepStatus.getLeftVehicle(i));
+        }
+        return leftVehicleIds;
+    }
+
+
+    /**
+     * Sets how many steps are written to the output file between flushes
+     */
+    public void setOutputFlushInterval(int outputFlushInterval) {
+        if (outputFlushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + outputFlushInterval);
+        }
+        this.outputFlushInterval = outputFlushInterval;
+    }
+
+    /**
+     * Chooses whether runs of empty steps are written to the output as single {"emptySteps": n} entries
+     * instead of one {"leftVehicles": []} entry per step
+     */
+    public void setCompactOutput(boolean compactOutput) {
+        this.compactOutput = compactOutput;
+    }
+
+    /**
+     * Returns the number of simulation steps performed so far
+     */
+    public long getStepCount() {
+        return clock.now();
+    }
+
+    /**
+     * Sets how many vehicles each approach releases per step and its start-up lost time,
+     * by default one vehicle without lost time
+     */
+    public void setDischargeModel(DischargeModel dischargeModel) {
+        intersection.setDischargeModel(dischargeModel);
+        eventsScheduled = false;
+    }
+
+    /**
+     * Sets how long departed vehicles are kept in visual mode, dropping the ones the policy no longer keeps
+     */
+    public void setCompletedVehicleRetention(VehicleRetention retention) {
+        this.completedVehicleRetention = retention;
+        retention.evict(completedVehicles, clock.now(), releaseUnlessAnimated);
+    }
 
-            stepStatusesNode.add(statusNode);
+    /**
+     * Returns the departed vehicles still kept by the retention policy, oldest first
+     */
+    public List<Vehicle> getCompletedVehicles() {
+        List<Vehicle> vehicles = new ArrayList<>(completedVehicles.size());
+        completedVehicles.forEach(vehicles::add);
+        return vehicles;
+    }
+
+    /**
+     * Starts collecting metrics from the current step on, or stops with null
+     */
+    public void setMetrics(SimulationMetrics metrics) {
+        this.metrics = metrics;
+        if (metrics != null) {
+            metrics.recordQueueLengths(clock.now(), vehicleQueues);
+            recordPhase();
         }
+    }
 
-        mapper.writerWithDefaultPrettyPrinter().writeValue(new File(outputFile), rootNode);
+    private void recordPhase() {
+        TrafficLight.Direction phase = intersection.getCurrentGreenDirection();
+        metrics.recordPhase(phase, phase != null
+                && intersection.getTrafficLight(phase).getCurrentState() == TrafficLight.LightState.GREEN);
+    }
+
+    /**
+     * Returns the collected metrics, with the queue lengths accounted up to the current step
+     */
+    public SimulationMetrics getMetrics() {
+        if (metrics != null) {
+            metrics.closeSample(clock.now());
+        }
+        return metrics;
+    }
+
+    /**
+     * Returns the running statistics of all vehicles that have departed, including evicted ones
+     */
+    public DepartureStatistics getDepartureStatistics() {
+        return departureStatistics;
+    }
+
+    public void setEngineMode(EngineMode engineMode) {
+        this.engineMode = engineMode;
+    }
+
+    public EngineMode getEngineMode() {
+        return engineMode;
     }
 
     public void setVisualMode(boolean visualMode) {
@@ -143,17 +527,49 @@ public class Simulation {
         simulationListeners.add(listener);
     }
 
+    /**
+     * Registers a listener that is called for every vehicle leaving the intersection
+     */
+    public void addDepartureListener(Consumer<Vehicle> listener) {
+        departureListeners.add(listener);
+    }
+
+    /**
+     * Returns the number of vehicles waiting on an approach
+     */
+    public int getQueueLength(TrafficLight.Direction direction) {
+        return vehicleQueues.size(direction);
+    }
+
+    /**
+     * Returns the dictionary that resolves vehicle handles to their external ids
+     */
+    public VehicleIdDictionary getVehicleIds() {
+        return vehicleIds;
+    }
+
     public SimulationState getCurrentState() {
         return currentState;
     }
 
-    public void addVehicle(String vehicleId, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
-        Vehicle vehicle = new Vehicle(vehicleId, startRoad, endRoad);
-        vehicleQueues.get(startRoad).add(vehicle);
+    /**
+     * Adds a vehicle to the queue of its start road
+     *
+     * @return The handle assigned to the vehicle id
+     */
+    public int addVehicle(String vehicleId, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
+        int handle = vehicleIds.register(vehicleId);
+        Vehicle vehicle = new Vehicle(handle, vehicleId, startRoad, endRoad, clock);
+        vehicleQueues.add(vehicle);
+        eventsScheduled = false;
+        if (metrics != null) {
+            metrics.recordQueueLengths(clock.now(), vehicleQueues);
+        }
 
         if (visualMode) {
             updateSimulationState(null);
         }
+        return handle;
     }
 
     private void updateSimulationState(StepStatus stepStatus) {
@@ -163,44 +579,37 @@ public class Simulation {
         }
         for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
             List<SimulationState.QueuedVehicle> vehicles = new ArrayList<>();
-            for (Vehicle v : vehicleQueues.get(dir)) {
+            VehicleQueue queue = vehicleQueues.get(dir);
+            for (int i = 0; i < queue.size(); i++) {
+                Vehicle v = queue.get(i);
                 // Store the complete vehicle information including start and end roads
                 vehicles.add(new SimulationState.QueuedVehicle(
-                        v.getVehicleId(), v.getStartRoad(), v.getEndRoad()));
+                        v.getHandle(), v.getStartRoad(), v.getEndRoad()));
             }
             currentState.setVehicleQueue(dir, vehicles);
         }
 
-        if (stepStatus != null && !stepStatus.getLeftVehicles().isEmpty()) {
-            List<String> crossedVehicles = new ArrayList<>(stepStatus.getLeftVehicles());
-            List<String> newCrossedVehicles = new ArrayList<>();
-            for (String vehicleId : crossedVehicles) {
-                boolean alreadyAnimated = false;
-                for (SimulationState.CrossingVehicle v : currentState.getCrossingVehicles()) {
-                    if (v.getId().equals(vehicleId)) {
-                        alreadyAnimated = true;
-                        break;
-                    }
-                }
-
-                if (!alreadyAnimated) {
-                    newCrossedVehicles.add(vehicleId);
+        if (stepStatus != null && !stepStatus.isEmpty()) {
+            int[] newCrossedVehicles = new int[stepStatus.getLeftVehicleCount()];
+            int newCrossedCount = 0;
+            for (int i = 0; i < stepStatus.getLeftVehicleCount(); i++) {
+                int handle = stepStatus.getLeftVehicle(i);
+                if (!currentState.isCrossing(handle)) {
+                    newCrossedVehicles[newCrossedCount++] = handle;
                 }
             }
+            newCrossedVehicles = Arrays.copyOf(newCrossedVehicles, newCrossedCount);
             currentState.setLastCrossedVehicles(newCrossedVehicles);
-            for (String vehicleId : newCrossedVehicles) {
-                for (Vehicle v : completedVehicles) {
-                    if (v.getVehicleId().equals(vehicleId)) {
-
-                        currentState.addCrossingVehicle(vehicleId,
-                                v.getStartRoad(),
-                                v.getEndRoad());
-                        break;
-                    }
+            for (int handle : newCrossedVehicles) {
+                Vehicle v = completedVehicles.get(handle);
+                if (v != null) {
+                    currentState.addCrossingVehicle(handle,
+                            v.getStartRoad(),
+                            v.getEndRoad());
                 }
             }
         } else {
-            currentState.setLastCrossedVehicles(new ArrayList<>());
+            currentState.setLastCrossedVehicles(new int[0]);
         }
 
         for (Consumer<SimulationState> listener : simulationListeners) {
@@ -210,8 +619,20 @@ public class Simulation {
 
     // Add this method to your Simulation class
     public void setIntersectionControllerType(Intersection.ControllerType type) {
+        setIntersectionController(type.getControllerName());
+    }
+
+    /**
+     * Switches the intersection to a controller registered with
+     * {@link avs.simulation.model.LightControlers.ControllerRegistry}
+     */
+    public void setIntersectionController(String controllerName) {
         if (intersection != null) {
-            intersection.setControllerType(type);
+            intersection.setController(controllerName);
+            eventsScheduled = false;
+            if (metrics != null) {
+                recordPhase();
+            }
         }
         
         // Notify listeners about the state change
@@ -3,29 +3,34 @@ package avs.simulation.UI;
 import avs.simulation.UI.animation.AnimationPathFactory;
 import avs.simulation.UI.utils.DirectionUtils;
 import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.SimulationClock;
 import avs.simulation.model.Vehicle;
 import javafx.animation.Timeline;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
 
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 public class AnimatedVehicle {
     private Vehicle vehicle;
+    private final String label;
     private Timeline animation;
     private boolean reachedMidpoint = false;
     private Consumer<String> onMidpointReached;
-    private Consumer<String> onAnimationFinished;
+    private IntConsumer onAnimationFinished;
     private final DoubleProperty x = new SimpleDoubleProperty();
     private final DoubleProperty y = new SimpleDoubleProperty();
     private final DoubleProperty rotation = new SimpleDoubleProperty();
     
-    public AnimatedVehicle(String id, 
+    public AnimatedVehicle(int handle,
+                          String label,
                           TrafficLight.Direction fromDirection, 
                           TrafficLight.Direction toDirection,
                           Consumer<String> onMidpointReached,
-                          Consumer<String> onAnimationFinished) {
-        this.vehicle = new Vehicle(id, fromDirection, toDirection);
+                          IntConsumer onAnimationFinished) {
+        this.vehicle = new Vehicle(handle, label, fromDirection, toDirection, new SimulationClock());
+        this.label = label;
         this.onMidpointReached = onMidpointReached;
         this.onAnimationFinished = onAnimationFinished;
         setInitialPositionAndRotation();
@@ -67,7 +72,7 @@ public class AnimatedVehicle {
         
         animation.setOnFinished(event -> {
             if (onAnimationFinished != null) {
-                onAnimationFinished.accept(vehicle.getVehicleId());
+                onAnimationFinished.accept(vehicle.getHandle());
             }
         });
         
@@ -80,8 +85,12 @@ public class AnimatedVehicle {
         }
     }
     
-    public String getId() {
-        return vehicle.getVehicleId();
+    public int getHandle() {
+        return vehicle.getHandle();
+    }
+
+    public String getLabel() {
+        return label;
     }
     
     public TrafficLight.Direction getFromDirection() {
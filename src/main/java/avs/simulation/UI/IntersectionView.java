@@ -28,7 +28,7 @@ public class IntersectionView extends Canvas {
         // Initialize components
         renderer = new avs.simulation.UI.renderers.IntersectionView();
         vehicleAnimationManager = new VehicleAnimationManager(
-            vehicleId -> currentState.removeVehicleFromAnimation(vehicleId)
+            handle -> currentState.removeVehicleFromAnimation(handle)
         );
         queueAnimationManager = new QueueAnimationManager();
         
@@ -2,21 +2,34 @@ package avs.simulation.UI;
 
 import avs.simulation.model.LightControlers.TrafficLight;
 import avs.simulation.model.Vehicle;
+import avs.simulation.model.VehicleIdDictionary;
+import avs.simulation.model.VehicleRegistry;
 import avs.simulation.UI.utils.DirectionUtils;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
 public class SimulationState {
     private Map<TrafficLight.Direction, TrafficLight.LightState> lightStates;
     private Map<TrafficLight.Direction, List<QueuedVehicle>> vehicleQueues;
-    private List<String> lastCrossedVehicles;
-    private List<CrossingVehicle> crossingVehicles;
+    private int[] lastCrossedVehicles;
+    private final VehicleRegistry<CrossingVehicle> crossingVehicles;
+    private final VehicleIdDictionary vehicleIds;
+    private IntConsumer animationEndListener = handle -> { };
 
     public SimulationState() {
+        this(new VehicleIdDictionary());
+    }
+
+    /**
+     * @param vehicleIds The dictionary used to resolve vehicle handles for display
+     */
+    public SimulationState(VehicleIdDictionary vehicleIds) {
+        this.vehicleIds = vehicleIds;
         lightStates = new HashMap<>();
         vehicleQueues = new HashMap<>();
-        lastCrossedVehicles = new ArrayList<>();
-        crossingVehicles = new ArrayList<>();
+        lastCrossedVehicles = new int[0];
+        crossingVehicles = new VehicleRegistry<>();
 
         // Initialize with default values
         for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
@@ -33,7 +46,7 @@ public class SimulationState {
         vehicleQueues.put(direction, new ArrayList<>(vehicles));
     }
 
-    public void setLastCrossedVehicles(List<String> vehicles) {
+    public void setLastCrossedVehicles(int[] vehicles) {
         lastCrossedVehicles = vehicles;
     }
 
@@ -45,46 +58,62 @@ public class SimulationState {
         return vehicleQueues.getOrDefault(direction, new ArrayList<>());
     }
 
-    public List<String> getLastCrossedVehicles() {
+    public int[] getLastCrossedVehicles() {
         return lastCrossedVehicles;
     }
 
-    public List<CrossingVehicle> getCrossingVehicles() {
+    /**
+     * Returns the vehicles being animated across the intersection, indexed by handle
+     */
+    public VehicleRegistry<CrossingVehicle> getCrossingVehicles() {
         return crossingVehicles;
     }
 
-    public void addCrossingVehicle(String id, TrafficLight.Direction from, TrafficLight.Direction to) {
-        crossingVehicles.add(new CrossingVehicle(id, from, to, 0));
+    public boolean isCrossing(int handle) {
+        return crossingVehicles.contains(handle);
+    }
+
+    /**
+     * Returns the external id of a vehicle handle, for display
+     */
+    public String getVehicleName(int handle) {
+        return vehicleIds.resolve(handle);
+    }
+
+    public void addCrossingVehicle(int handle, TrafficLight.Direction from, TrafficLight.Direction to) {
+        crossingVehicles.put(handle, new CrossingVehicle(handle, from, to, 0));
     }
 
 
-    public void removeVehicleFromAnimation(String id) {
-        Iterator<CrossingVehicle> iterator = crossingVehicles.iterator();
-        while (iterator.hasNext()) {
-            CrossingVehicle vehicle = iterator.next();
-            if (vehicle.getId().equals(id)) {
-                iterator.remove();
-                System.out.println("Removed: " + id);
-                break;
-            }
+    public void removeVehicleFromAnimation(int handle) {
+        if (crossingVehicles.remove(handle) != null) {
+            System.out.println("Removed: " + getVehicleName(handle));
+            animationEndListener.accept(handle);
         }
     }
 
+    /**
+     * Sets the listener called with the handle of every vehicle whose crossing animation has ended
+     */
+    public void setAnimationEndListener(IntConsumer listener) {
+        this.animationEndListener = listener;
+    }
+
     public static class CrossingVehicle {
-        private final String id;
+        private final int handle;
         private TrafficLight.Direction fromDirection;
         private TrafficLight.Direction toDirection;
         private int animationStep;
 
-        public CrossingVehicle(String id, TrafficLight.Direction fromDirection, TrafficLight.Direction toDirection, int animationStep) {
-            this.id = id;
+        public CrossingVehicle(int handle, TrafficLight.Direction fromDirection, TrafficLight.Direction toDirection, int animationStep) {
+            this.handle = handle;
             this.fromDirection = fromDirection;
             this.toDirection = toDirection;
             this.animationStep = animationStep;
         }
 
-        public String getId() {
-            return id;
+        public int getHandle() {
+            return handle;
         }
 
         public TrafficLight.Direction getFromDirection() {
@@ -111,17 +140,17 @@ public class SimulationState {
 
     // Add this new class to represent queued vehicles with their directions
     public static class QueuedVehicle {
-        private String id;
+        private int handle;
         private TrafficLight.Direction startRoad;
         private TrafficLight.Direction endRoad;
 
-        public QueuedVehicle(String id, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
-            this.id = id;
+        public QueuedVehicle(int handle, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
+            this.handle = handle;
             this.startRoad = startRoad;
             this.endRoad = endRoad;
         }
 
-        public String getId() { return id; }
+        public int getHandle() { return handle; }
         public TrafficLight.Direction getStartRoad() { return startRoad; }
         public TrafficLight.Direction getEndRoad() { return endRoad; }
 
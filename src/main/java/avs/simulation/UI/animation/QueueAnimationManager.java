@@ -142,7 +142,7 @@ public class QueueAnimationManager {
     public void drawVehicleQueues(GraphicsContext gc, SimulationState state, 
                                 double canvasWidth, double canvasHeight) {
         for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
-            drawVehicleQueue(gc, dir, state.getVehicleQueue(dir), canvasWidth, canvasHeight);
+            drawVehicleQueue(gc, dir, state, state.getVehicleQueue(dir), canvasWidth, canvasHeight);
         }
     }
     
@@ -150,6 +150,7 @@ public class QueueAnimationManager {
      * Draw vehicle queue for a specific direction
      */
     private void drawVehicleQueue(GraphicsContext gc, TrafficLight.Direction direction, 
+                             SimulationState state,
                              List<SimulationState.QueuedVehicle> vehicles,
                              double canvasWidth, double canvasHeight) {
         if (vehicles == null || vehicles.isEmpty()) return;
@@ -193,7 +194,7 @@ public class QueueAnimationManager {
             double x = startX + i * dx;
             double y = startY + i * dy;
 
-            VehicleView.draw(gc, vehicle.getId(), x, y, rotation, vehicle.getMovementType());
+            VehicleView.draw(gc, state.getVehicleName(vehicle.getHandle()), x, y, rotation, vehicle.getMovementType());
         }
 
         if (vehicles.size() > maxVehiclesToDraw) {
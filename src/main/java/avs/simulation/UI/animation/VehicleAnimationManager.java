@@ -4,20 +4,22 @@ import avs.simulation.UI.AnimatedVehicle;
 import avs.simulation.UI.SimulationState;
 import avs.simulation.UI.renderers.VehicleView;
 import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.VehicleRegistry;
 import javafx.scene.canvas.GraphicsContext;
 
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.function.IntConsumer;
 
 /**
  * Manages animated vehicles in the intersection
  */
 public class VehicleAnimationManager {
-    private Map<String, AnimatedVehicle> activeAnimatedVehicles = new HashMap<>();
+    private Map<Integer, AnimatedVehicle> activeAnimatedVehicles = new HashMap<>();
     private Map<TrafficLight.Direction, Queue<SimulationState.CrossingVehicle>> pendingVehicles = new HashMap<>();
-    private final Consumer<String> onVehicleRemoved;
+    private final IntConsumer onVehicleRemoved;
+    private SimulationState state;
     
-    public VehicleAnimationManager(Consumer<String> onVehicleRemoved) {
+    public VehicleAnimationManager(IntConsumer onVehicleRemoved) {
         this.onVehicleRemoved = onVehicleRemoved;
         
         for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
@@ -29,9 +31,10 @@ public class VehicleAnimationManager {
      * Update animated vehicles based on the current simulation state
      */
     public void updateAnimatedVehicles(SimulationState state) {
+        this.state = state;
         clearCompletedAnimations(state);
         
-        List<SimulationState.CrossingVehicle> crossingVehicles = state.getCrossingVehicles();
+        VehicleRegistry<SimulationState.CrossingVehicle> crossingVehicles = state.getCrossingVehicles();
         if (crossingVehicles == null || crossingVehicles.isEmpty()) return;
         
         // Clear pending vehicles and track changed directions
@@ -48,10 +51,10 @@ public class VehicleAnimationManager {
 
         // Process crossing vehicles
         for (SimulationState.CrossingVehicle vehicle : crossingVehicles) {
-            String vehicleId = vehicle.getId();
+            int handle = vehicle.getHandle();
             TrafficLight.Direction fromDir = vehicle.getFromDirection();
 
-            if (activeAnimatedVehicles.containsKey(vehicleId)) {
+            if (activeAnimatedVehicles.containsKey(handle)) {
                 continue;
             }
             
@@ -77,7 +80,8 @@ public class VehicleAnimationManager {
      */
     private void startVehicleAnimation(SimulationState.CrossingVehicle vehicle) {
         AnimatedVehicle animVehicle = new AnimatedVehicle(
-            vehicle.getId(),
+            vehicle.getHandle(),
+            state.getVehicleName(vehicle.getHandle()),
             vehicle.getFromDirection(),
             vehicle.getToDirection(),
             // Midpoint callback
@@ -90,38 +94,31 @@ public class VehicleAnimationManager {
                 }
             },
             // Animation finished callback
-            (vehicleId) -> {
-                activeAnimatedVehicles.remove(vehicleId);
+            (handle) -> {
+                activeAnimatedVehicles.remove(handle);
                 if (onVehicleRemoved != null) {
-                    onVehicleRemoved.accept(vehicleId);
+                    onVehicleRemoved.accept(handle);
                 }
             }
         );
         
         animVehicle.animate(1.5);
-        activeAnimatedVehicles.put(vehicle.getId(), animVehicle);
+        activeAnimatedVehicles.put(vehicle.getHandle(), animVehicle);
     }
     
     /**
      * Remove completed animations
      */
     private void clearCompletedAnimations(SimulationState state) {
-        List<String> vehiclesToRemove = new ArrayList<>();
-        for (String vehicleId : activeAnimatedVehicles.keySet()) {
-            boolean found = false;
-            for (SimulationState.CrossingVehicle vehicle : state.getCrossingVehicles()) {
-                if (vehicle.getId().equals(vehicleId)) {
-                    found = true;
-                    break;
-                }
-            }
-            if (!found) {
-                vehiclesToRemove.add(vehicleId);
+        List<Integer> vehiclesToRemove = new ArrayList<>();
+        for (int handle : activeAnimatedVehicles.keySet()) {
+            if (!state.isCrossing(handle)) {
+                vehiclesToRemove.add(handle);
             }
         }
         
-        for (String vehicleId : vehiclesToRemove) {
-            AnimatedVehicle vehicle = activeAnimatedVehicles.remove(vehicleId);
+        for (int handle : vehiclesToRemove) {
+            AnimatedVehicle vehicle = activeAnimatedVehicles.remove(handle);
             if (vehicle != null) {
                 vehicle.stopAnimation();
             }
@@ -135,7 +132,7 @@ public class VehicleAnimationManager {
         for (AnimatedVehicle vehicle : activeAnimatedVehicles.values()) {
             VehicleView.draw(
                 gc, 
-                vehicle.getId(),
+                vehicle.getLabel(),
                 vehicle.getDrawX(width),
                 vehicle.getDrawY(height),
                 vehicle.getRotation(),
@@ -12,7 +12,7 @@ public abstract class AbstractIntersection {
      *
      * @param vehicleQueues The vehicle queues for each direction
      */
-    public abstract void update(Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues);
+    public abstract void update(ApproachQueues vehicleQueues);
 
     /**
      * Gets the traffic light for a specific direction
@@ -28,7 +28,7 @@ public abstract class AbstractIntersection {
      * @param stepStatus The status object to record vehicles that cross
      * @param completedVehicles The list to add vehicles that have completed crossing
      */
-    public abstract void processVehicles(Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues,
+    public abstract void processVehicles(ApproachQueues vehicleQueues,
                                          StepStatus stepStatus,
                                          List<Vehicle> completedVehicles);
 }
\ No newline at end of file
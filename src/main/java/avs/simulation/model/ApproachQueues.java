@@ -0,0 +1,49 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+/**
+ * Read and dequeue access to the vehicles waiting on each approach of an intersection.
+ * This is all the intersection and its controllers need to see of the simulation's queues.
+ */
+public interface ApproachQueues {
+
+    /**
+     * Returns the number of vehicles waiting on an approach
+     */
+    int size(TrafficLight.Direction direction);
+
+    default boolean isEmpty(TrafficLight.Direction direction) {
+        return size(direction) == 0;
+    }
+
+    /**
+     * Returns the first vehicle of an approach without removing it, or null if none is waiting
+     */
+    Vehicle peek(TrafficLight.Direction direction);
+
+    /**
+     * Removes and returns the first vehicle of an approach, or null if none is waiting
+     */
+    Vehicle poll(TrafficLight.Direction direction);
+
+    /**
+     * Returns the vehicle at a position of an approach counted from the front, which must be below its size
+     */
+    Vehicle get(TrafficLight.Direction direction, int index);
+
+    /**
+     * Removes up to a number of vehicles from the front of an approach at once
+     *
+     * @param into Receives the removed vehicles from index 0, in queue order
+     * @return The number of removed vehicles
+     */
+    default int poll(TrafficLight.Direction direction, Vehicle[] into, int count) {
+        int removed = 0;
+        Vehicle vehicle;
+        while (removed < count && (vehicle = poll(direction)) != null) {
+            into[removed++] = vehicle;
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,75 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Running statistics of departed vehicles, updated in constant time and memory per vehicle.
+ * The waiting time variance uses Welford's online update, so no waiting time has to be kept.
+ */
+public class DepartureStatistics implements Consumer<Vehicle> {
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    private long departures = 0;
+    private double meanWait = 0;
+    private double squaredDeviations = 0;
+    private int maxWait = 0;
+    private final long[] departuresFrom = new long[DIRECTIONS.length];
+    private final long[] totalWaitFrom = new long[DIRECTIONS.length];
+
+    /**
+     * Folds one departed vehicle into the statistics
+     */
+    @Override
+    public void accept(Vehicle vehicle) {
+        int wait = vehicle.getWaitingTime();
+        departures++;
+        double delta = wait - meanWait;
+        meanWait += delta / departures;
+        squaredDeviations += delta * (wait - meanWait);
+        maxWait = Math.max(maxWait, wait);
+
+        int from = vehicle.getStartRoad().ordinal();
+        departuresFrom[from]++;
+        totalWaitFrom[from] += wait;
+    }
+
+    public long getDepartures() {
+        return departures;
+    }
+
+    public long getDepartures(TrafficLight.Direction from) {
+        return departuresFrom[from.ordinal()];
+    }
+
+    public double getMeanWait() {
+        return meanWait;
+    }
+
+    public double getMeanWait(TrafficLight.Direction from) {
+        long count = departuresFrom[from.ordinal()];
+        return count == 0 ? 0 : (double) totalWaitFrom[from.ordinal()] / count;
+    }
+
+    /**
+     * Returns the population variance of the waiting times
+     */
+    public double getWaitVariance() {
+        return departures == 0 ? 0 : squaredDeviations / departures;
+    }
+
+    public int getMaxWait() {
+        return maxWait;
+    }
+
+    public void reset() {
+        departures = 0;
+        meanWait = 0;
+        squaredDeviations = 0;
+        maxWait = 0;
+        Arrays.fill(departuresFrom, 0);
+        Arrays.fill(totalWaitFrom, 0);
+    }
+}
@@ -0,0 +1,58 @@
+package avs.simulation.model;
+
+/**
+ * Saturation-flow discharge of the approach queues: how many vehicles an approach releases per step once it
+ * may cross, and how many steps a stopped queue needs to get moving.
+ */
+public final class DischargeModel {
+    /** One vehicle per approach and step without start-up lost time, the model of a single-lane crossing */
+    public static final DischargeModel DEFAULT = new DischargeModel(1, 0);
+
+    private final int vehiclesPerStep;
+    private final int startUpLostSteps;
+
+    /**
+     * @param vehiclesPerStep Maximum number of vehicles an approach releases in one step
+     * @param startUpLostSteps Steps in which an approach releases nobody after it is allowed to cross
+     *                         while its queue was stopped
+     */
+    public DischargeModel(int vehiclesPerStep, int startUpLostSteps) {
+        if (vehiclesPerStep < 1) {
+            throw new IllegalArgumentException("Vehicles per step must be positive: " + vehiclesPerStep);
+        }
+        if (startUpLostSteps < 0) {
+            throw new IllegalArgumentException("Start-up lost steps must not be negative: " + startUpLostSteps);
+        }
+        this.vehiclesPerStep = vehiclesPerStep;
+        this.startUpLostSteps = startUpLostSteps;
+    }
+
+    /**
+     * Parses {@code <vehiclesPerStep>[:<startUpLostSteps>]}, for example "3" or "3:2"
+     */
+    public static DischargeModel parse(String model) {
+        String[] parts = model.split(":", -1);
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid discharge model: " + model);
+        }
+        try {
+            return new DischargeModel(Integer.parseInt(parts[0].trim()),
+                    parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid discharge model: " + model);
+        }
+    }
+
+    public int getVehiclesPerStep() {
+        return vehiclesPerStep;
+    }
+
+    public int getStartUpLostSteps() {
+        return startUpLostSteps;
+    }
+
+    @Override
+    public String toString() {
+        return vehiclesPerStep + " vehicles per step, " + startUpLostSteps + " start-up lost steps";
+    }
+}
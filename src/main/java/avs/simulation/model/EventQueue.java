@@ -0,0 +1,44 @@
+package avs.simulation.model;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+/**
+ * Time-ordered queue of scheduled simulation events.
+ * Events of the same step are ordered by type, phase changes first.
+ */
+public class EventQueue {
+    private final PriorityQueue<SimulationEvent> events = new PriorityQueue<>(
+            Comparator.comparingLong(SimulationEvent::getTime).thenComparing(SimulationEvent::getType));
+
+    public void schedule(SimulationEvent event) {
+        events.add(event);
+    }
+
+    /**
+     * Returns the step of the earliest event, or {@link Long#MAX_VALUE} if nothing is scheduled
+     */
+    public long nextEventTime() {
+        SimulationEvent next = events.peek();
+        return next != null ? next.getTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Removes and returns the earliest event, or null if nothing is scheduled
+     */
+    public SimulationEvent poll() {
+        return events.poll();
+    }
+
+    public void clear() {
+        events.clear();
+    }
+
+    public int size() {
+        return events.size();
+    }
+
+    public boolean isEmpty() {
+        return events.isEmpty();
+    }
+}
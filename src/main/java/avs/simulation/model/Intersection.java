@@ -5,24 +5,59 @@ import avs.simulation.model.LightControlers.*;
 import java.util.*;
 
 public class Intersection extends AbstractIntersection{
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
     private AbstractTrafficLightController controller;
+    private String controllerName;
+    private boolean usesQueueLengths; // Cached from the controller, read on every step
+    private final int[] headMovements = new int[DIRECTIONS.length]; // Reused by getCrossableDirections
+    private DischargeModel dischargeModel = DischargeModel.DEFAULT;
+    private Vehicle[] released = new Vehicle[1]; // Bulk dequeue buffer, one slot per vehicle released in a step
+    private final int[] startUpSteps = new int[DIRECTIONS.length]; // Lost steps left before an approach releases
+    private int discharging = 0; // Approaches allowed to cross in the previous step
 
     public Intersection() {
         this(ControllerType.STANDARD);
     }
 
     public Intersection(ControllerType controllerType) {
-        trafficLights = new HashMap<>();
+        this(controllerType.getControllerName());
+    }
+
+    /**
+     * @param controllerName A controller registered with {@link ControllerRegistry}
+     */
+    public Intersection(String controllerName) {
+        trafficLights = new EnumMap<>(TrafficLight.Direction.class);
         for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
             trafficLights.put(direction, new TrafficLight());
         }
-        setControllerType(controllerType);
+        setController(controllerName);
     }
     
     public enum ControllerType {
         STANDARD,
         PRIORITY,
-        OPPOSING
+        OPPOSING;
+
+        /**
+         * Parses a controller type name, ignoring case
+         */
+        public static ControllerType parse(String type) {
+            return switch (type.toLowerCase()) {
+                case "standard" -> STANDARD;
+                case "priority" -> PRIORITY;
+                case "opposing" -> OPPOSING;
+                default -> throw new IllegalArgumentException("Unknown controller type: " + type);
+            };
+        }
+
+        /**
+         * Returns the name the controller is registered under in {@link ControllerRegistry}
+         */
+        public String getControllerName() {
+            return name().toLowerCase();
+        }
     }
 
     @Override
@@ -31,82 +66,193 @@ public class Intersection extends AbstractIntersection{
     }
 
     @Override
-    public void update(Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues) {
-        // If using priority controller, update queue lengths
-        if (controller instanceof PriorityTrafficLightController) {
-            ((PriorityTrafficLightController) controller).updateQueueLengths(vehicleQueues);
+    public void update(ApproachQueues vehicleQueues) {
+        if (usesQueueLengths) {
+            controller.updateQueueLengths(vehicleQueues);
         }
-        
         controller.updateLightStates();
 
     }
 
 
-    public List<TrafficLight.Direction> getCurrentGreenDirections(Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues) {
+    /**
+     * Advances the lights by a number of steps in which no vehicle is waiting, in time independent of the count.
+     * Controllers that can jump to the resulting state do so. Otherwise, once every light has been set during the
+     * idle stretch the pattern repeats with the controller's idle cycle, so only the first cycle and the remainder
+     * after the last whole cycle are stepped through.
+     *
+     * @param vehicleQueues The vehicle queues, which must all be empty
+     * @param steps The number of steps to advance
+     */
+    public void advanceIdle(ApproachQueues vehicleQueues, long steps) {
+        if (steps > 0) {
+            discharging = 0;
+        }
+        if (controller.advanceIdle(steps)) {
+            return;
+        }
+        long cycleLength = controller.getIdleCycleLength();
+        long stepped = cycleLength > 0 ? Math.min(steps, cycleLength) : steps;
+        for (long i = 0; i < stepped; i++) {
+            update(vehicleQueues);
+        }
+        if (cycleLength > 0) {
+            long remainder = (steps - stepped) % cycleLength;
+            for (long i = 0; i < remainder; i++) {
+                update(vehicleQueues);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of steps up to and including the next one in which the light phase changes
+     */
+    public int getStepsUntilPhaseChange() {
+        return controller.getStepsUntilPhaseChange();
+    }
+
+    /**
+     * Same as a number of {@link #update(ApproachQueues)} calls before the next phase change,
+     * while the queues do not change
+     */
+    public void advanceWithinPhase(ApproachQueues vehicleQueues, long steps) {
+        if (usesQueueLengths) {
+            controller.updateQueueLengths(vehicleQueues);
+        }
+        controller.advanceWithinPhase(steps);
+        if (steps > 0) {
+            discharging = 0;
+        }
+    }
+
+    public List<TrafficLight.Direction> getCurrentGreenDirections(ApproachQueues vehicleQueues) {
         List<TrafficLight.Direction> directions = new ArrayList<>();
-        List<TrafficLight.Direction> leftTurningTrafic = new ArrayList<>();
-        for (Map.Entry<TrafficLight.Direction, TrafficLight> entry : trafficLights.entrySet()) {
-            TrafficLight.Direction dir = entry.getKey();
-            Queue<Vehicle> queue = vehicleQueues.get(dir);
+        int mask = getCrossableDirections(vehicleQueues);
+        for (TrafficLight.Direction dir : DIRECTIONS) {
+            if ((mask & (1 << dir.ordinal())) != 0) {
+                directions.add(dir);
+            }
+        }
+        return directions;
+    }
+
+    /**
+     * Returns the approaches whose first vehicle may cross in this step,
+     * as a bitmask with bit {@code Direction.ordinal()} set for each of them.
+     * Of the vehicles the controller lets through, the largest set without conflicting movements crosses,
+     * see {@link MovementConflicts}; vehicles the controller lets yield only cross beside that set.
+     */
+    public int getCrossableDirections(ApproachQueues vehicleQueues) {
+        int crossing = 0;
+        int yielding = 0;
+        for (TrafficLight.Direction dir : DIRECTIONS) {
             
             // Skip empty queues
-            if (queue == null || queue.isEmpty()) {
+            if (vehicleQueues.isEmpty(dir)) {
                 continue;
             }
 
-            if (controller.canVehicleCross(dir)) {
-                // Peek at first vehicle without removing it yet
-                Vehicle vehicle = queue.peek();
-                
-                boolean canCross = false;
-
-                if (controller instanceof OpposingTrafficLightController) {
-                    // Special rules for OpposingTrafficLightController
-                    OpposingTrafficLightController otc = (OpposingTrafficLightController) controller;
-                    
-                    if (vehicle.getMovementType() == Vehicle.MovementType.RIGHT) {
-                        // Left turns only on yellow
-                        canCross = otc.canLeftTurn(dir);
-                        leftTurningTrafic.add(dir);
-
-                    } else {
-                        // Straight and right turns on green
-                        canCross = otc.canRightStraightCross(dir);
-                    }
-                } else {
-                    // Default behavior for other controllers
-                    canCross = true;
-                }
-                
-                if (canCross) {
-                    directions.add(dir);
-                    // Don't remove the vehicle here - that happens in processVehicles
-                }
+            // Peek at first vehicle without removing it yet, that happens in processVehicles
+            Vehicle first = vehicleQueues.peek(dir);
+            Vehicle.MovementType movementType = first.getMovementType();
+            switch (controller.getTurnPermission(dir, movementType)) {
+                case CROSS -> crossing |= 1 << dir.ordinal();
+                case YIELD -> yielding |= 1 << dir.ordinal();
+                case HOLD -> { }
             }
+            headMovements[dir.ordinal()] = MovementConflicts.index(dir, first.getEndRoad());
         }
-        return !directions.isEmpty() ? directions : leftTurningTrafic;
+        return MovementConflicts.admit(headMovements, crossing, yielding);
     }
     
+    /**
+     * Releases the vehicles allowed to cross, following the {@link DischargeModel}. An approach releases its
+     * first vehicle and then the ones behind it, up to the per-step limit, as long as their movement is
+     * one already crossing or a permitted movement conflicting with none of them. They leave the queue at once.
+     */
     @Override
-    public void processVehicles(Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues,
+    public void processVehicles(ApproachQueues vehicleQueues,
                                StepStatus stepStatus,
                                List<Vehicle> completedVehicles) {
 
-        List<TrafficLight.Direction> crossableDirections = getCurrentGreenDirections(vehicleQueues);
-        for (TrafficLight.Direction dir : crossableDirections) {
+        int releasing = startUp(getCrossableDirections(vehicleQueues));
+        int movements = 0;
+        for (TrafficLight.Direction dir : DIRECTIONS) {
+            if ((releasing & (1 << dir.ordinal())) != 0) {
+                movements |= 1 << headMovements[dir.ordinal()];
+            }
+        }
 
-            Queue<Vehicle> queue = vehicleQueues.get(dir);
-            if (queue == null || queue.isEmpty()) {
+        for (TrafficLight.Direction dir : DIRECTIONS) {
+            if ((releasing & (1 << dir.ordinal())) == 0) {
                 continue;
             }
-            Vehicle v = queue.poll();
-            if (v != null) {
+
+            int count = 1;
+            int limit = Math.min(released.length, vehicleQueues.size(dir));
+            while (count < limit) {
+                Vehicle follower = vehicleQueues.get(dir, count);
+                Vehicle.MovementType movementType = follower.getMovementType();
+                int movement = MovementConflicts.index(dir, follower.getEndRoad());
+                if ((movements & (1 << movement)) == 0
+                        && (controller.getTurnPermission(dir, movementType) != AbstractTrafficLightController.TurnPermission.CROSS
+                        || (MovementConflicts.conflicts(movement) & movements) != 0)) {
+                    break;
+                }
+                movements |= 1 << movement;
+                count++;
+            }
+
+            int removed = vehicleQueues.poll(dir, released, count);
+            for (int i = 0; i < removed; i++) {
+                Vehicle v = released[i];
+                released[i] = null;
                 v.startCrossing();
                 completedVehicles.add(v);
-                stepStatus.addLeftVehicle(v.getVehicleId());
+                stepStatus.addLeftVehicle(v.getHandle());
+            }
+        }
+    }
 
+    /**
+     * Returns the crossable approaches that are past their start-up lost time. An approach starts up when it
+     * becomes crossable after a step in which it was not.
+     */
+    private int startUp(int crossableDirections) {
+        int previous = discharging;
+        discharging = crossableDirections;
+        int lostSteps = dischargeModel.getStartUpLostSteps();
+        if (lostSteps == 0) {
+            return crossableDirections;
+        }
+        int releasing = 0;
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if ((crossableDirections & (1 << i)) == 0) {
+                continue;
+            }
+            if ((previous & (1 << i)) == 0) {
+                startUpSteps[i] = lostSteps;
+            }
+            if (startUpSteps[i] == 0) {
+                releasing |= 1 << i;
+            } else {
+                startUpSteps[i]--;
             }
         }
+        return releasing;
+    }
+
+    /**
+     * Sets how many vehicles an approach releases per step and its start-up lost time
+     */
+    public void setDischargeModel(DischargeModel dischargeModel) {
+        this.dischargeModel = dischargeModel;
+        this.released = new Vehicle[dischargeModel.getVehiclesPerStep()];
+        this.discharging = 0;
+    }
+
+    public DischargeModel getDischargeModel() {
+        return dischargeModel;
     }
 
     public TrafficLight.Direction getCurrentGreenDirection() {
@@ -117,15 +263,23 @@ public class Intersection extends AbstractIntersection{
      * Changes the traffic light controller type at runtime
      */
     public void setControllerType(ControllerType type) {
-        if ((type == ControllerType.STANDARD && controller instanceof StandardTrafficLightController) ||
-            (type == ControllerType.PRIORITY && controller instanceof PriorityTrafficLightController)||
-            (type == ControllerType.OPPOSING && controller instanceof OpposingTrafficLightController)) {
+        setController(type.getControllerName());
+    }
+
+    /**
+     * Changes the traffic light controller at runtime to one registered with {@link ControllerRegistry}.
+     * Nothing changes if the controller is already in use.
+     */
+    public void setController(String name) {
+        if (controller != null && name != null && controllerName.equalsIgnoreCase(name.trim())) {
             return;
         }
-        controller = switch (type) {
-            case PRIORITY -> new PriorityTrafficLightController(trafficLights);
-            case OPPOSING -> new OpposingTrafficLightController(trafficLights);
-            default -> new StandardTrafficLightController(trafficLights);
-        };
+        controller = ControllerRegistry.create(name, trafficLights);
+        controllerName = name.trim().toLowerCase();
+        usesQueueLengths = controller.usesQueueLengths();
+    }
+
+    public String getControllerName() {
+        return controllerName;
     }
 }
\ No newline at end of file
@@ -1,14 +1,38 @@
 package avs.simulation.model.LightControlers;
 
+import avs.simulation.model.ApproachQueues;
+import avs.simulation.model.Vehicle;
+
 import java.util.Map;
 
 /**
  * Abstract base class for all traffic light controllers.
  * This allows implementing different traffic light patterns and algorithms.
+ * <p>
+ * The hierarchy is sealed and its leaves are final, so the intersection never needs to test
+ * which controller it drives: controllers declare the inputs they need with {@link #usesQueueLengths()} and
+ * decide turns in {@link #getTurnPermission}. Other controllers extend {@link CustomTrafficLightController}
+ * and are made available by name through {@link ControllerRegistry}.
  */
-public abstract class AbstractTrafficLightController {
-    
+public abstract sealed class AbstractTrafficLightController
+        permits FixedTimeTrafficLightController, PriorityTrafficLightController, CustomTrafficLightController {
+
+    protected static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
     protected Map<TrafficLight.Direction, TrafficLight> trafficLights;
+    protected final int[] queueLengths = new int[DIRECTIONS.length]; // Indexed by Direction.ordinal()
+
+    /**
+     * How the first vehicle of an approach may move in the current step
+     */
+    public enum TurnPermission {
+        /** The vehicle crosses */
+        CROSS,
+        /** The vehicle crosses only if its movement conflicts with no vehicle allowed to cross */
+        YIELD,
+        /** The vehicle waits */
+        HOLD
+    }
     
     /**
      * Constructor that takes traffic lights to control
@@ -28,6 +52,95 @@ public abstract class AbstractTrafficLightController {
      */
     public abstract void updateLightStates();
     
+    /**
+     * Counts down the remaining time of every traffic light by one step
+     */
+    protected void updateAllLights() {
+        for (TrafficLight.Direction direction : DIRECTIONS) {
+            TrafficLight light = trafficLights.get(direction);
+            if (light != null) {
+                light.update();
+            }
+        }
+    }
+
+    /**
+     * Counts down the remaining time of every traffic light by a number of steps
+     */
+    protected void updateAllLights(long steps) {
+        for (TrafficLight.Direction direction : DIRECTIONS) {
+            TrafficLight light = trafficLights.get(direction);
+            if (light != null) {
+                light.update(steps);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of {@link #updateLightStates()} calls up to and including the one that changes
+     * the phase. Controllers that cannot tell return 1, so every step is treated as a possible change.
+     */
+    public int getStepsUntilPhaseChange() {
+        return 1;
+    }
+
+    /**
+     * Same as calling {@link #updateLightStates()} a number of times, none of which changes the phase
+     *
+     * @throws IllegalArgumentException If the phase would change within the given number of steps
+     */
+    public void advanceWithinPhase(long steps) {
+        if (steps >= getStepsUntilPhaseChange()) {
+            throw new IllegalArgumentException("Phase changes within " + steps + " steps");
+        }
+        updateAllLights(steps);
+    }
+
+    /**
+     * Returns the number of steps after which the light pattern repeats while no vehicle is waiting,
+     * or 0 if the controller does not know it. Every light must be set at least once per cycle.
+     */
+    public int getIdleCycleLength() {
+        return 0;
+    }
+
+    /**
+     * Advances by a number of steps in which no vehicle is waiting, in time independent of the count.
+     * Controllers that cannot jump ahead return false and leave the lights unchanged, the caller then steps
+     * through {@link #updateLightStates()} instead.
+     */
+    public boolean advanceIdle(long steps) {
+        return false;
+    }
+
+    /**
+     * Returns true if the controller reads {@link #queueLengths}, which are then updated before every step.
+     * Controllers that only follow the clock return false and spare the intersection the copy.
+     */
+    public boolean usesQueueLengths() {
+        return false;
+    }
+
+    /**
+     * Update queue lengths from simulation data
+     */
+    public void updateQueueLengths(ApproachQueues vehicleQueues) {
+        for (TrafficLight.Direction dir : DIRECTIONS) {
+            queueLengths[dir.ordinal()] = vehicleQueues.size(dir);
+        }
+    }
+
+    /**
+     * Decides whether the first vehicle waiting on an approach may cross.
+     * By default it crosses whenever {@link #canVehicleCross(TrafficLight.Direction)} allows, whatever its turn.
+     *
+     * @param fromDirection The approach the vehicle waits on
+     * @param movementType The turn the vehicle takes
+     */
+    public TurnPermission getTurnPermission(TrafficLight.Direction fromDirection, Vehicle.MovementType movementType) {
+        return canVehicleCross(fromDirection) ? TurnPermission.CROSS : TurnPermission.HOLD;
+    }
+
     /**
      * Get the current direction with a green light
      * @return The direction with a green light, or null if no direction has a green light
@@ -0,0 +1,76 @@
+package avs.simulation.model.LightControlers;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Creates traffic light controllers by name.
+ * The built-in controllers are registered as "standard", "priority" and "opposing"; further controllers
+ * extend {@link CustomTrafficLightController} and register a factory before the intersections using them
+ * are created. Names are case-insensitive.
+ */
+public final class ControllerRegistry {
+
+    /**
+     * Creates a controller driving the given lights
+     */
+    @FunctionalInterface
+    public interface Factory {
+        AbstractTrafficLightController create(Map<TrafficLight.Direction, TrafficLight> trafficLights);
+    }
+
+    private static final Map<String, Factory> FACTORIES = new ConcurrentHashMap<>();
+
+    static {
+        register("standard", StandardTrafficLightController::new);
+        register("priority", PriorityTrafficLightController::new);
+        register("opposing", OpposingTrafficLightController::new);
+    }
+
+    private ControllerRegistry() {
+    }
+
+    /**
+     * Registers a controller under a new name
+     *
+     * @throws IllegalArgumentException If the name is blank or already taken
+     */
+    public static void register(String name, Factory factory) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Controller name must not be blank");
+        }
+        if (FACTORIES.putIfAbsent(normalize(name), factory) != null) {
+            throw new IllegalArgumentException("Controller already registered: " + name);
+        }
+    }
+
+    /**
+     * Creates the controller registered under the name
+     *
+     * @throws IllegalArgumentException If no controller is registered under the name
+     */
+    public static AbstractTrafficLightController create(String name, Map<TrafficLight.Direction, TrafficLight> trafficLights) {
+        Factory factory = name == null ? null : FACTORIES.get(normalize(name));
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown controller: " + name + ", expected one of " + names());
+        }
+        return factory.create(trafficLights);
+    }
+
+    public static boolean isRegistered(String name) {
+        return name != null && FACTORIES.containsKey(normalize(name));
+    }
+
+    /**
+     * Returns the registered names in alphabetical order
+     */
+    public static Set<String> names() {
+        return new TreeSet<>(FACTORIES.keySet());
+    }
+
+    private static String normalize(String name) {
+        return name.trim().toLowerCase();
+    }
+}
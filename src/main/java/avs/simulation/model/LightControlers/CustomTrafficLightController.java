@@ -0,0 +1,14 @@
+package avs.simulation.model.LightControlers;
+
+import java.util.Map;
+
+/**
+ * Base class for traffic light controllers outside the built-in set.
+ * Subclasses are made available to intersections by registering a factory with {@link ControllerRegistry}.
+ */
+public abstract non-sealed class CustomTrafficLightController extends AbstractTrafficLightController {
+
+    public CustomTrafficLightController(Map<TrafficLight.Direction, TrafficLight> trafficLights) {
+        super(trafficLights);
+    }
+}
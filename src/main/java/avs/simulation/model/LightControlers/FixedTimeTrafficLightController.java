@@ -0,0 +1,89 @@
+package avs.simulation.model.LightControlers;
+
+import java.util.Map;
+
+/**
+ * Traffic light controller that replays a {@link PhasePlan}.
+ * The position in the cycle is the only state; each step looks up the lights that change in the compiled
+ * tables instead of running a state machine per light.
+ */
+public sealed class FixedTimeTrafficLightController extends AbstractTrafficLightController
+        permits StandardTrafficLightController, OpposingTrafficLightController {
+    private final PhasePlan plan;
+    private int position = 0;
+
+    public FixedTimeTrafficLightController(Map<TrafficLight.Direction, TrafficLight> trafficLights, PhasePlan plan) {
+        super(trafficLights);
+        this.plan = plan;
+        // The base constructor runs before the plan is set
+        initializeLights();
+    }
+
+    /**
+     * Makes a plan available to intersections under its name
+     *
+     * @throws IllegalArgumentException If a controller with that name already exists
+     */
+    public static void register(PhasePlan plan) {
+        ControllerRegistry.register(plan.getName(), lights -> new FixedTimeTrafficLightController(lights, plan));
+    }
+
+    @Override
+    protected void initializeLights() {
+        position = 0;
+        if (plan != null) {
+            plan.apply(0, trafficLights);
+        }
+    }
+
+    @Override
+    public void updateLightStates() {
+        updateAllLights();
+        if (++position == plan.getCycleLength()) {
+            position = 0;
+        }
+        plan.applyChanges(position, trafficLights);
+    }
+
+    @Override
+    public int getStepsUntilPhaseChange() {
+        return plan.getStepsUntilChange(position);
+    }
+
+    @Override
+    public void advanceWithinPhase(long steps) {
+        super.advanceWithinPhase(steps);
+        position = (int) ((position + steps) % plan.getCycleLength());
+    }
+
+    @Override
+    public int getIdleCycleLength() {
+        return plan.getCycleLength();
+    }
+
+    /**
+     * Jumps straight to the row of the cycle the lights reach after the given steps
+     */
+    @Override
+    public boolean advanceIdle(long steps) {
+        position = (int) ((position + steps) % plan.getCycleLength());
+        plan.apply(position, trafficLights);
+        return true;
+    }
+
+    @Override
+    public TrafficLight.Direction getCurrentGreenDirection() {
+        return plan.getLead(position);
+    }
+
+    public PhasePlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Returns the position in the cycle, from 0 to the cycle length - 1
+     */
+    public int getPosition() {
+        return position;
+    }
+}
@@ -0,0 +1,219 @@
+package avs.simulation.model.LightControlers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fixed-time signal cycle compiled into flat per-step tables.
+ * The cycle is described as a list of stages, each holding the light state of every direction for a number of
+ * steps. Compiling unrolls it so that the state of the lights at step t is the row {@code t mod cycleLength},
+ * together with the steps each light keeps its state and the steps until the next change of any light.
+ */
+public final class PhasePlan {
+    /** Upper bound on the cycle length, which is the number of rows in the tables */
+    public static final int MAX_CYCLE_LENGTH = 1 << 20;
+
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+    private static final TrafficLight.LightState[] STATES = TrafficLight.LightState.values();
+
+    private final String name;
+    private final List<Stage> stages;
+    private final int cycleLength;
+    private final byte[] states;            // [step * DIRECTIONS.length + direction], LightState ordinal
+    private final int[] remaining;          // [step * DIRECTIONS.length + direction], steps until the light changes
+    private final byte[] changes;           // [step], bit per direction whose light changes entering the step
+    private final int[] untilChange;        // [step], steps until the next step with a change
+    private final TrafficLight.Direction[] leads; // [step], the direction reported as green
+
+    /**
+     * One part of the cycle. Directions without a state are red.
+     */
+    public static final class Stage {
+        private final int duration;
+        private final Map<TrafficLight.Direction, TrafficLight.LightState> states;
+
+        public Stage(int duration, Map<TrafficLight.Direction, TrafficLight.LightState> states) {
+            if (duration < 1) {
+                throw new IllegalArgumentException("Stage duration must be positive: " + duration);
+            }
+            this.duration = duration;
+            this.states = new EnumMap<>(TrafficLight.Direction.class);
+            this.states.putAll(states);
+        }
+
+        /**
+         * Creates a stage in which the given directions share one state and the others are red
+         */
+        public static Stage of(int duration, TrafficLight.LightState state, TrafficLight.Direction... directions) {
+            Map<TrafficLight.Direction, TrafficLight.LightState> states = new EnumMap<>(TrafficLight.Direction.class);
+            for (TrafficLight.Direction direction : directions) {
+                states.put(direction, state);
+            }
+            return new Stage(duration, states);
+        }
+
+        public int getDuration() {
+            return duration;
+        }
+
+        public TrafficLight.LightState getState(TrafficLight.Direction direction) {
+            return states.getOrDefault(direction, TrafficLight.LightState.RED);
+        }
+    }
+
+    /**
+     * Compiles a cycle. The direction reported as green in a stage is the first one whose light is not red;
+     * in an all-red stage it stays the one of the stage before.
+     *
+     * @throws IllegalArgumentException If there are no stages or the cycle is longer than {@link #MAX_CYCLE_LENGTH}
+     */
+    public PhasePlan(String name, List<Stage> stages) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("Phase plan " + name + " has no stages");
+        }
+        long total = 0;
+        for (Stage stage : stages) {
+            total += stage.duration;
+        }
+        if (total > MAX_CYCLE_LENGTH) {
+            throw new IllegalArgumentException("Cycle of phase plan " + name + " is too long: " + total);
+        }
+        this.name = name;
+        this.stages = Collections.unmodifiableList(new ArrayList<>(stages));
+        this.cycleLength = (int) total;
+
+        int width = DIRECTIONS.length;
+        states = new byte[cycleLength * width];
+        remaining = new int[cycleLength * width];
+        changes = new byte[cycleLength];
+        untilChange = new int[cycleLength];
+        leads = new TrafficLight.Direction[cycleLength];
+
+        TrafficLight.Direction lead = lastLead(stages);
+        int step = 0;
+        for (Stage stage : stages) {
+            TrafficLight.Direction stageLead = firstLit(stage);
+            if (stageLead != null) {
+                lead = stageLead;
+            }
+            for (int i = 0; i < stage.duration; i++, step++) {
+                for (TrafficLight.Direction direction : DIRECTIONS) {
+                    states[step * width + direction.ordinal()] = (byte) stage.getState(direction).ordinal();
+                }
+                leads[step] = lead;
+            }
+        }
+
+        // Changes are cyclic, the first row is compared with the last one
+        for (step = 0; step < cycleLength; step++) {
+            int previous = (step == 0 ? cycleLength : step) - 1;
+            for (int d = 0; d < width; d++) {
+                if (states[step * width + d] != states[previous * width + d]) {
+                    changes[step] |= (byte) (1 << d);
+                }
+            }
+        }
+        // Walking backwards twice covers the steps whose next change wraps around the end of the cycle
+        for (int d = 0; d < width; d++) {
+            int next = cycleLength;
+            for (step = 2 * cycleLength - 1; step >= 0; step--) {
+                int row = step % cycleLength;
+                if (step < cycleLength) {
+                    remaining[row * width + d] = next - step;
+                }
+                if ((changes[row] & (1 << d)) != 0) {
+                    next = step;
+                }
+            }
+        }
+        int next = 2 * cycleLength;
+        for (step = 2 * cycleLength - 1; step >= 0; step--) {
+            int row = step % cycleLength;
+            if (step < cycleLength) {
+                untilChange[row] = Math.min(next - step, cycleLength);
+            }
+            if (changes[row] != 0) {
+                next = step;
+            }
+        }
+    }
+
+    private static TrafficLight.Direction firstLit(Stage stage) {
+        for (TrafficLight.Direction direction : DIRECTIONS) {
+            if (stage.getState(direction) != TrafficLight.LightState.RED) {
+                return direction;
+            }
+        }
+        return null;
+    }
+
+    private static TrafficLight.Direction lastLead(List<Stage> stages) {
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            TrafficLight.Direction lead = firstLit(stages.get(i));
+            if (lead != null) {
+                return lead;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Sets every light to its state at a step of the cycle
+     */
+    void apply(int step, Map<TrafficLight.Direction, TrafficLight> trafficLights) {
+        applyChanges(step, (1 << DIRECTIONS.length) - 1, trafficLights);
+    }
+
+    /**
+     * Sets the lights that change when entering a step of the cycle
+     */
+    void applyChanges(int step, Map<TrafficLight.Direction, TrafficLight> trafficLights) {
+        if (changes[step] != 0) {
+            applyChanges(step, changes[step], trafficLights);
+        }
+    }
+
+    private void applyChanges(int step, int mask, Map<TrafficLight.Direction, TrafficLight> trafficLights) {
+        int row = step * DIRECTIONS.length;
+        for (TrafficLight.Direction direction : DIRECTIONS) {
+            TrafficLight light;
+            if ((mask & (1 << direction.ordinal())) != 0 && (light = trafficLights.get(direction)) != null) {
+                light.setState(STATES[states[row + direction.ordinal()]], remaining[row + direction.ordinal()]);
+            }
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<Stage> getStages() {
+        return stages;
+    }
+
+    public int getCycleLength() {
+        return cycleLength;
+    }
+
+    public TrafficLight.LightState getState(int step, TrafficLight.Direction direction) {
+        return STATES[states[step * DIRECTIONS.length + direction.ordinal()]];
+    }
+
+    /**
+     * Returns the direction reported as green at a step of the cycle, or null if no light is ever lit
+     */
+    public TrafficLight.Direction getLead(int step) {
+        return leads[step];
+    }
+
+    /**
+     * Returns the number of steps from a step of the cycle up to the next one in which any light changes,
+     * or the cycle length if the lights never change
+     */
+    public int getStepsUntilChange(int step) {
+        return untilChange[step];
+    }
+}
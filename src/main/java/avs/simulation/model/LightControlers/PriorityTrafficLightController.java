@@ -1,32 +1,23 @@
 package avs.simulation.model.LightControlers;
 
-import avs.simulation.model.Vehicle;
-
-import java.util.HashMap;
 import java.util.Map;
-import java.util.Queue;
 
 /**
  * Priority-based traffic light controller that gives green light to directions
  * with more waiting vehicles
  */
-public class PriorityTrafficLightController extends AbstractTrafficLightController {
+public final class PriorityTrafficLightController extends AbstractTrafficLightController {
     private static final int GREEN_DURATION = 4;
     private static final int YELLOW_DURATION = 1;
     private static final int RED_YELLOW_DURATION = 1;
     private static final int MIN_VEHICLES_FOR_PRIORITY = 4;
 
     private TrafficLight.Direction currentGreenDirection;
-    private Map<TrafficLight.Direction, Integer> queueLengths;
     private enum Phase { GREEN, YELLOW, RED_YELLOW }
     private Phase currentPhase = Phase.GREEN;
 
     public PriorityTrafficLightController(Map<TrafficLight.Direction, TrafficLight> trafficLights) {
         super(trafficLights);
-        queueLengths = new HashMap<>();
-        for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
-            queueLengths.put(dir, 0);
-        }
     }
 
     @Override
@@ -47,9 +38,7 @@ public class PriorityTrafficLightController extends AbstractTrafficLightControll
     @Override
     public void updateLightStates() {
         // Update all traffic lights first
-        for (TrafficLight light : trafficLights.values()) {
-            light.update();
-        }
+        updateAllLights();
         
         TrafficLight currentLight = trafficLights.get(currentGreenDirection);
 
@@ -74,7 +63,7 @@ public class PriorityTrafficLightController extends AbstractTrafficLightControll
                     currentPhase = Phase.RED_YELLOW;
                     
                     // Reset queue length for the direction that just got green
-                    queueLengths.put(nextDirection, 0);
+                    queueLengths[nextDirection.ordinal()] = 0;
                 }
                 case RED_YELLOW -> {
                     // Change from red-yellow to green
@@ -89,17 +78,14 @@ public class PriorityTrafficLightController extends AbstractTrafficLightControll
         TrafficLight.Direction priorityDir = currentGreenDirection;
         int maxVehicles = -1;
 
-        for (Map.Entry<TrafficLight.Direction, Integer> entry : queueLengths.entrySet()) {
-            TrafficLight.Direction dir = entry.getKey();
-            int count = entry.getValue();
+        for (TrafficLight.Direction dir : DIRECTIONS) {
+            int count = queueLengths[dir.ordinal()];
 
             if (dir != currentGreenDirection && count > maxVehicles) {
                 maxVehicles = count;
                 priorityDir = dir;
             }
         }
-        System.out.println("Priority direction: " + priorityDir + " with " + maxVehicles + " vehicles");
-
         // If priority queue has enough vehicles, choose it
         if (maxVehicles >= MIN_VEHICLES_FOR_PRIORITY) {
             return priorityDir;
@@ -112,33 +98,35 @@ public class PriorityTrafficLightController extends AbstractTrafficLightControll
 
 
     private TrafficLight.Direction getNextDirection() {
-        TrafficLight.Direction[] directions = TrafficLight.Direction.values();
-        int currentIndex = -1;
-
-        for (int i = 0; i < directions.length; i++) {
-            if (directions[i] == currentGreenDirection) {
-                currentIndex = i;
-                break;
-            }
-        }
+        return DIRECTIONS[(currentGreenDirection.ordinal() + 1) % DIRECTIONS.length];
+    }
 
-        return directions[(currentIndex + 1) % directions.length];
+    /**
+     * Without waiting vehicles no direction gets priority and the lights rotate like the standard controller
+     */
+    @Override
+    public int getIdleCycleLength() {
+        return DIRECTIONS.length * (GREEN_DURATION + YELLOW_DURATION + RED_YELLOW_DURATION);
     }
 
+    /**
+     * The phase changes once the light of the current direction runs out
+     */
     @Override
-    public TrafficLight.Direction getCurrentGreenDirection() {
-        return currentGreenDirection;
+    public int getStepsUntilPhaseChange() {
+        return Math.max(1, trafficLights.get(currentGreenDirection).getRemainingTime());
     }
 
     /**
-     * Update queue lengths from simulation data
+     * The next green direction depends on the queue lengths
      */
-    public void updateQueueLengths(Map<TrafficLight.Direction, Queue<Vehicle>> vehicleQueues) {
-        for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
-            Queue<Vehicle> queue = vehicleQueues.get(dir);
-            if (queue != null) {
-                queueLengths.put(dir, queue.size());
-            }
-        }
+    @Override
+    public boolean usesQueueLengths() {
+        return true;
+    }
+
+    @Override
+    public TrafficLight.Direction getCurrentGreenDirection() {
+        return currentGreenDirection;
     }
 }
\ No newline at end of file
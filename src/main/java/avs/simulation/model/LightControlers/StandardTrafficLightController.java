@@ -1,97 +1,33 @@
 package avs.simulation.model.LightControlers;
 
+import java.util.List;
 import java.util.Map;
 
 /**
  * Traffic light controller that cycles through directions in a fixed pattern
  * with proper RED_YELLOW transition phase before GREEN
  */
-public class StandardTrafficLightController extends AbstractTrafficLightController {
+public final class StandardTrafficLightController extends FixedTimeTrafficLightController {
     private static final int GREEN_DURATION = 4;
     private static final int YELLOW_DURATION = 1;
     private static final int RED_YELLOW_DURATION = 1;
-    
-    private TrafficLight.Direction currentGreenDirection;
-    private enum Phase { GREEN, YELLOW, RED_YELLOW }
-    private Phase currentPhase = Phase.GREEN;
-    
+
+    // Clockwise rotation: NORTH → EAST → SOUTH → WEST → NORTH
+    private static final PhasePlan PLAN = new PhasePlan("standard", List.of(
+            PhasePlan.Stage.of(GREEN_DURATION, TrafficLight.LightState.GREEN, TrafficLight.Direction.NORTH),
+            PhasePlan.Stage.of(YELLOW_DURATION, TrafficLight.LightState.YELLOW, TrafficLight.Direction.NORTH),
+            PhasePlan.Stage.of(RED_YELLOW_DURATION, TrafficLight.LightState.RED_YELLOW, TrafficLight.Direction.EAST),
+            PhasePlan.Stage.of(GREEN_DURATION, TrafficLight.LightState.GREEN, TrafficLight.Direction.EAST),
+            PhasePlan.Stage.of(YELLOW_DURATION, TrafficLight.LightState.YELLOW, TrafficLight.Direction.EAST),
+            PhasePlan.Stage.of(RED_YELLOW_DURATION, TrafficLight.LightState.RED_YELLOW, TrafficLight.Direction.SOUTH),
+            PhasePlan.Stage.of(GREEN_DURATION, TrafficLight.LightState.GREEN, TrafficLight.Direction.SOUTH),
+            PhasePlan.Stage.of(YELLOW_DURATION, TrafficLight.LightState.YELLOW, TrafficLight.Direction.SOUTH),
+            PhasePlan.Stage.of(RED_YELLOW_DURATION, TrafficLight.LightState.RED_YELLOW, TrafficLight.Direction.WEST),
+            PhasePlan.Stage.of(GREEN_DURATION, TrafficLight.LightState.GREEN, TrafficLight.Direction.WEST),
+            PhasePlan.Stage.of(YELLOW_DURATION, TrafficLight.LightState.YELLOW, TrafficLight.Direction.WEST),
+            PhasePlan.Stage.of(RED_YELLOW_DURATION, TrafficLight.LightState.RED_YELLOW, TrafficLight.Direction.NORTH)));
+
     public StandardTrafficLightController(Map<TrafficLight.Direction, TrafficLight> trafficLights) {
-        super(trafficLights);
-    }
-    
-    @Override
-    protected void initializeLights() {
-        // Start with North direction green
-        this.currentGreenDirection = TrafficLight.Direction.NORTH;
-        this.currentPhase = Phase.GREEN;
-        
-        // Set initial states
-        for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
-            if (direction == TrafficLight.Direction.NORTH) {
-                trafficLights.get(direction).setState(TrafficLight.LightState.GREEN, GREEN_DURATION);
-            } else {
-                trafficLights.get(direction).setState(TrafficLight.LightState.RED, 
-                       GREEN_DURATION + YELLOW_DURATION + RED_YELLOW_DURATION);
-            }
-        }
-    }
-    
-    @Override
-    public void updateLightStates() {
-        // Update all traffic lights
-        for (TrafficLight light : trafficLights.values()) {
-            light.update();
-        }
-        
-        // Check if current phase is finished
-        TrafficLight currentLight = trafficLights.get(currentGreenDirection);
-        
-        if (currentLight.isStateFinished()) {
-            // Time to switch to next phase
-            switch (currentPhase) {
-                case GREEN:
-                    // Change from green to yellow
-                    trafficLights.get(currentGreenDirection).setState(TrafficLight.LightState.YELLOW, YELLOW_DURATION);
-                    currentPhase = Phase.YELLOW;
-                    break;
-                    
-                case YELLOW:
-                    // Change from yellow to red
-                    trafficLights.get(currentGreenDirection).setState(TrafficLight.LightState.RED, 
-                            GREEN_DURATION + YELLOW_DURATION);
-                    
-                    // Get next direction and prepare for RED_YELLOW
-                    currentGreenDirection = getNextDirection();
-                    
-                    // Set RED_YELLOW for the next direction
-                    trafficLights.get(currentGreenDirection).setState(TrafficLight.LightState.RED_YELLOW, RED_YELLOW_DURATION);
-                    
-                    currentPhase = Phase.RED_YELLOW;
-                    break;
-                    
-                case RED_YELLOW:
-                    // Change from red-yellow to green
-                    trafficLights.get(currentGreenDirection).setState(TrafficLight.LightState.GREEN, GREEN_DURATION);
-                    
-                    // Reset phase
-                    currentPhase = Phase.GREEN;
-                    break;
-            }
-        }
-    }
-    
-    private TrafficLight.Direction getNextDirection() {
-        // Simple clockwise rotation: NORTH → EAST → SOUTH → WEST → NORTH
-        return switch (currentGreenDirection) {
-            case NORTH -> TrafficLight.Direction.EAST;
-            case EAST -> TrafficLight.Direction.SOUTH;
-            case SOUTH -> TrafficLight.Direction.WEST;
-            case WEST -> TrafficLight.Direction.NORTH;
-        };
-    }
-    
-    @Override
-    public TrafficLight.Direction getCurrentGreenDirection() {
-        return currentGreenDirection;
+        super(trafficLights, PLAN);
     }
-}
\ No newline at end of file
+}
@@ -28,6 +28,13 @@ public class TrafficLight {
         }
     }
 
+    /**
+     * Same as calling {@link #update()} a number of times
+     */
+    public void update(long steps) {
+        remainingTime = (int) Math.max(0, remainingTime - steps);
+    }
+
     public boolean isStateFinished() {
         return remainingTime <= 0;
     }
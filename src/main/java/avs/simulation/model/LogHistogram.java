@@ -0,0 +1,117 @@
+package avs.simulation.model;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values in a fixed number of logarithmic buckets.
+ * Values below 4 have a bucket each; above that every power of two is split into four buckets, so a bucket
+ * is never wider than a quarter of its lower bound. Recording a value takes constant time and the memory
+ * does not depend on the number or range of the values.
+ */
+public class LogHistogram {
+    private static final int SUB_BUCKETS = 4;
+    /** Exact buckets 0 to 3, then four per power of two from 2^2 to 2^62 */
+    public static final int BUCKET_COUNT = SUB_BUCKETS + SUB_BUCKETS * 61;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount = 0;
+    private double sum = 0;
+    private long max = 0;
+
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * Records a value a number of times, for example a queue length held for a number of steps
+     */
+    public void record(long value, long count) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must not be negative: " + value);
+        }
+        if (count <= 0) {
+            return;
+        }
+        counts[bucketOf(value)] += count;
+        totalCount += count;
+        sum += (double) value * count;
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the index of the bucket holding a value
+     */
+    public static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - 2)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - 2) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the smallest value of a bucket
+     */
+    public static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - SUB_BUCKETS) / SUB_BUCKETS + 2;
+        long subBucket = (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - 2);
+    }
+
+    /**
+     * Returns the largest value of a bucket
+     */
+    public static long upperBound(int bucket) {
+        return bucket == BUCKET_COUNT - 1 ? Long.MAX_VALUE : lowerBound(bucket + 1) - 1;
+    }
+
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0 : sum / totalCount;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    /**
+     * Returns an upper estimate of a percentile: the upper bound of the bucket that holds it, at most the maximum
+     *
+     * @param percentile From 0 to 100
+     */
+    public long getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100: " + percentile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * totalCount));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += counts[bucket];
+            if (seen >= rank) {
+                return Math.min(upperBound(bucket), max);
+            }
+        }
+        return max;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        totalCount = 0;
+        sum = 0;
+        max = 0;
+    }
+}
@@ -0,0 +1,165 @@
+package avs.simulation.model;
+
+import avs.simulation.UI.utils.DirectionUtils;
+import avs.simulation.model.LightControlers.TrafficLight;
+
+/**
+ * Conflict matrix of the sixteen movements through an intersection, one per approach and {@link Vehicle.MovementType}
+ * plus a U-turn per approach, stored as one bitmask of conflicting movements per movement.
+ * <p>
+ * Two movements conflict if their paths cross or end on the same exit road. The geometry follows the opposing
+ * controller, whose permissive RIGHT movements cut across the opposing straight flow: vehicles keep to the left,
+ * so LEFT is the short turn. Paths are chords between the entry and exit lanes placed around the intersection,
+ * and two chords cross exactly when their end points interleave.
+ * <p>
+ * A U-turn, which {@link Vehicle#getMovementType()} reports as STRAIGHT, sweeps across the whole intersection
+ * to come back on its own road, so it conflicts with every movement of the other approaches.
+ */
+public final class MovementConflicts {
+    public static final int MOVEMENT_COUNT = 16;
+
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+    private static final Vehicle.MovementType[] TYPES = Vehicle.MovementType.values();
+    private static final int U_TURNS = DIRECTIONS.length * TYPES.length; // Index of the first U-turn
+    private static final int[] CONFLICTS = new int[MOVEMENT_COUNT];
+
+    static {
+        for (int a = 0; a < MOVEMENT_COUNT; a++) {
+            for (int b = 0; b < MOVEMENT_COUNT; b++) {
+                if (approach(a) != approach(b) && (isUTurn(a) || isUTurn(b) || pathsConflict(a, b))) {
+                    CONFLICTS[a] |= 1 << b;
+                }
+            }
+        }
+    }
+
+    private MovementConflicts() {
+    }
+
+    /**
+     * Returns the index of a turning or straight movement
+     */
+    public static int index(TrafficLight.Direction from, Vehicle.MovementType movementType) {
+        return from.ordinal() * TYPES.length + movementType.ordinal();
+    }
+
+    /**
+     * Returns the index of the movement between two roads, from 0 to {@link #MOVEMENT_COUNT} - 1,
+     * telling U-turns apart from straight movements
+     */
+    public static int index(TrafficLight.Direction from, TrafficLight.Direction to) {
+        if (from == to) {
+            return U_TURNS + from.ordinal();
+        }
+        return index(from, DirectionUtils.getMovementType(from, to));
+    }
+
+    public static boolean isUTurn(int movement) {
+        return movement >= U_TURNS;
+    }
+
+    /**
+     * Returns the movements conflicting with one, as a bitmask indexed by {@link #index}
+     */
+    public static int conflicts(int movement) {
+        return CONFLICTS[movement];
+    }
+
+    public static boolean conflict(int movement, int other) {
+        return (CONFLICTS[movement] & (1 << other)) != 0;
+    }
+
+    /**
+     * Picks the largest set of approaches whose first vehicles may cross together. As many crossing movements
+     * as possible are admitted first, then as many yielding ones as fit beside them. Among sets of equal size
+     * the one with the lowest approach ordinals wins.
+     *
+     * @param movements The movement of the first vehicle of each approach, indexed by {@code Direction.ordinal()}
+     * @param crossing Approaches allowed to cross, bit {@code Direction.ordinal()} set for each
+     * @param yielding Approaches allowed to cross if they conflict with no admitted movement
+     * @return The admitted approaches as a bitmask
+     */
+    public static int admit(int[] movements, int crossing, int yielding) {
+        int candidates = crossing | yielding;
+        // Four bits per approach, set for the other candidate approaches it conflicts with
+        long approachConflicts = 0;
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if ((candidates & (1 << i)) == 0) {
+                continue;
+            }
+            int conflicting = CONFLICTS[movements[i]];
+            for (int j = 0; j < DIRECTIONS.length; j++) {
+                if (j != i && (candidates & (1 << j)) != 0 && (conflicting & (1 << movements[j])) != 0) {
+                    approachConflicts |= 1L << (4 * i + j);
+                }
+            }
+        }
+        if (approachConflicts == 0) {
+            return candidates;
+        }
+        int admitted = largestCompatible(crossing, 0, approachConflicts);
+        return admitted | largestCompatible(yielding, admitted, approachConflicts);
+    }
+
+    /**
+     * Returns the largest subset of the candidates that is compatible with itself and with the admitted set
+     */
+    private static int largestCompatible(int candidates, int admitted, long approachConflicts) {
+        int best = 0;
+        int bestCount = 0;
+        // Submasks in descending order, so the last one of the largest size has the lowest ordinals
+        for (int subset = candidates; subset != 0; subset = (subset - 1) & candidates) {
+            int count = Integer.bitCount(subset);
+            if (count >= bestCount && compatible(subset | admitted, approachConflicts)) {
+                best = subset;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static boolean compatible(int approaches, long approachConflicts) {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            if ((approaches & (1 << i)) != 0 && ((approachConflicts >>> (4 * i)) & approaches) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int approach(int movement) {
+        return isUTurn(movement) ? movement - U_TURNS : movement / TYPES.length;
+    }
+
+    private static int exit(int movement) {
+        int turns = switch (TYPES[movement % TYPES.length]) {
+            case LEFT -> 1;
+            case STRAIGHT -> 2;
+            case RIGHT -> 3;
+        };
+        return (approach(movement) + turns) % DIRECTIONS.length;
+    }
+
+    /**
+     * Lanes around the intersection, clockwise: the exit lane then the entry lane of each road
+     */
+    private static boolean pathsConflict(int a, int b) {
+        int fromA = 2 * approach(a) + 1;
+        int toA = 2 * exit(a);
+        int fromB = 2 * approach(b) + 1;
+        int toB = 2 * exit(b);
+        if (toA == toB) {
+            return true;
+        }
+        return between(fromA, toA, fromB) != between(fromA, toA, toB);
+    }
+
+    /**
+     * Returns true if a lane lies on the clockwise arc strictly between two others
+     */
+    private static boolean between(int start, int end, int lane) {
+        int size = 2 * DIRECTIONS.length;
+        int offset = Math.floorMod(lane - start, size);
+        return offset > 0 && offset < Math.floorMod(end - start, size);
+    }
+}
@@ -0,0 +1,30 @@
+package avs.simulation.model;
+
+/**
+ * Counts the simulation steps completed so far.
+ * Vehicles read it to derive their waiting time instead of being updated on every step.
+ */
+public class SimulationClock {
+    private long completedSteps = 0;
+
+    /**
+     * Returns the number of steps completed so far
+     */
+    public long now() {
+        return completedSteps;
+    }
+
+    /**
+     * Marks the current step as completed
+     */
+    public void advance() {
+        completedSteps++;
+    }
+
+    /**
+     * Marks a number of steps as completed
+     */
+    public void advance(long steps) {
+        completedSteps += steps;
+    }
+}
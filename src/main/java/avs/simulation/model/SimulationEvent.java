@@ -0,0 +1,46 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+/**
+ * Something that happens in a known simulation step, used by the discrete-event engine mode
+ */
+public class SimulationEvent {
+
+    public enum Type {
+        PHASE_CHANGE,
+        DEPARTURE
+    }
+
+    private final long time;
+    private final Type type;
+    private final TrafficLight.Direction direction;
+
+    /**
+     * @param time The number of the step the event happens in, steps are numbered from 1
+     * @param type The kind of event
+     * @param direction The approach the event applies to, or null if it applies to the whole intersection
+     */
+    public SimulationEvent(long time, Type type, TrafficLight.Direction direction) {
+        this.time = time;
+        this.type = type;
+        this.direction = direction;
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public TrafficLight.Direction getDirection() {
+        return direction;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SimulationEvent[%d: %s %s]", time, type, direction);
+    }
+}
@@ -0,0 +1,149 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.util.List;
+
+/**
+ * Metrics collected while a simulation runs: waiting times per approach and movement, queue lengths and
+ * departures per phase. Every event is recorded in constant time into fixed-size {@link LogHistogram}s.
+ * <p>
+ * A green phase starts when the light of the direction the controller reports as green turns green, or when that
+ * direction changes while its light is green, so a direction given two phases in a row has both counted.
+ * <p>
+ * Queue lengths are sampled whenever a queue can change. A sample holds until the next one, so steps the engine
+ * skips are weighted by their number without being visited.
+ */
+public class SimulationMetrics {
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+    private static final Vehicle.MovementType[] MOVEMENT_TYPES = Vehicle.MovementType.values();
+
+    private final LogHistogram waitTimes = new LogHistogram();
+    private final LogHistogram[] waitTimesByDirection = new LogHistogram[DIRECTIONS.length];
+    private final LogHistogram[] waitTimesByMovement = new LogHistogram[MOVEMENT_TYPES.length];
+    private final LogHistogram[] queueLengths = new LogHistogram[DIRECTIONS.length];
+    private final long[] departuresByPhase = new long[DIRECTIONS.length];
+    private final long[] phasesServed = new long[DIRECTIONS.length];
+
+    private final int[] sampledLengths = new int[DIRECTIONS.length];
+    private long startTime = -1; // Step of the first sample, -1 before it
+    private long sampleTime = 0;
+    private TrafficLight.Direction lastPhase = null;
+    private boolean lastPhaseGreen = false;
+
+    public SimulationMetrics() {
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            waitTimesByDirection[i] = new LogHistogram();
+            queueLengths[i] = new LogHistogram();
+        }
+        for (int i = 0; i < MOVEMENT_TYPES.length; i++) {
+            waitTimesByMovement[i] = new LogHistogram();
+        }
+    }
+
+    /**
+     * Records the vehicles that left in one step
+     *
+     * @param phase The direction the controller reported as green, or null if there is none
+     */
+    public void recordDepartures(List<Vehicle> departed, TrafficLight.Direction phase) {
+        if (departed.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < departed.size(); i++) {
+            Vehicle vehicle = departed.get(i);
+            int wait = vehicle.getWaitingTime();
+            waitTimes.record(wait);
+            waitTimesByDirection[vehicle.getStartRoad().ordinal()].record(wait);
+            waitTimesByMovement[vehicle.getMovementType().ordinal()].record(wait);
+        }
+        if (phase != null) {
+            departuresByPhase[phase.ordinal()] += departed.size();
+        }
+    }
+
+    /**
+     * Records the state of the lights after the controller has updated them
+     *
+     * @param phase The direction the controller reports as green, or null if there is none
+     * @param green Whether the light of that direction is green
+     */
+    public void recordPhase(TrafficLight.Direction phase, boolean green) {
+        green = green && phase != null;
+        if (green && (!lastPhaseGreen || phase != lastPhase)) {
+            phasesServed[phase.ordinal()]++;
+        }
+        lastPhase = phase;
+        lastPhaseGreen = green;
+    }
+
+    /**
+     * Records the queue lengths from a step on, closing the previous sample
+     *
+     * @param now The current simulation step
+     */
+    public void recordQueueLengths(long now, ApproachQueues queues) {
+        if (startTime < 0) {
+            startTime = now;
+            sampleTime = now;
+        }
+        closeSample(now);
+        for (int i = 0; i < DIRECTIONS.length; i++) {
+            sampledLengths[i] = queues.size(DIRECTIONS[i]);
+        }
+    }
+
+    /**
+     * Weights the current queue lengths by the steps they have held up to now
+     */
+    public void closeSample(long now) {
+        long steps = now - sampleTime;
+        if (startTime >= 0 && steps > 0) {
+            for (int i = 0; i < DIRECTIONS.length; i++) {
+                queueLengths[i].record(sampledLengths[i], steps);
+            }
+            sampleTime = now;
+        }
+    }
+
+    /**
+     * Returns the number of steps covered by the queue length samples
+     */
+    public long getSampledSteps() {
+        return startTime < 0 ? 0 : sampleTime - startTime;
+    }
+
+    public LogHistogram getWaitTimes() {
+        return waitTimes;
+    }
+
+    public LogHistogram getWaitTimes(TrafficLight.Direction from) {
+        return waitTimesByDirection[from.ordinal()];
+    }
+
+    public LogHistogram getWaitTimes(Vehicle.MovementType movementType) {
+        return waitTimesByMovement[movementType.ordinal()];
+    }
+
+    /**
+     * Returns the queue lengths of an approach, one count per step
+     */
+    public LogHistogram getQueueLengths(TrafficLight.Direction direction) {
+        return queueLengths[direction.ordinal()];
+    }
+
+    /**
+     * Returns the number of vehicles that left while the direction was reported as green
+     */
+    public long getDeparturesInPhase(TrafficLight.Direction phase) {
+        return departuresByPhase[phase.ordinal()];
+    }
+
+    /**
+     * Returns the number of green phases a direction was given, see {@link #recordPhase}.
+     * Phases that begin and end within idle steps the simulation skips are not counted.
+     */
+    public long getPhasesServed(TrafficLight.Direction phase) {
+        return phasesServed[phase.ordinal()];
+    }
+}
@@ -1,20 +1,60 @@
 package avs.simulation.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class StepStatus {
-    private List<String> leftVehicles;
+    private int[] leftVehicles;
+    private int leftVehicleCount;
 
     public StepStatus() {
-        this.leftVehicles = new ArrayList<>();
+        this.leftVehicles = new int[4];
+        this.leftVehicleCount = 0;
     }
 
-    public void addLeftVehicle(String vehicleId) {
-        leftVehicles.add(vehicleId);
+    /**
+     * Records a vehicle that left the intersection during this step
+     *
+     * @param vehicleHandle The handle of the vehicle, see {@link VehicleIdDictionary}
+     */
+    public void addLeftVehicle(int vehicleHandle) {
+        if (leftVehicleCount == leftVehicles.length) {
+            leftVehicles = Arrays.copyOf(leftVehicles, leftVehicles.length * 2);
+        }
+        leftVehicles[leftVehicleCount++] = vehicleHandle;
     }
 
-    public List<String> getLeftVehicles() {
-        return leftVehicles;
+    public int getLeftVehicleCount() {
+        return leftVehicleCount;
     }
-}
\ No newline at end of file
+
+    public int getLeftVehicle(int index) {
+        if (index >= leftVehicleCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + leftVehicleCount + " vehicles");
+        }
+        return leftVehicles[index];
+    }
+
+    public boolean isEmpty() {
+        return leftVehicleCount == 0;
+    }
+
+    /**
+     * Removes all vehicles so the status can be reused for another step
+     */
+    public void clear() {
+        leftVehicleCount = 0;
+    }
+
+    /**
+     * Resolves the handles of the vehicles that left during this step to their external ids
+     */
+    public List<String> getLeftVehicles(VehicleIdDictionary vehicleIds) {
+        List<String> resolved = new ArrayList<>(leftVehicleCount);
+        for (int i = 0; i < leftVehicleCount; i++) {
+            resolved.add(vehicleIds.resolve(leftVehicles[i]));
+        }
+        return resolved;
+    }
+}
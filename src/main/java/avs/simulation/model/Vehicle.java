@@ -5,11 +5,14 @@ import avs.simulation.model.LightControlers.TrafficLight;
 
 public class Vehicle {
     
-    private String vehicleId;
+    private int handle;
+    private final String vehicleId; // Only for display, null if unknown
     private TrafficLight.Direction startRoad;
     private TrafficLight.Direction endRoad;
     private VehicleState state;
-    private int waitingTime;
+    private final SimulationClock clock;
+    private final long arrivalTime;
+    private long crossingTime;
     
     public enum VehicleState {
         WAITING,
@@ -21,30 +24,60 @@ public class Vehicle {
         STRAIGHT, LEFT, RIGHT
     }
     
-    public Vehicle(String vehicleId, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
+    /**
+     * Creates a vehicle on its own clock, which never advances
+     */
+    public Vehicle(int handle, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
+        this(handle, startRoad, endRoad, new SimulationClock());
+    }
+
+    /**
+     * @param handle The handle of the vehicle id, see {@link VehicleIdDictionary}
+     * @param clock The simulation clock, the vehicle arrives at its current time
+     */
+    public Vehicle(int handle, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad, SimulationClock clock) {
+        this(handle, null, startRoad, endRoad, clock);
+    }
+
+    /**
+     * @param vehicleId The external vehicle id, shown by {@link #toString()} and never used by the engine
+     */
+    public Vehicle(int handle, String vehicleId, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad,
+                   SimulationClock clock) {
+        this.handle = handle;
         this.vehicleId = vehicleId;
         this.startRoad = startRoad;
         this.endRoad = endRoad;
         this.state = VehicleState.WAITING;
-        this.waitingTime = 0;
-    }
-
-    public void update() {
-        if (state == VehicleState.WAITING) {
-            waitingTime++;
-        }
+        this.clock = clock;
+        this.arrivalTime = clock.now();
     }
     
     public void startCrossing() {
         if (state == VehicleState.WAITING) {
             state = VehicleState.CROSSING;
+            crossingTime = clock.now();
         }
     }
 
+    /**
+     * Returns the step in which the vehicle started crossing, only meaningful once it has
+     */
+    public long getCrossingTime() {
+        return crossingTime;
+    }
+
+    public int getHandle() {
+        return handle;
+    }
+    
+    /**
+     * Returns the external vehicle id, or null if the vehicle was created without it
+     */
     public String getVehicleId() {
         return vehicleId;
     }
-    
+
     public TrafficLight.Direction getStartRoad() {
         return startRoad;
     }
@@ -52,11 +85,21 @@ public class Vehicle {
     public TrafficLight.Direction getEndRoad() {
         return endRoad;
     }
+
+    /**
+     * Returns the number of completed steps the vehicle spent waiting,
+     * up to now or up to the step it started crossing
+     */
+    public int getWaitingTime() {
+        long end = state == VehicleState.WAITING ? clock.now() : crossingTime;
+        return (int) (end - arrivalTime);
+    }
     
     @Override
     public String toString() {
+        // Handles are reused, so the id identifies the vehicle whenever it is known
         return String.format("Vehicle[%s: %s->%s, %s, waited: %ds]", 
-                vehicleId, startRoad, endRoad, state, waitingTime);
+                vehicleId != null ? vehicleId : "#" + handle, startRoad, endRoad, state, getWaitingTime());
     }
 
     /**
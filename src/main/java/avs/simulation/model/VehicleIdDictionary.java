@@ -0,0 +1,68 @@
+package avs.simulation.model;
+
+import java.util.Arrays;
+
+/**
+ * Maps external vehicle ids to dense int handles.
+ * The engine works on handles only and the original ids are resolved when results are written or displayed.
+ * Released handles are reused, so the table only grows with the number of vehicles alive at the same time.
+ */
+public class VehicleIdDictionary {
+    private String[] vehicleIds = new String[64];
+    private int[] freeHandles = new int[16];
+    private int freeCount = 0;
+    private int nextHandle = 0;
+
+    /**
+     * Assigns a handle to a vehicle id
+     *
+     * @param vehicleId The external vehicle id
+     * @return A handle that stays valid until it is released
+     */
+    public int register(String vehicleId) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            handle = nextHandle++;
+            if (handle == vehicleIds.length) {
+                vehicleIds = Arrays.copyOf(vehicleIds, vehicleIds.length * 2);
+            }
+        }
+        vehicleIds[handle] = vehicleId;
+        return handle;
+    }
+
+    /**
+     * Returns the external id of a handle
+     */
+    public String resolve(int handle) {
+        return vehicleIds[handle];
+    }
+
+    /**
+     * Releases a handle so it can be assigned to another vehicle
+     */
+    public void release(int handle) {
+        vehicleIds[handle] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeHandles.length * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    /**
+     * Returns an exclusive upper bound for all handles handed out so far,
+     * suitable for sizing arrays indexed by handle
+     */
+    public int getHandleLimit() {
+        return nextHandle;
+    }
+
+    /**
+     * Returns the number of handles currently in use
+     */
+    public int size() {
+        return nextHandle - freeCount;
+    }
+}
@@ -0,0 +1,97 @@
+package avs.simulation.model;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * First-in first-out queue of vehicles backed by a growable ring buffer.
+ * Vehicles are stored in one contiguous array, so adding and removing them allocates nothing
+ * once the buffer has grown to the longest queue seen.
+ */
+public class VehicleQueue {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Vehicle[] vehicles = new Vehicle[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+
+    public void add(Vehicle vehicle) {
+        if (size == vehicles.length) {
+            grow();
+        }
+        vehicles[(head + size) & (vehicles.length - 1)] = vehicle;
+        size++;
+    }
+
+    /**
+     * Returns the first vehicle without removing it, or null if the queue is empty
+     */
+    public Vehicle peek() {
+        return size == 0 ? null : vehicles[head];
+    }
+
+    /**
+     * Removes and returns the first vehicle, or null if the queue is empty
+     */
+    public Vehicle poll() {
+        if (size == 0) {
+            return null;
+        }
+        Vehicle vehicle = vehicles[head];
+        vehicles[head] = null;
+        head = (head + 1) & (vehicles.length - 1);
+        size--;
+        return vehicle;
+    }
+
+    /**
+     * Removes up to a number of vehicles from the front of the queue at once
+     *
+     * @param into Receives the removed vehicles from index 0, in queue order
+     * @param count Maximum number of vehicles to remove, at most the length of the array
+     * @return The number of removed vehicles
+     */
+    public int poll(Vehicle[] into, int count) {
+        int removed = Math.min(count, size);
+        int firstPart = Math.min(removed, vehicles.length - head);
+        System.arraycopy(vehicles, head, into, 0, firstPart);
+        System.arraycopy(vehicles, 0, into, firstPart, removed - firstPart);
+        Arrays.fill(vehicles, head, head + firstPart, null);
+        Arrays.fill(vehicles, 0, removed - firstPart, null);
+        head = (head + removed) & (vehicles.length - 1);
+        size -= removed;
+        return removed;
+    }
+
+    /**
+     * Returns the vehicle at a position counted from the front of the queue
+     */
+    public Vehicle get(int index) {
+        if (index < 0 || index >= size) {
+            throw new NoSuchElementException("No vehicle at position " + index + " of " + size);
+        }
+        return vehicles[(head + index) & (vehicles.length - 1)];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    // Capacity stays a power of two so positions wrap with a mask
+    private void grow() {
+        if (vehicles.length > Integer.MAX_VALUE / 4) {
+            throw new IllegalStateException("Vehicle queue is too large");
+        }
+        Vehicle[] grown = new Vehicle[vehicles.length * 2];
+        int firstPart = vehicles.length - head;
+        System.arraycopy(vehicles, head, grown, 0, firstPart);
+        System.arraycopy(vehicles, 0, grown, firstPart, head);
+        Arrays.fill(vehicles, null);
+        vehicles = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,67 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+/**
+ * One {@link VehicleQueue} per approach, indexed by {@link TrafficLight.Direction#ordinal()}
+ */
+public class VehicleQueues implements ApproachQueues {
+    private final VehicleQueue[] queues;
+
+    public VehicleQueues() {
+        queues = new VehicleQueue[TrafficLight.Direction.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new VehicleQueue();
+        }
+    }
+
+    /**
+     * Returns the queue of an approach
+     */
+    public VehicleQueue get(TrafficLight.Direction direction) {
+        return queues[direction.ordinal()];
+    }
+
+    /**
+     * Appends a vehicle to the queue of its start road
+     */
+    public void add(Vehicle vehicle) {
+        queues[vehicle.getStartRoad().ordinal()].add(vehicle);
+    }
+
+    @Override
+    public int size(TrafficLight.Direction direction) {
+        return queues[direction.ordinal()].size();
+    }
+
+    @Override
+    public Vehicle peek(TrafficLight.Direction direction) {
+        return queues[direction.ordinal()].peek();
+    }
+
+    @Override
+    public Vehicle poll(TrafficLight.Direction direction) {
+        return queues[direction.ordinal()].poll();
+    }
+
+    @Override
+    public Vehicle get(TrafficLight.Direction direction, int index) {
+        return queues[direction.ordinal()].get(index);
+    }
+
+    @Override
+    public int poll(TrafficLight.Direction direction, Vehicle[] into, int count) {
+        return queues[direction.ordinal()].poll(into, count);
+    }
+
+    /**
+     * Returns the number of vehicles waiting on all approaches
+     */
+    public int totalSize() {
+        int total = 0;
+        for (VehicleQueue queue : queues) {
+            total += queue.size();
+        }
+        return total;
+    }
+}
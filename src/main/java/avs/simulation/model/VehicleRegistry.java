@@ -0,0 +1,150 @@
+package avs.simulation.model;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Table of values indexed by vehicle handle, see {@link VehicleIdDictionary}.
+ * Lookup, insertion and removal take constant time; iteration follows insertion order through links
+ * stored next to the entries, so removing a vehicle never shifts the others.
+ *
+ * @param <T> The type of the value kept for each vehicle
+ */
+public class VehicleRegistry<T> implements Iterable<T> {
+    private static final int NONE = -1;
+
+    private Object[] values = new Object[64];
+    private int[] previous = new int[64];
+    private int[] next = new int[64];
+    private int first = NONE;
+    private int last = NONE;
+    private int size = 0;
+
+    /**
+     * Adds the value of a vehicle at the end of the iteration order,
+     * or replaces it in place if the vehicle is already registered
+     *
+     * @return The value it replaces, or null
+     */
+    public T put(int handle, T value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value must not be null");
+        }
+        if (handle >= values.length) {
+            int capacity = Math.max(values.length * 2, handle + 1);
+            values = Arrays.copyOf(values, capacity);
+            previous = Arrays.copyOf(previous, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        T replaced = get(handle);
+        values[handle] = value;
+        if (replaced == null) {
+            previous[handle] = last;
+            next[handle] = NONE;
+            if (last == NONE) {
+                first = handle;
+            } else {
+                next[last] = handle;
+            }
+            last = handle;
+            size++;
+        }
+        return replaced;
+    }
+
+    /**
+     * Returns the value of a vehicle, or null if it is not registered
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int handle) {
+        return handle >= 0 && handle < values.length ? (T) values[handle] : null;
+    }
+
+    public boolean contains(int handle) {
+        return get(handle) != null;
+    }
+
+    /**
+     * Removes a vehicle
+     *
+     * @return Its value, or null if it was not registered
+     */
+    public T remove(int handle) {
+        T removed = get(handle);
+        if (removed == null) {
+            return null;
+        }
+        int before = previous[handle];
+        int after = next[handle];
+        if (before == NONE) {
+            first = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NONE) {
+            last = before;
+        } else {
+            previous[after] = before;
+        }
+        values[handle] = null;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Returns the value registered first among those still present, or null if there are none
+     */
+    public T peekFirst() {
+        return first == NONE ? null : get(first);
+    }
+
+    /**
+     * Removes the value registered first among those still present
+     *
+     * @return The removed value, or null if there are none
+     */
+    public T removeFirst() {
+        return first == NONE ? null : remove(first);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        first = NONE;
+        last = NONE;
+        size = 0;
+    }
+
+    /**
+     * Iterates in insertion order. The value just returned may be removed while iterating.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int cursor = first;
+
+            @Override
+            public boolean hasNext() {
+                return cursor != NONE;
+            }
+
+            @Override
+            public T next() {
+                if (cursor == NONE) {
+                    throw new NoSuchElementException();
+                }
+                T value = get(cursor);
+                cursor = next[cursor];
+                return value;
+            }
+        };
+    }
+}
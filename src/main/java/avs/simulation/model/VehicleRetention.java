@@ -0,0 +1,125 @@
+package avs.simulation.model;
+
+import java.util.function.Consumer;
+
+/**
+ * How long a simulation keeps the vehicles that have left the intersection. In visual mode the handle of a
+ * departed vehicle is released once the policy drops it and its crossing animation has ended, so the memory of
+ * a long-running simulation grows only with the vehicles kept and the animations in flight; departures are
+ * summarised in {@link DepartureStatistics} whichever policy is used.
+ */
+public final class VehicleRetention {
+    /** Keeps the most recent departures, enough for a dashboard to show the latest traffic */
+    public static final VehicleRetention DEFAULT = keepLast(1024);
+
+    public enum Kind {
+        /** Vehicles are dropped as soon as their departure has been handled */
+        NONE,
+        /** The given number of most recent departures are kept */
+        LAST,
+        /** Vehicles that left within the given number of steps are kept */
+        WINDOW
+    }
+
+    private final Kind kind;
+    private final long limit;
+
+    private VehicleRetention(Kind kind, long limit) {
+        this.kind = kind;
+        this.limit = limit;
+    }
+
+    public static VehicleRetention keepNone() {
+        return new VehicleRetention(Kind.NONE, 0);
+    }
+
+    public static VehicleRetention keepLast(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Vehicle count must not be negative: " + count);
+        }
+        return new VehicleRetention(Kind.LAST, count);
+    }
+
+    public static VehicleRetention keepWindow(long steps) {
+        if (steps < 0) {
+            throw new IllegalArgumentException("Window must not be negative: " + steps);
+        }
+        return new VehicleRetention(Kind.WINDOW, steps);
+    }
+
+    /**
+     * Parses "none", {@code last:<count>} or {@code window:<steps>}
+     */
+    public static VehicleRetention parse(String retention) {
+        String[] parts = retention.trim().toLowerCase().split(":", -1);
+        try {
+            if (parts.length == 1 && parts[0].equals("none")) {
+                return keepNone();
+            } else if (parts.length == 2 && parts[0].equals("last")) {
+                return keepLast(Integer.parseInt(parts[1].trim()));
+            } else if (parts.length == 2 && parts[0].equals("window")) {
+                return keepWindow(Long.parseLong(parts[1].trim()));
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid vehicle retention: " + retention);
+    }
+
+    /**
+     * Drops the departed vehicles the policy no longer keeps, which are always the oldest ones
+     *
+     * @param departed Departed vehicles in the order they left
+     * @param now The current simulation step
+     */
+    public void evict(VehicleRegistry<Vehicle> departed, long now) {
+        evict(departed, now, vehicle -> { });
+    }
+
+    /**
+     * Drops the departed vehicles the policy no longer keeps, passing each one to a consumer
+     *
+     * @param evicted Called with every dropped vehicle, oldest first
+     */
+    public void evict(VehicleRegistry<Vehicle> departed, long now, Consumer<Vehicle> evicted) {
+        switch (kind) {
+            case NONE -> {
+                Vehicle oldest;
+                while ((oldest = departed.removeFirst()) != null) {
+                    evicted.accept(oldest);
+                }
+            }
+            case LAST -> {
+                while (departed.size() > limit) {
+                    evicted.accept(departed.removeFirst());
+                }
+            }
+            case WINDOW -> {
+                Vehicle oldest;
+                while ((oldest = departed.peekFirst()) != null && now - oldest.getCrossingTime() > limit) {
+                    evicted.accept(departed.removeFirst());
+                }
+            }
+        }
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the number of vehicles or steps kept, depending on the kind
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case NONE -> "none";
+            case LAST -> "last:" + limit;
+            case WINDOW -> "window:" + limit;
+        };
+    }
+}
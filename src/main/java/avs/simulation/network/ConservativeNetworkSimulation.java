@@ -0,0 +1,374 @@
+package avs.simulation.network;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.VehicleIdDictionary;
+import avs.simulation.util.Command;
+import avs.simulation.util.CommandReader;
+import avs.simulation.util.JsonStepStatusWriter;
+import avs.simulation.util.SpscQueue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs a road network with one thread per partition and no global step barrier.
+ * Each partition advances its own clock as far as its inputs allow: a vehicle sent by an upstream partition
+ * in step t arrives no earlier than t plus the shortest link delay between the two, so a partition may run
+ * that many steps ahead of each upstream partition (conservative synchronisation in the style of
+ * Chandy-Misra-Bryant). Partitions publish their completed steps on every output channel after each step,
+ * which acts as a null message and lets the destinations advance even when no vehicle is sent.
+ * <p>
+ * The command stream is read in full before the run, since each partition needs its own vehicles up front.
+ * The output is identical to a {@link NetworkSimulation} run of the same commands.
+ */
+public class ConservativeNetworkSimulation {
+    private static final int CHANNEL_CAPACITY = 4096;
+    private static final int OUTPUT_CAPACITY = 1024; // Steps a partition may run ahead of the output writer
+    private static final int[] NO_EXITS = new int[0];
+
+    private final RoadNetwork network;
+    private final int partitionCount;
+    private final VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+    private long stepCount = 0;
+    private int outputFlushInterval = JsonStepStatusWriter.DEFAULT_FLUSH_INTERVAL;
+
+    /**
+     * @param partitionCount Number of partitions and threads, capped at the number of intersections
+     */
+    public ConservativeNetworkSimulation(RoadNetwork network, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+        this.network = network;
+        this.partitionCount = Math.max(1, Math.min(partitionCount, network.size()));
+    }
+
+    /**
+     * Executes every network command of the reader and writes the vehicles leaving the network in each step
+     * to the output file. The reader is closed once it has been read.
+     */
+    public void run(CommandReader commandReader, String outputFile) throws IOException {
+        int[] nodePartitions = NetworkPartition.assign(network.size(), partitionCount);
+        List<List<Injection>> injections = new ArrayList<>();
+        for (int p = 0; p < partitionCount; p++) {
+            injections.add(new ArrayList<>());
+        }
+        long steps = readCommands(commandReader, nodePartitions, injections);
+
+        PartitionWorker[] workers = createWorkers(nodePartitions, injections, steps);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread[] threads = new Thread[workers.length];
+        for (int p = 0; p < workers.length; p++) {
+            PartitionWorker worker = workers[p];
+            threads[p] = new Thread(() -> {
+                try {
+                    worker.run();
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }, "network-partition-" + p);
+            threads[p].setDaemon(true);
+        }
+
+        try (JsonStepStatusWriter writer = new JsonStepStatusWriter(new File(outputFile), outputFlushInterval)) {
+            for (Thread thread : threads) {
+                thread.start();
+            }
+            writeOutput(workers, steps, failure, writer);
+        } finally {
+            for (Thread thread : threads) {
+                thread.interrupt();
+            }
+            for (Thread thread : threads) {
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Registers every vehicle and assigns it to the partition of its first intersection
+     *
+     * @return The number of steps to simulate
+     */
+    private long readCommands(CommandReader commandReader, int[] nodePartitions, List<List<Injection>> injections)
+            throws IOException {
+        long steps = 0;
+        try (CommandReader reader = commandReader) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                if (command.getType() == Command.CommandType.STEP) {
+                    steps++;
+                    continue;
+                }
+                if (command.getIntersectionId() == null) {
+                    throw new IllegalArgumentException("Vehicle " + command.getVehicleId() + " has no intersection");
+                }
+                int intersection = network.indexOf(command.getIntersectionId());
+                network.checkRoute(command.getVehicleId(), intersection, command.getRoute());
+                int handle = vehicleIds.register(command.getVehicleId());
+                injections.get(nodePartitions[intersection]).add(
+                        new Injection(steps, intersection, handle, command.getVehicleId(), command.getStartRoad(),
+                                command.getRoute()));
+            }
+        }
+        return steps;
+    }
+
+    private PartitionWorker[] createWorkers(int[] nodePartitions, List<List<Injection>> injections, long steps) {
+        NetworkNode[] nodes = new NetworkNode[network.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new NetworkNode(i, network.getControllerType(i));
+        }
+        NetworkPartition[] partitions = new NetworkPartition[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            // Every partition keeps its own time, vehicles take the clock of the partition they wait in
+            partitions[p] = new NetworkPartition(p, nodes, network, new SimulationClock(), nodePartitions,
+                    partitionCount);
+        }
+
+        // One channel for every pair of partitions joined by a link, its lookahead is the shortest of their delays
+        int[][] lookahead = new int[partitionCount][partitionCount];
+        for (Link link : network.getLinks()) {
+            int source = nodePartitions[link.getFrom()];
+            int destination = nodePartitions[link.getTo()];
+            if (source != destination && (lookahead[source][destination] == 0
+                    || link.getDelay() < lookahead[source][destination])) {
+                lookahead[source][destination] = link.getDelay();
+            }
+        }
+        PartitionChannel[][] outputs = new PartitionChannel[partitionCount][partitionCount];
+        List<List<PartitionChannel>> inputs = new ArrayList<>();
+        for (int p = 0; p < partitionCount; p++) {
+            inputs.add(new ArrayList<>());
+        }
+        for (int source = 0; source < partitionCount; source++) {
+            for (int destination = 0; destination < partitionCount; destination++) {
+                if (lookahead[source][destination] > 0) {
+                    PartitionChannel channel = new PartitionChannel(source, destination,
+                            lookahead[source][destination], CHANNEL_CAPACITY);
+                    outputs[source][destination] = channel;
+                    inputs.get(destination).add(channel);
+                }
+            }
+        }
+
+        PartitionWorker[] workers = new PartitionWorker[partitionCount];
+        for (int p = 0; p < partitionCount; p++) {
+            workers[p] = new PartitionWorker(partitions[p], outputs[p], inputs.get(p), injections.get(p), steps);
+        }
+        return workers;
+    }
+
+    /**
+     * Writes the exits of every step once all partitions have completed it, concatenated in partition order
+     */
+    private void writeOutput(PartitionWorker[] workers, long steps, AtomicReference<Throwable> failure,
+                             JsonStepStatusWriter writer) throws IOException {
+        StepStatus stepStatus = new StepStatus();
+        for (long step = 1; step <= steps; step++) {
+            stepStatus.clear();
+            for (PartitionWorker worker : workers) {
+                int[] exits;
+                for (int attempt = 0; (exits = worker.exits.poll()) == null; attempt++) {
+                    checkFailure(failure);
+                    PartitionChannel.backOff(attempt);
+                }
+                for (int handle : exits) {
+                    stepStatus.addLeftVehicle(handle);
+                }
+            }
+            writer.write(stepStatus, vehicleIds);
+            stepCount = step;
+        }
+    }
+
+    private static void checkFailure(AtomicReference<Throwable> failure) {
+        Throwable cause = failure.get();
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        } else if (cause instanceof Error error) {
+            throw error;
+        } else if (cause != null) {
+            throw new IllegalStateException("Partition failed", cause);
+        }
+    }
+
+    /**
+     * Sets how many steps are written to the output file between flushes
+     */
+    public void setOutputFlushInterval(int outputFlushInterval) {
+        if (outputFlushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + outputFlushInterval);
+        }
+        this.outputFlushInterval = outputFlushInterval;
+    }
+
+    public RoadNetwork getNetwork() {
+        return network;
+    }
+
+    /**
+     * Returns the number of steps written by the last run
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the dictionary that resolves vehicle handles to their external ids
+     */
+    public VehicleIdDictionary getVehicleIds() {
+        return vehicleIds;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * A vehicle entering the network after a number of completed steps
+     */
+    private static final class Injection {
+        final long completedSteps;
+        final int intersection;
+        final int handle;
+        final String vehicleId;
+        final TrafficLight.Direction startRoad;
+        final TrafficLight.Direction[] route;
+
+        Injection(long completedSteps, int intersection, int handle, String vehicleId,
+                  TrafficLight.Direction startRoad, TrafficLight.Direction[] route) {
+            this.completedSteps = completedSteps;
+            this.intersection = intersection;
+            this.handle = handle;
+            this.vehicleId = vehicleId;
+            this.startRoad = startRoad;
+            this.route = route;
+        }
+    }
+
+    /**
+     * Steps one partition on its own thread, waiting only for the inputs of the step it is about to execute
+     */
+    private static final class PartitionWorker implements NetworkPartition.Outbox {
+        private final NetworkPartition partition;
+        private final PartitionChannel[] outputsByDestination;
+        private final List<PartitionChannel> outputs = new ArrayList<>();
+        private final List<PartitionChannel> inputs;
+        private final List<Injection> injections;
+        private final long steps;
+        final SpscQueue<int[]> exits = new SpscQueue<>(OUTPUT_CAPACITY);
+
+        PartitionWorker(NetworkPartition partition, PartitionChannel[] outputs, List<PartitionChannel> inputs,
+                        List<Injection> injections, long steps) {
+            this.partition = partition;
+            this.outputsByDestination = outputs;
+            for (PartitionChannel output : outputs) {
+                if (output != null) {
+                    this.outputs.add(output);
+                }
+            }
+            this.inputs = inputs;
+            this.injections = injections;
+            this.steps = steps;
+            partition.connect(this);
+        }
+
+        @Override
+        public void send(int destination, RoutedVehicle vehicle, Link link, long departureStep) {
+            PartitionChannel output = outputsByDestination[destination];
+            for (int attempt = 0; !output.offer(vehicle, link, departureStep); attempt++) {
+                // Keep consuming while the destination catches up, it may itself be waiting for room in our inputs
+                receive();
+                PartitionChannel.backOff(attempt);
+            }
+        }
+
+        /**
+         * Moves the vehicles waiting in the input channels into the inboxes of the partition.
+         * An upstream partition may be further ahead than the inboxes reach, so vehicles arriving beyond
+         * them stay in their channel until this partition has caught up.
+         */
+        private void receive() {
+            long horizon = partition.getInboxHorizon();
+            for (PartitionChannel input : inputs) {
+                PartitionChannel.Transfer transfer;
+                while ((transfer = input.peek()) != null) {
+                    if (transfer.departureStep + transfer.link.getDelay() > horizon) {
+                        break;
+                    }
+                    partition.accept(input.source, transfer.vehicle, transfer.link, transfer.departureStep);
+                    input.poll();
+                }
+            }
+        }
+
+        void run() {
+            SimulationClock clock = partition.getClock();
+            int nextInjection = 0;
+            for (long step = 1; step <= steps; step++) {
+                // Vehicles added between two steps join their queues before the arrivals of the next step
+                while (nextInjection < injections.size()
+                        && injections.get(nextInjection).completedSteps < step) {
+                    Injection injection = injections.get(nextInjection++);
+                    partition.enqueue(partition.getNode(injection.intersection), new RoutedVehicle(
+                            injection.handle, injection.vehicleId, injection.startRoad, injection.route, 0, clock));
+                }
+
+                awaitInputs(step);
+                partition.step(step);
+                clock.advance();
+                for (PartitionChannel output : outputs) {
+                    output.publish(step);
+                }
+                publishExits();
+            }
+
+            // Upstream partitions may still send vehicles arriving after the last step, keep their channels open
+            for (PartitionChannel input : inputs) {
+                for (int attempt = 0; input.getSafeStep() < steps + input.lookahead; attempt++) {
+                    receive();
+                    PartitionChannel.backOff(attempt);
+                }
+            }
+        }
+
+        /**
+         * Waits until no upstream partition can still send a vehicle arriving in the step
+         */
+        private void awaitInputs(long step) {
+            for (PartitionChannel input : inputs) {
+                for (int attempt = 0; input.getSafeStep() < step; attempt++) {
+                    receive();
+                    PartitionChannel.backOff(attempt);
+                }
+            }
+            // Every vehicle sent before the published steps is visible now
+            receive();
+        }
+
+        private void publishExits() {
+            StepStatus status = partition.exits;
+            int[] handles = NO_EXITS;
+            if (status.getLeftVehicleCount() > 0) {
+                handles = new int[status.getLeftVehicleCount()];
+                for (int i = 0; i < handles.length; i++) {
+                    handles[i] = status.getLeftVehicle(i);
+                }
+            }
+            for (int attempt = 0; !exits.offer(handles); attempt++) {
+                receive();
+                PartitionChannel.backOff(attempt);
+            }
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package avs.simulation.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Socket addresses of distributed network runs, written as "tcp:host:port" or "unix:/path/to/socket"
+ */
+public final class Endpoint {
+    private Endpoint() {
+    }
+
+    public static SocketAddress parse(String address) {
+        if (address.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(address.substring("unix:".length()));
+        }
+        if (address.startsWith("tcp:")) {
+            String hostAndPort = address.substring("tcp:".length());
+            int separator = hostAndPort.lastIndexOf(':');
+            if (separator > 0) {
+                try {
+                    return new InetSocketAddress(hostAndPort.substring(0, separator),
+                            Integer.parseInt(hostAndPort.substring(separator + 1)));
+                } catch (NumberFormatException e) {
+                    // Reported below
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid address, expected tcp:host:port or unix:path: " + address);
+    }
+
+    public static String format(SocketAddress address) {
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            return "unix:" + unixAddress.getPath();
+        }
+        InetSocketAddress inetAddress = (InetSocketAddress) address;
+        return "tcp:" + inetAddress.getHostString() + ":" + inetAddress.getPort();
+    }
+
+    /**
+     * Opens a server socket bound to the address. A TCP port of 0 picks a free port.
+     */
+    static ServerSocketChannel listen(SocketAddress address) throws IOException {
+        ServerSocketChannel server = address instanceof UnixDomainSocketAddress
+                ? ServerSocketChannel.open(StandardProtocolFamily.UNIX)
+                : ServerSocketChannel.open();
+        server.bind(address);
+        return server;
+    }
+
+    /**
+     * Opens a server socket of the same kind as another address, for a peer on the same machine
+     */
+    static ServerSocketChannel listenLike(SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress) {
+            Path directory = Files.createTempDirectory("traffic-network");
+            directory.toFile().deleteOnExit();
+            Path socket = directory.resolve("peer.sock");
+            socket.toFile().deleteOnExit();
+            return listen(UnixDomainSocketAddress.of(socket));
+        }
+        return listen(new InetSocketAddress(((InetSocketAddress) address).getAddress(), 0));
+    }
+
+    static SocketChannel connect(SocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(address);
+        if (address instanceof InetSocketAddress) {
+            channel.socket().setTcpNoDelay(true);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,167 @@
+package avs.simulation.network;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Socket between the processes of a distributed network run, carrying binary frames.
+ * A frame is a type byte and a payload length followed by the payload, all integers big-endian.
+ * Payloads are built with {@link #begin()} and sent with {@link #send(byte)}; frames are buffered until
+ * {@link #flush()}. One thread may receive while another one sends.
+ */
+final class FrameConnection implements Closeable {
+    // Worker to coordinator: the address the worker accepts peers on
+    static final byte HELLO = 1;
+    // Coordinator to worker: partition, partition count, network file and the addresses of all workers
+    static final byte ASSIGN = 2;
+    // Worker to worker: the partition of the connecting upstream worker
+    static final byte PEER = 3;
+    // Worker to coordinator: connected to all peers
+    static final byte READY = 4;
+    // Coordinator to worker: handle, intersection, start road and route of a vehicle entering the network
+    static final byte VEHICLE = 5;
+    // Coordinator to worker: step to execute once the boundaries of the previous step have arrived
+    static final byte STEP = 6;
+    // Worker to worker: step and the vehicles that left towards the peer in it, sent every step
+    static final byte BOUNDARY = 7;
+    // Worker to coordinator: step and the handles of the vehicles that left the network in it
+    static final byte EXITS = 8;
+    // Coordinator to worker: the run is over
+    static final byte SHUTDOWN = 9;
+
+    private final SocketChannel channel;
+    private final DataInputStream input;
+    private final DataOutputStream output;
+    private final ByteArrayOutputStream payloadBuffer = new ByteArrayOutputStream(256);
+    private final DataOutputStream payload = new DataOutputStream(payloadBuffer);
+    private byte[] receiveBuffer = new byte[256];
+    private byte lastType;
+
+    FrameConnection(SocketChannel channel) {
+        this.channel = channel;
+        this.input = new DataInputStream(new BufferedInputStream(new ChannelInput(channel), 1 << 16));
+        this.output = new DataOutputStream(new BufferedOutputStream(new ChannelOutput(channel), 1 << 16));
+    }
+
+    /**
+     * Starts a new outgoing payload
+     */
+    DataOutputStream begin() {
+        payloadBuffer.reset();
+        return payload;
+    }
+
+    /**
+     * Writes the payload started by {@link #begin()} as a frame of the given type
+     */
+    void send(byte type) throws IOException {
+        output.writeByte(type);
+        output.writeInt(payloadBuffer.size());
+        payloadBuffer.writeTo(output);
+    }
+
+    void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Reads the next frame of the given type
+     *
+     * @return The payload of the frame
+     * @throws IOException If the connection ends or the next frame has another type
+     */
+    DataInputStream expect(byte type) throws IOException {
+        DataInputStream frame = receive();
+        if (lastType != type) {
+            throw new IOException("Expected frame " + type + " but received " + lastType);
+        }
+        return frame;
+    }
+
+    /**
+     * Reads the next frame, its type is then returned by {@link #type()}
+     *
+     * @return The payload of the frame, valid until the next frame is received
+     */
+    DataInputStream receive() throws IOException {
+        lastType = input.readByte();
+        int length = input.readInt();
+        if (length < 0) {
+            throw new IOException("Invalid frame length: " + length);
+        }
+        if (receiveBuffer.length < length) {
+            receiveBuffer = new byte[Math.max(length, receiveBuffer.length * 2)];
+        }
+        input.readFully(receiveBuffer, 0, length);
+        return new DataInputStream(new ByteArrayInputStream(receiveBuffer, 0, length));
+    }
+
+    /**
+     * Returns the type of the last received frame
+     */
+    byte type() {
+        return lastType;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Reads a blocking channel directly. The streams of {@link java.nio.channels.Channels} share one lock between
+     * reading and writing, so a thread waiting for a frame would block every send on the same connection.
+     */
+    private static final class ChannelInput extends InputStream {
+        private final SocketChannel channel;
+
+        private ChannelInput(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            return length == 0 ? 0 : channel.read(ByteBuffer.wrap(bytes, offset, length));
+        }
+    }
+
+    /**
+     * Writes a blocking channel directly, see {@link ChannelInput}
+     */
+    private static final class ChannelOutput extends OutputStream {
+        private final SocketChannel channel;
+
+        private ChannelOutput(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            write(new byte[]{(byte) value}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package avs.simulation.network;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+/**
+ * Directed road from one exit of an intersection to an approach of another one
+ */
+public final class Link {
+    private final int index;
+    private final int from;
+    private final TrafficLight.Direction exit;
+    private final int to;
+    private final TrafficLight.Direction approach;
+    private final int delay;
+
+    Link(int index, int from, TrafficLight.Direction exit, int to, TrafficLight.Direction approach, int delay) {
+        this.index = index;
+        this.from = from;
+        this.exit = exit;
+        this.to = to;
+        this.approach = approach;
+        this.delay = delay;
+    }
+
+    /**
+     * Returns the position of the link in {@link RoadNetwork#getLinks()}
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * Returns the index of the intersection the link leaves from
+     */
+    public int getFrom() {
+        return from;
+    }
+
+    public TrafficLight.Direction getExit() {
+        return exit;
+    }
+
+    /**
+     * Returns the index of the intersection the link leads to
+     */
+    public int getTo() {
+        return to;
+    }
+
+    /**
+     * Returns the road the vehicles arrive from at the downstream intersection
+     */
+    public TrafficLight.Direction getApproach() {
+        return approach;
+    }
+
+    /**
+     * Returns the number of steps between leaving the upstream intersection and joining the downstream queue
+     */
+    public int getDelay() {
+        return delay;
+    }
+}
@@ -0,0 +1,362 @@
+package avs.simulation.network;
+
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.VehicleIdDictionary;
+import avs.simulation.util.Command;
+import avs.simulation.util.CommandReader;
+import avs.simulation.util.JsonStepStatusWriter;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Drives a road network split across several {@link NetworkWorker} processes.
+ * Every worker owns one partition of the intersections and loads the network from the same file, so only the
+ * topology is held by every process. The coordinator streams the commands: vehicles go to the worker owning
+ * their first intersection, and each step is sent to all workers, which then exchange the vehicles crossing
+ * between partitions directly with each other and report the vehicles that left the network. Steps are sent
+ * without waiting for these reports, up to {@link #setMaxStepsAhead a bounded number} of steps ahead of the
+ * output, so a worker only waits for its neighbours and workers far apart may be at different steps. Once every
+ * worker has reported a step, it is written to the output, which is identical to a {@link NetworkSimulation}
+ * run of the same commands.
+ * <p>
+ * Workers and coordinator talk over TCP or Unix-domain sockets using the frames of {@link FrameConnection}.
+ */
+public class NetworkCoordinator implements Closeable {
+    private final RoadNetwork network;
+    private final File networkFile;
+    private final int workerCount;
+    private final ServerSocketChannel server;
+    private final VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+    private long stepCount = 0;
+    private long writtenSteps = 0;
+    private int maxStepsAhead = 64;
+    private volatile boolean closing = false;
+    private long acceptTimeoutMillis = 60_000;
+    private int outputFlushInterval = JsonStepStatusWriter.DEFAULT_FLUSH_INTERVAL;
+
+    /**
+     * Loads the network and starts listening for workers
+     *
+     * @param networkFile A network or scenario file readable by every worker
+     * @param workerCount Number of workers, capped at the number of intersections
+     * @param address The address to listen on, a TCP port of 0 picks a free port
+     */
+    public NetworkCoordinator(File networkFile, int workerCount, SocketAddress address) throws IOException {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+        }
+        this.networkFile = networkFile.getAbsoluteFile();
+        this.network = RoadNetworkLoader.load(networkFile);
+        this.workerCount = Math.max(1, Math.min(workerCount, network.size()));
+        this.server = Endpoint.listen(address);
+    }
+
+    /**
+     * Returns the address workers connect to
+     */
+    public SocketAddress getAddress() throws IOException {
+        return server.getLocalAddress();
+    }
+
+    /**
+     * Starts worker processes on this machine, running on the same Java installation and class path
+     */
+    public List<Process> spawnLocalWorkers() throws IOException {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < workerCount; i++) {
+            processes.add(new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                    NetworkWorker.class.getName(), Endpoint.format(getAddress()))
+                    .inheritIO()
+                    .start());
+        }
+        return processes;
+    }
+
+    /**
+     * Waits for the workers, executes every network command of the reader and writes the vehicles leaving the
+     * network in each step to the output file. The workers are shut down and the reader closed when the run ends.
+     */
+    public void run(CommandReader commandReader, String outputFile) throws IOException {
+        List<FrameConnection> workers = new ArrayList<>();
+        try (CommandReader reader = commandReader) {
+            acceptWorkers(workers);
+            int[] nodePartitions = NetworkPartition.assign(network.size(), workers.size());
+            List<ExitReader> exitReaders = new ArrayList<>();
+            for (int i = 0; i < workers.size(); i++) {
+                ExitReader exitReader = new ExitReader(i, workers.get(i));
+                exitReaders.add(exitReader);
+                exitReader.start();
+            }
+
+            try (JsonStepStatusWriter writer = new JsonStepStatusWriter(new File(outputFile), outputFlushInterval)) {
+                StepStatus stepStatus = new StepStatus();
+                Command command;
+                while ((command = reader.next()) != null) {
+                    if (command.getType() == Command.CommandType.STEP) {
+                        writeReportedSteps(exitReaders, writer, stepStatus, stepCount + 1 - maxStepsAhead);
+                        step(workers);
+                    } else {
+                        addVehicle(workers, nodePartitions, command);
+                    }
+                }
+                writeReportedSteps(exitReaders, writer, stepStatus, stepCount);
+            }
+
+            for (FrameConnection worker : workers) {
+                worker.begin();
+                worker.send(FrameConnection.SHUTDOWN);
+                worker.flush();
+            }
+        } finally {
+            closing = true;
+            for (FrameConnection worker : workers) {
+                worker.close();
+            }
+        }
+    }
+
+    /**
+     * Accepts every worker, assigns the partitions in connection order and waits until the workers are connected
+     * to each other
+     */
+    private void acceptWorkers(List<FrameConnection> workers) throws IOException {
+        server.configureBlocking(false);
+        long deadline = System.currentTimeMillis() + acceptTimeoutMillis;
+        List<String> peerAddresses = new ArrayList<>();
+        while (workers.size() < workerCount) {
+            SocketChannel channel = server.accept();
+            if (channel == null) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IOException("Only " + workers.size() + " of " + workerCount + " workers connected");
+                }
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for workers", e);
+                }
+                continue;
+            }
+            FrameConnection worker = new FrameConnection(channel);
+            workers.add(worker);
+            peerAddresses.add(worker.expect(FrameConnection.HELLO).readUTF());
+        }
+
+        for (int i = 0; i < workers.size(); i++) {
+            DataOutputStream payload = workers.get(i).begin();
+            payload.writeInt(i);
+            payload.writeInt(workers.size());
+            payload.writeUTF(networkFile.getPath());
+            for (String address : peerAddresses) {
+                payload.writeUTF(address);
+            }
+            workers.get(i).send(FrameConnection.ASSIGN);
+            workers.get(i).flush();
+        }
+        for (FrameConnection worker : workers) {
+            worker.expect(FrameConnection.READY);
+        }
+    }
+
+    private void addVehicle(List<FrameConnection> workers, int[] nodePartitions, Command command) throws IOException {
+        if (command.getIntersectionId() == null) {
+            throw new IllegalArgumentException("Vehicle " + command.getVehicleId() + " has no intersection");
+        }
+        int intersection = network.indexOf(command.getIntersectionId());
+        network.checkRoute(command.getVehicleId(), intersection, command.getRoute());
+        int handle = vehicleIds.register(command.getVehicleId());
+
+        FrameConnection worker = workers.get(nodePartitions[intersection]);
+        DataOutputStream payload = worker.begin();
+        payload.writeInt(handle);
+        payload.writeInt(intersection);
+        payload.writeByte(command.getStartRoad().ordinal());
+        NetworkWorker.writeRoute(payload, command.getRoute());
+        worker.send(FrameConnection.VEHICLE);
+    }
+
+    /**
+     * Sends the next step to every worker without waiting for any of them to execute it
+     */
+    private void step(List<FrameConnection> workers) throws IOException {
+        long step = ++stepCount;
+        for (FrameConnection worker : workers) {
+            worker.begin().writeLong(step);
+            worker.send(FrameConnection.STEP);
+            worker.flush();
+        }
+    }
+
+    /**
+     * Writes the steps every worker has reported, in step order with the vehicles of each step in partition order
+     *
+     * @param mustReach The step up to which the output is written even if that means waiting for the workers
+     */
+    private void writeReportedSteps(List<ExitReader> exitReaders, JsonStepStatusWriter writer,
+                                    StepStatus stepStatus, long mustReach) throws IOException {
+        while (writtenSteps < stepCount) {
+            long step = writtenSteps + 1;
+            if (step > mustReach) {
+                for (ExitReader exitReader : exitReaders) {
+                    if (exitReader.exits.isEmpty()) {
+                        return;
+                    }
+                }
+            }
+
+            stepStatus.clear();
+            for (ExitReader exitReader : exitReaders) {
+                int[] handles = exitReader.take(step);
+                for (int handle : handles) {
+                    stepStatus.addLeftVehicle(handle);
+                }
+            }
+            writer.write(stepStatus, vehicleIds);
+            for (int i = 0; i < stepStatus.getLeftVehicleCount(); i++) {
+                vehicleIds.release(stepStatus.getLeftVehicle(i));
+            }
+            writtenSteps = step;
+        }
+    }
+
+    /**
+     * Sets how long {@link #run} waits for all workers to connect
+     */
+    public void setAcceptTimeoutMillis(long acceptTimeoutMillis) {
+        this.acceptTimeoutMillis = acceptTimeoutMillis;
+    }
+
+    /**
+     * Sets how many steps may be sent to the workers that not all of them have reported yet
+     */
+    public void setMaxStepsAhead(int maxStepsAhead) {
+        if (maxStepsAhead < 1) {
+            throw new IllegalArgumentException("Steps ahead must be positive: " + maxStepsAhead);
+        }
+        this.maxStepsAhead = maxStepsAhead;
+    }
+
+    /**
+     * Sets how many steps are written to the output file between flushes
+     */
+    public void setOutputFlushInterval(int outputFlushInterval) {
+        if (outputFlushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + outputFlushInterval);
+        }
+        this.outputFlushInterval = outputFlushInterval;
+    }
+
+    public RoadNetwork getNetwork() {
+        return network;
+    }
+
+    public int getWorkerCount() {
+        return workerCount;
+    }
+
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    /**
+     * Returns the dictionary that resolves vehicle handles to their external ids
+     */
+    public VehicleIdDictionary getVehicleIds() {
+        return vehicleIds;
+    }
+
+    @Override
+    public void close() throws IOException {
+        SocketAddress address = server.getLocalAddress();
+        server.close();
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+        }
+    }
+
+    /**
+     * Connection to a worker whose exit reports are read by their own thread, so the coordinator can keep
+     * sending steps while the workers execute them
+     */
+    private final class ExitReader extends Thread {
+        private final int partition;
+        private final FrameConnection connection;
+        private final BlockingQueue<Exits> exits = new LinkedBlockingQueue<>();
+
+        private ExitReader(int partition, FrameConnection connection) {
+            super("network-exits-" + partition);
+            this.partition = partition;
+            this.connection = connection;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    DataInputStream frame = connection.expect(FrameConnection.EXITS);
+                    Exits report = new Exits();
+                    report.step = frame.readLong();
+                    report.handles = new int[frame.readInt()];
+                    for (int i = 0; i < report.handles.length; i++) {
+                        report.handles[i] = frame.readInt();
+                    }
+                    exits.add(report);
+                }
+            } catch (IOException e) {
+                if (!closing) {
+                    Exits report = new Exits();
+                    report.failure = e;
+                    exits.add(report);
+                }
+            }
+        }
+
+        /**
+         * Waits for the report of the given step
+         *
+         * @return The handles of the vehicles that left the network in the step
+         */
+        private int[] take(long step) throws IOException {
+            Exits report;
+            try {
+                report = exits.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for partition " + partition, e);
+            }
+            if (report.failure != null) {
+                throw new IOException("Connection to partition " + partition + " failed", report.failure);
+            }
+            if (report.step != step) {
+                throw new IOException("Expected exits of step " + step + " from partition " + partition
+                        + " but received " + report.step);
+            }
+            return report.handles;
+        }
+    }
+
+    /**
+     * Vehicles that left the network in one step of a worker, or the failure that ended its connection
+     */
+    private static final class Exits {
+        private long step;
+        private int[] handles;
+        private IOException failure;
+    }
+}
@@ -0,0 +1,50 @@
+package avs.simulation.network;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.Vehicle;
+import avs.simulation.model.VehicleQueues;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Simulation state of one intersection of a road network
+ */
+final class NetworkNode {
+    final int index;
+    final Intersection intersection;
+    final VehicleQueues queues = new VehicleQueues();
+    final StepStatus stepStatus = new StepStatus();
+    final List<Vehicle> departedVehicles = new ArrayList<>();
+
+    // Steps applied to the lights so far. Nodes without waiting vehicles are not stepped and catch up when needed.
+    long syncedSteps = 0;
+    boolean active = false;
+
+    NetworkNode(int index, Intersection.ControllerType controllerType) {
+        this.index = index;
+        this.intersection = new Intersection(controllerType);
+    }
+
+    /**
+     * Brings the lights of an idle node up to the given number of completed steps
+     */
+    void catchUp(long completedSteps) {
+        if (syncedSteps < completedSteps) {
+            intersection.advanceIdle(queues, completedSteps - syncedSteps);
+            syncedSteps = completedSteps;
+        }
+    }
+
+    /**
+     * Performs one step of this intersection, departed vehicles are left in {@link #departedVehicles}
+     */
+    void step() {
+        stepStatus.clear();
+        departedVehicles.clear();
+        intersection.update(queues);
+        intersection.processVehicles(queues, stepStatus, departedVehicles);
+        syncedSteps++;
+    }
+}
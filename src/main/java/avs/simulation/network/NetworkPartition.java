@@ -0,0 +1,246 @@
+package avs.simulation.network;
+
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.Vehicle;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A contiguous range of intersections stepped by one task.
+ * A partition only changes the state of its own nodes. Vehicles arriving from each partition wait in a separate
+ * inbox calendar that is read in a later step than it is written in, so partitions can be stepped concurrently
+ * without locks. How vehicles reach another partition is up to the {@link Outbox}: in a lockstep run the sources
+ * write into the inboxes directly, otherwise they are sent over channels or sockets and handed to
+ * {@link #accept} by the destination itself.
+ */
+final class NetworkPartition {
+    final int index;
+    private final NetworkNode[] nodes;
+    private final RoadNetwork network;
+    private final SimulationClock clock;
+    private final int[] nodePartitions; // Owning partition of every node, shared and read-only
+    private final TransitCalendar[] inboxes; // Vehicles on links from each partition, each written by one source
+    private Outbox outbox;
+
+    // Vehicles that left the network in the last step
+    final StepStatus exits = new StepStatus();
+
+    // Indices of the nodes with waiting vehicles in ascending order, plus those activated since the last step
+    private int[] activeNodes = new int[16];
+    private int activeCount = 0;
+    private int[] activatedNodes = new int[16];
+    private int activatedCount = 0;
+    private int[] mergeBuffer = new int[16];
+    private final int[] inboxPositions;
+
+    NetworkPartition(int index, NetworkNode[] nodes, RoadNetwork network,
+                     SimulationClock clock, int[] nodePartitions, int partitionCount) {
+        this.index = index;
+        this.nodes = nodes;
+        this.network = network;
+        this.clock = clock;
+        this.nodePartitions = nodePartitions;
+        this.inboxes = new TransitCalendar[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            inboxes[i] = new TransitCalendar(network.getMaxLinkDelay());
+        }
+        this.inboxPositions = new int[partitionCount];
+    }
+
+    /**
+     * Assigns the nodes to partitions of contiguous, equally sized index ranges
+     *
+     * @return The partition of every node
+     */
+    static int[] assign(int nodeCount, int partitionCount) {
+        int[] nodePartitions = new int[nodeCount];
+        for (int p = 0; p < partitionCount; p++) {
+            int first = (int) ((long) p * nodeCount / partitionCount);
+            int end = (int) ((long) (p + 1) * nodeCount / partitionCount);
+            Arrays.fill(nodePartitions, first, end, p);
+        }
+        return nodePartitions;
+    }
+
+    /**
+     * Connects the partition to all partitions of the simulation, including itself, in the same process
+     */
+    void connect(NetworkPartition[] partitions) {
+        this.outbox = (destination, vehicle, link, departureStep) ->
+                partitions[destination].accept(index, vehicle, link, departureStep);
+    }
+
+    /**
+     * Sends vehicles leaving towards other partitions through an outbox
+     */
+    void connect(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    NetworkNode getNode(int index) {
+        return nodes[index];
+    }
+
+    SimulationClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Puts a vehicle sent by a partition onto its link towards a node of this partition.
+     * Vehicles from one source must be accepted in the order they left.
+     */
+    void accept(int source, RoutedVehicle vehicle, Link link, long departureStep) {
+        inboxes[source].add(departureStep + link.getDelay(), vehicle, link, departureStep);
+    }
+
+    /**
+     * Returns the last step whose arrivals can be accepted before this partition advances
+     */
+    long getInboxHorizon() {
+        return clock.now() + inboxes[index].span();
+    }
+
+    /**
+     * Performs one step of every busy node of the partition: delivers arriving vehicles, steps the nodes
+     * and routes departed vehicles onto their links or into {@link #exits}
+     */
+    void step(long step) {
+        exits.clear();
+        deliverArrivals(step);
+        mergeActivatedNodes();
+
+        // Compute: every busy intersection moves its vehicles independently of the others
+        for (int i = 0; i < activeCount; i++) {
+            nodes[activeNodes[i]].step();
+        }
+
+        // Exchange: departed vehicles enter their links in intersection order, which keeps runs deterministic
+        int remaining = 0;
+        for (int i = 0; i < activeCount; i++) {
+            NetworkNode node = nodes[activeNodes[i]];
+            routeDepartures(node, step);
+            if (node.queues.totalSize() > 0) {
+                activeNodes[remaining++] = node.index;
+            } else {
+                node.active = false;
+            }
+        }
+        activeCount = remaining;
+    }
+
+    /**
+     * Delivers the vehicles arriving in a step from the inboxes of every partition.
+     * Vehicles are merged by departure step and then by partition, so they join the queues in the same order
+     * as in a run with a single partition.
+     */
+    private void deliverArrivals(long step) {
+        int sources = inboxes.length;
+        for (int source = 0; source < sources; source++) {
+            inboxPositions[source] = 0;
+        }
+        while (true) {
+            int next = -1;
+            long nextDeparture = Long.MAX_VALUE;
+            for (int source = 0; source < sources; source++) {
+                TransitCalendar.Bucket bucket = inboxes[source].arrivals(step);
+                int position = inboxPositions[source];
+                if (position < bucket.size() && bucket.getDepartureStep(position) < nextDeparture) {
+                    next = source;
+                    nextDeparture = bucket.getDepartureStep(position);
+                }
+            }
+            if (next < 0) {
+                break;
+            }
+            TransitCalendar.Bucket bucket = inboxes[next].arrivals(step);
+            int position = inboxPositions[next]++;
+            Link link = bucket.getLink(position);
+            enqueue(nodes[link.getTo()], bucket.getVehicle(position).nextHop(link.getApproach(), clock));
+        }
+        for (int source = 0; source < sources; source++) {
+            inboxes[source].arrivals(step).clear();
+        }
+    }
+
+    private void routeDepartures(NetworkNode node, long step) {
+        List<Vehicle> departed = node.departedVehicles;
+        for (int j = 0; j < departed.size(); j++) {
+            RoutedVehicle vehicle = (RoutedVehicle) departed.get(j);
+            if (vehicle.hasNextHop()) {
+                Link link = network.getLink(node.index, vehicle.getEndRoad());
+                send(nodePartitions[link.getTo()], vehicle, link, step);
+            } else {
+                exits.addLeftVehicle(vehicle.getHandle());
+            }
+        }
+    }
+
+    private void send(int destination, RoutedVehicle vehicle, Link link, long step) {
+        if (destination == index) {
+            accept(index, vehicle, link, step);
+        } else {
+            outbox.send(destination, vehicle, link, step);
+        }
+    }
+
+    /**
+     * Adds a vehicle to the queue of a node of this partition
+     */
+    void enqueue(NetworkNode node, RoutedVehicle vehicle) {
+        if (!node.active) {
+            // The lights of an idle intersection are only brought up to date when it gets busy again
+            node.catchUp(clock.now());
+            node.active = true;
+            if (activatedCount == activatedNodes.length) {
+                activatedNodes = Arrays.copyOf(activatedNodes, activatedCount * 2);
+            }
+            activatedNodes[activatedCount++] = node.index;
+        }
+        node.queues.add(vehicle);
+    }
+
+    /**
+     * Merges the newly activated nodes into the sorted list of busy ones
+     */
+    private void mergeActivatedNodes() {
+        if (activatedCount == 0) {
+            return;
+        }
+        Arrays.sort(activatedNodes, 0, activatedCount);
+        int total = activeCount + activatedCount;
+        if (mergeBuffer.length < total) {
+            mergeBuffer = new int[Math.max(total, mergeBuffer.length * 2)];
+        }
+        int a = 0;
+        int b = 0;
+        int out = 0;
+        while (a < activeCount || b < activatedCount) {
+            if (b == activatedCount || (a < activeCount && activeNodes[a] < activatedNodes[b])) {
+                mergeBuffer[out++] = activeNodes[a++];
+            } else {
+                mergeBuffer[out++] = activatedNodes[b++];
+            }
+        }
+        int[] merged = mergeBuffer;
+        mergeBuffer = activeNodes;
+        activeNodes = merged;
+        activeCount = total;
+        activatedCount = 0;
+    }
+
+    /**
+     * Returns the number of nodes of the partition with waiting vehicles
+     */
+    int getActiveNodeCount() {
+        return activeCount + activatedCount;
+    }
+
+    /**
+     * Receives the vehicles leaving this partition towards another one
+     */
+    interface Outbox {
+        void send(int destination, RoutedVehicle vehicle, Link link, long departureStep);
+    }
+}
@@ -0,0 +1,256 @@
+package avs.simulation.network;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.VehicleIdDictionary;
+import avs.simulation.util.Command;
+import avs.simulation.util.CommandReader;
+import avs.simulation.util.JsonStepStatusWriter;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Simulates every intersection of a road network in lockstep.
+ * A vehicle leaving an intersection travels along the link of its exit and joins the downstream approach
+ * queue once the link delay has passed. It leaves the network after crossing the last intersection of its route.
+ * <p>
+ * Only intersections with waiting vehicles are stepped. Idle intersections fall behind and fast-forward their
+ * lights when a vehicle arrives, so a step costs time proportional to the busy part of the network.
+ * <p>
+ * Given a {@link ForkJoinPool}, the intersections are split into contiguous partitions that are stepped in
+ * parallel. Vehicles cross between partitions only through link calendars read in a later step than they are
+ * written in, so no locks are taken inside a step and the output is identical to a sequential run.
+ */
+public class NetworkSimulation {
+    private final RoadNetwork network;
+    private final NetworkNode[] nodes;
+    private final NetworkPartition[] partitions;
+    private final int[] nodePartitions;
+    private final ForkJoinPool pool;
+    private final StepAction stepAction;
+    private final SimulationClock clock = new SimulationClock();
+    private final VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+    private final StepStatus stepStatus = new StepStatus(); // Vehicles leaving the network, reused by every step
+
+    private long vehiclesInNetwork = 0;
+    private int outputFlushInterval = JsonStepStatusWriter.DEFAULT_FLUSH_INTERVAL;
+
+    /**
+     * Creates a simulation stepping every intersection on the calling thread
+     */
+    public NetworkSimulation(RoadNetwork network) {
+        this(network, null, 1);
+    }
+
+    /**
+     * Creates a simulation stepping one partition per worker of the pool
+     */
+    public NetworkSimulation(RoadNetwork network, ForkJoinPool pool) {
+        this(network, pool, pool.getParallelism());
+    }
+
+    /**
+     * @param pool The pool stepping the partitions, or null to step them on the calling thread
+     * @param partitionCount Number of partitions, capped at the number of intersections
+     */
+    public NetworkSimulation(RoadNetwork network, ForkJoinPool pool, int partitionCount) {
+        if (partitionCount < 1) {
+            throw new IllegalArgumentException("Partition count must be positive: " + partitionCount);
+        }
+        this.network = network;
+        this.pool = pool;
+        this.nodes = new NetworkNode[network.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = new NetworkNode(i, network.getControllerType(i));
+        }
+
+        int count = Math.max(1, Math.min(partitionCount, nodes.length));
+        this.nodePartitions = NetworkPartition.assign(nodes.length, count);
+        this.partitions = new NetworkPartition[count];
+        for (int p = 0; p < count; p++) {
+            partitions[p] = new NetworkPartition(p, nodes, network, clock, nodePartitions, count);
+        }
+        for (NetworkPartition partition : partitions) {
+            partition.connect(partitions);
+        }
+        this.stepAction = pool != null && count > 1 ? new StepAction() : null;
+    }
+
+    /**
+     * Executes every network command of the reader and writes the vehicles leaving the network in each step
+     * to the output file. The reader is closed when the run ends.
+     */
+    public void run(CommandReader commandReader, String outputFile) throws IOException {
+        try (CommandReader reader = commandReader;
+             JsonStepStatusWriter writer = new JsonStepStatusWriter(new File(outputFile), outputFlushInterval)) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                if (command.getType() == Command.CommandType.STEP) {
+                    writer.write(performStep(), vehicleIds);
+                } else {
+                    if (command.getIntersectionId() == null) {
+                        throw new IllegalArgumentException("Vehicle " + command.getVehicleId() + " has no intersection");
+                    }
+                    addVehicle(command.getVehicleId(), network.indexOf(command.getIntersectionId()),
+                            command.getStartRoad(), command.getRoute());
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a vehicle to an approach queue of an intersection
+     *
+     * @param intersection The index of the intersection
+     * @param route The exit taken at each intersection of the route, every exit but the last must be linked
+     * @return The handle assigned to the vehicle id
+     */
+    public int addVehicle(String vehicleId, int intersection, TrafficLight.Direction startRoad,
+                          TrafficLight.Direction[] route) {
+        network.checkRoute(vehicleId, intersection, route);
+        int handle = vehicleIds.register(vehicleId);
+        partitions[nodePartitions[intersection]].enqueue(nodes[intersection],
+                new RoutedVehicle(handle, vehicleId, startRoad, route, 0, clock));
+        vehiclesInNetwork++;
+        return handle;
+    }
+
+    /**
+     * Advances every intersection by one step.
+     * The returned status lists the vehicles that left the network and is reused by the next step.
+     */
+    public StepStatus performStep() {
+        releaseVehicleIds();
+        stepStatus.clear();
+        long step = clock.now() + 1;
+
+        if (stepAction != null) {
+            stepAction.step = step;
+            stepAction.reinitialize();
+            pool.invoke(stepAction);
+        } else {
+            for (NetworkPartition partition : partitions) {
+                partition.step(step);
+            }
+        }
+
+        // Partitions cover ascending node ranges, so concatenating their exits keeps the intersection order
+        for (NetworkPartition partition : partitions) {
+            StepStatus exits = partition.exits;
+            for (int i = 0; i < exits.getLeftVehicleCount(); i++) {
+                stepStatus.addLeftVehicle(exits.getLeftVehicle(i));
+            }
+            vehiclesInNetwork -= exits.getLeftVehicleCount();
+        }
+
+        clock.advance();
+        return stepStatus;
+    }
+
+    private void releaseVehicleIds() {
+        for (int i = 0; i < stepStatus.getLeftVehicleCount(); i++) {
+            vehicleIds.release(stepStatus.getLeftVehicle(i));
+        }
+    }
+
+    /**
+     * Sets how many steps are written to the output file between flushes
+     */
+    public void setOutputFlushInterval(int outputFlushInterval) {
+        if (outputFlushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + outputFlushInterval);
+        }
+        this.outputFlushInterval = outputFlushInterval;
+    }
+
+    public RoadNetwork getNetwork() {
+        return network;
+    }
+
+    public long getStepCount() {
+        return clock.now();
+    }
+
+    /**
+     * Returns the dictionary that resolves vehicle handles to their external ids
+     */
+    public VehicleIdDictionary getVehicleIds() {
+        return vehicleIds;
+    }
+
+    /**
+     * Returns the number of vehicles waiting at intersections or travelling on links
+     */
+    public long getVehiclesInNetwork() {
+        return vehiclesInNetwork;
+    }
+
+    /**
+     * Returns the number of vehicles waiting on an approach of an intersection
+     */
+    public int getQueueLength(int intersection, TrafficLight.Direction direction) {
+        return nodes[intersection].queues.size(direction);
+    }
+
+    /**
+     * Returns the number of intersections with waiting vehicles
+     */
+    public int getActiveIntersectionCount() {
+        int count = 0;
+        for (NetworkPartition partition : partitions) {
+            count += partition.getActiveNodeCount();
+        }
+        return count;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    /**
+     * Steps every partition as one fork-join task, reused by every step.
+     * Fork-join tasks are serializable, these ones are never serialized.
+     */
+    private final class StepAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient PartitionAction[] actions;
+        private long step;
+
+        private StepAction() {
+            actions = new PartitionAction[partitions.length];
+            for (int i = 0; i < actions.length; i++) {
+                actions[i] = new PartitionAction(partitions[i]);
+            }
+        }
+
+        @Override
+        protected void compute() {
+            for (PartitionAction action : actions) {
+                action.step = step;
+                action.reinitialize();
+            }
+            invokeAll(actions);
+        }
+    }
+
+    private static final class PartitionAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient NetworkPartition partition;
+        private long step;
+
+        private PartitionAction(NetworkPartition partition) {
+            this.partition = partition;
+        }
+
+        @Override
+        protected void compute() {
+            partition.step(step);
+        }
+    }
+}
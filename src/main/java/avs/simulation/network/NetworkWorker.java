@@ -0,0 +1,365 @@
+package avs.simulation.network;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.StepStatus;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.SocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Process owning one partition of a distributed road network run, see {@link NetworkCoordinator}.
+ * The worker steps its intersections whenever the coordinator sends a step. Before step s it waits for the
+ * boundary frame of step s - 1 from every upstream worker, and after the step it sends one boundary frame to
+ * every downstream worker, even an empty one. Boundary frames are read by one thread per upstream worker,
+ * so a worker never blocks its neighbours while they are sending.
+ */
+public class NetworkWorker implements NetworkPartition.Outbox, Closeable {
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    private final ServerSocketChannel peerServer;
+    private final FrameConnection coordinator;
+    private final SimulationClock clock = new SimulationClock();
+    private final List<FrameConnection> connections = new ArrayList<>();
+    private RoadNetwork network;
+    private NetworkPartition partition;
+    private Downstream[] downstream; // By destination partition, null where no link leads there
+    private final List<Upstream> upstream = new ArrayList<>(); // Ascending by source partition
+    private volatile boolean closing = false;
+
+    private NetworkWorker(SocketAddress coordinatorAddress) throws IOException {
+        this.peerServer = Endpoint.listenLike(coordinatorAddress);
+        this.coordinator = new FrameConnection(Endpoint.connect(coordinatorAddress));
+        connections.add(coordinator);
+    }
+
+    /**
+     * Connects to a coordinator, executes its commands until it shuts the run down and then disconnects
+     */
+    public static void run(SocketAddress coordinatorAddress) throws IOException {
+        try (NetworkWorker worker = new NetworkWorker(coordinatorAddress)) {
+            worker.join();
+            worker.serve();
+        }
+    }
+
+    /**
+     * Starts a worker process, the only argument is the address of the coordinator
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.err.println("Usage: NetworkWorker <tcp:host:port|unix:path>");
+            System.exit(2);
+        }
+        try {
+            run(Endpoint.parse(args[0]));
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Network worker failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Registers with the coordinator, loads the network and connects to the neighbouring workers
+     */
+    private void join() throws IOException {
+        coordinator.begin().writeUTF(Endpoint.format(peerServer.getLocalAddress()));
+        coordinator.send(FrameConnection.HELLO);
+        coordinator.flush();
+
+        DataInputStream assignment = coordinator.expect(FrameConnection.ASSIGN);
+        int index = assignment.readInt();
+        int partitionCount = assignment.readInt();
+        String networkFile = assignment.readUTF();
+        String[] addresses = new String[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            addresses[i] = assignment.readUTF();
+        }
+
+        network = RoadNetworkLoader.load(new File(networkFile));
+        int[] nodePartitions = NetworkPartition.assign(network.size(), partitionCount);
+        NetworkNode[] nodes = new NetworkNode[network.size()];
+        for (int i = 0; i < nodes.length; i++) {
+            // Only the intersections of this worker hold any state
+            if (nodePartitions[i] == index) {
+                nodes[i] = new NetworkNode(i, network.getControllerType(i));
+            }
+        }
+        partition = new NetworkPartition(index, nodes, network, clock, nodePartitions, partitionCount);
+        partition.connect(this);
+
+        boolean[] hasDownstream = new boolean[partitionCount];
+        int upstreamCount = 0;
+        boolean[] hasUpstream = new boolean[partitionCount];
+        for (Link link : network.getLinks()) {
+            int source = nodePartitions[link.getFrom()];
+            int destination = nodePartitions[link.getTo()];
+            if (source == index && destination != index) {
+                hasDownstream[destination] = true;
+            } else if (destination == index && source != index && !hasUpstream[source]) {
+                hasUpstream[source] = true;
+                upstreamCount++;
+            }
+        }
+
+        downstream = new Downstream[partitionCount];
+        for (int destination = 0; destination < partitionCount; destination++) {
+            if (hasDownstream[destination]) {
+                FrameConnection connection = new FrameConnection(Endpoint.connect(Endpoint.parse(addresses[destination])));
+                connections.add(connection);
+                connection.begin().writeInt(index);
+                connection.send(FrameConnection.PEER);
+                connection.flush();
+                downstream[destination] = new Downstream(connection);
+            }
+        }
+
+        Upstream[] bySource = new Upstream[partitionCount];
+        for (int i = 0; i < upstreamCount; i++) {
+            FrameConnection connection = new FrameConnection(peerServer.accept());
+            connections.add(connection);
+            int source = connection.expect(FrameConnection.PEER).readInt();
+            if (source < 0 || source >= partitionCount || !hasUpstream[source] || bySource[source] != null) {
+                throw new IOException("Unexpected peer: " + source);
+            }
+            bySource[source] = new Upstream(source, connection);
+        }
+        for (Upstream peer : bySource) {
+            if (peer != null) {
+                upstream.add(peer);
+                peer.start();
+            }
+        }
+
+        coordinator.begin();
+        coordinator.send(FrameConnection.READY);
+        coordinator.flush();
+    }
+
+    /**
+     * Executes the frames of the coordinator until it shuts the run down
+     */
+    private void serve() throws IOException {
+        while (true) {
+            DataInputStream frame = coordinator.receive();
+            switch (coordinator.type()) {
+                case FrameConnection.VEHICLE -> {
+                    int handle = frame.readInt();
+                    int intersection = frame.readInt();
+                    TrafficLight.Direction startRoad = DIRECTIONS[frame.readByte()];
+                    TrafficLight.Direction[] route = readRoute(frame);
+                    partition.enqueue(partition.getNode(intersection),
+                            new RoutedVehicle(handle, startRoad, route, 0, clock));
+                }
+                case FrameConnection.STEP -> step(frame.readLong());
+                case FrameConnection.SHUTDOWN -> {
+                    return;
+                }
+                default -> throw new IOException("Unexpected frame from the coordinator: " + coordinator.type());
+            }
+        }
+    }
+
+    private void step(long step) throws IOException {
+        if (step != clock.now() + 1) {
+            throw new IOException("Expected step " + (clock.now() + 1) + " but received " + step);
+        }
+        if (step > 1) {
+            for (Upstream peer : upstream) {
+                receiveBoundary(peer, step - 1);
+            }
+        }
+
+        partition.step(step);
+        clock.advance();
+
+        for (Downstream peer : downstream) {
+            if (peer != null) {
+                peer.sendBoundary(step);
+            }
+        }
+        StepStatus exits = partition.exits;
+        DataOutputStream payload = coordinator.begin();
+        payload.writeLong(step);
+        payload.writeInt(exits.getLeftVehicleCount());
+        for (int i = 0; i < exits.getLeftVehicleCount(); i++) {
+            payload.writeInt(exits.getLeftVehicle(i));
+        }
+        coordinator.send(FrameConnection.EXITS);
+        coordinator.flush();
+    }
+
+    private void receiveBoundary(Upstream peer, long step) throws IOException {
+        Boundary boundary;
+        try {
+            boundary = peer.boundaries.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for partition " + peer.source, e);
+        }
+        if (boundary.failure != null) {
+            throw new IOException("Connection to partition " + peer.source + " failed", boundary.failure);
+        }
+        if (boundary.step != step) {
+            throw new IOException("Expected boundary of step " + step + " from partition " + peer.source
+                    + " but received " + boundary.step);
+        }
+        for (int i = 0; i < boundary.handles.length; i++) {
+            RoutedVehicle vehicle = new RoutedVehicle(boundary.handles[i], DIRECTIONS[boundary.startRoads[i]],
+                    boundary.routes[i], boundary.hops[i], clock);
+            partition.accept(peer.source, vehicle, network.getLinks().get(boundary.links[i]), step);
+        }
+    }
+
+    @Override
+    public void send(int destination, RoutedVehicle vehicle, Link link, long departureStep) {
+        Downstream peer = downstream[destination];
+        peer.vehicles.add(vehicle);
+        peer.links.add(link);
+    }
+
+    private static TrafficLight.Direction[] readRoute(DataInputStream frame) throws IOException {
+        TrafficLight.Direction[] route = new TrafficLight.Direction[frame.readShort()];
+        for (int i = 0; i < route.length; i++) {
+            route[i] = DIRECTIONS[frame.readByte()];
+        }
+        return route;
+    }
+
+    static void writeRoute(DataOutputStream payload, TrafficLight.Direction[] route) throws IOException {
+        payload.writeShort(route.length);
+        for (TrafficLight.Direction exit : route) {
+            payload.writeByte(exit.ordinal());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closing = true;
+        IOException failure = null;
+        for (FrameConnection connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        SocketAddress peerAddress = peerServer.getLocalAddress();
+        peerServer.close();
+        if (peerAddress instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Connection to a downstream worker and the vehicles leaving towards it in the current step
+     */
+    private final class Downstream {
+        private final FrameConnection connection;
+        private final List<RoutedVehicle> vehicles = new ArrayList<>();
+        private final List<Link> links = new ArrayList<>();
+
+        private Downstream(FrameConnection connection) {
+            this.connection = connection;
+        }
+
+        private void sendBoundary(long step) throws IOException {
+            DataOutputStream payload = connection.begin();
+            payload.writeLong(step);
+            payload.writeInt(vehicles.size());
+            for (int i = 0; i < vehicles.size(); i++) {
+                RoutedVehicle vehicle = vehicles.get(i);
+                payload.writeInt(vehicle.getHandle());
+                payload.writeInt(links.get(i).getIndex());
+                payload.writeByte(vehicle.getStartRoad().ordinal());
+                payload.writeShort(vehicle.getHop());
+                writeRoute(payload, vehicle.getRoute());
+            }
+            connection.send(FrameConnection.BOUNDARY);
+            connection.flush();
+            vehicles.clear();
+            links.clear();
+        }
+    }
+
+    /**
+     * Connection to an upstream worker, read by its own thread
+     */
+    private final class Upstream extends Thread {
+        private final int source;
+        private final FrameConnection connection;
+        private final BlockingQueue<Boundary> boundaries = new LinkedBlockingQueue<>();
+
+        private Upstream(int source, FrameConnection connection) {
+            super("network-peer-" + source);
+            this.source = source;
+            this.connection = connection;
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    boundaries.add(Boundary.read(connection.expect(FrameConnection.BOUNDARY)));
+                }
+            } catch (IOException e) {
+                if (!closing) {
+                    boundaries.add(Boundary.failed(e));
+                }
+            }
+        }
+    }
+
+    /**
+     * Vehicles that left an upstream worker towards this one in one step, decoded by the reading thread
+     */
+    private static final class Boundary {
+        private long step;
+        private int[] handles;
+        private int[] links;
+        private byte[] startRoads;
+        private int[] hops;
+        private TrafficLight.Direction[][] routes;
+        private IOException failure;
+
+        private static Boundary read(DataInputStream frame) throws IOException {
+            Boundary boundary = new Boundary();
+            boundary.step = frame.readLong();
+            int count = frame.readInt();
+            boundary.handles = new int[count];
+            boundary.links = new int[count];
+            boundary.startRoads = new byte[count];
+            boundary.hops = new int[count];
+            boundary.routes = new TrafficLight.Direction[count][];
+            for (int i = 0; i < count; i++) {
+                boundary.handles[i] = frame.readInt();
+                boundary.links[i] = frame.readInt();
+                boundary.startRoads[i] = frame.readByte();
+                boundary.hops[i] = frame.readShort();
+                boundary.routes[i] = readRoute(frame);
+            }
+            return boundary;
+        }
+
+        private static Boundary failed(IOException failure) {
+            Boundary boundary = new Boundary();
+            boundary.failure = failure;
+            return boundary;
+        }
+    }
+}
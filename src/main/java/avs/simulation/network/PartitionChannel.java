@@ -0,0 +1,98 @@
+package avs.simulation.network;
+
+import avs.simulation.util.SpscQueue;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Carries vehicles from one partition to another in a conservative parallel run.
+ * Besides the vehicles, the source publishes how many steps it has completed, which plays the role of a
+ * null message: every vehicle it sends later leaves in a later step and so arrives at least
+ * {@link #lookahead} steps after that. The destination can safely execute steps up to {@link #getSafeStep()}.
+ */
+final class PartitionChannel {
+    final int source;
+    final int destination;
+    final int lookahead; // Shortest delay of the links from the source to the destination
+
+    private final SpscQueue<Transfer> transfers;
+    private final AtomicLong completedSteps = new AtomicLong();
+
+    PartitionChannel(int source, int destination, int lookahead, int capacity) {
+        this.source = source;
+        this.destination = destination;
+        this.lookahead = lookahead;
+        this.transfers = new SpscQueue<>(capacity);
+    }
+
+    /**
+     * Sends a vehicle that left the source in the given step. Must only be called by the source.
+     *
+     * @return false if the channel is full
+     */
+    boolean offer(RoutedVehicle vehicle, Link link, long departureStep) {
+        return transfers.offer(new Transfer(vehicle, link, departureStep));
+    }
+
+    /**
+     * Returns the next vehicle in departure order without taking it. Must only be called by the destination.
+     *
+     * @return The vehicle, or null if none is waiting
+     */
+    Transfer peek() {
+        return transfers.peek();
+    }
+
+    /**
+     * Takes the next vehicle in departure order. Must only be called by the destination.
+     *
+     * @return The vehicle, or null if none is waiting
+     */
+    Transfer poll() {
+        return transfers.poll();
+    }
+
+    /**
+     * Announces that the source has completed a number of steps and sent every vehicle that left in them
+     */
+    void publish(long steps) {
+        completedSteps.lazySet(steps);
+    }
+
+    /**
+     * Returns the last step the destination can execute without missing a vehicle from the source
+     */
+    long getSafeStep() {
+        return completedSteps.get() + lookahead;
+    }
+
+    /**
+     * Waits briefly before a thread retries an operation on a channel
+     *
+     * @param attempt Number of retries so far, later retries give up the processor
+     * @throws CancellationException If the waiting thread was interrupted
+     */
+    static void backOff(int attempt) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Partition thread was cancelled");
+        }
+        if (attempt < 100) {
+            Thread.onSpinWait();
+        } else {
+            Thread.yield();
+        }
+    }
+
+    static final class Transfer {
+        final RoutedVehicle vehicle;
+        final Link link;
+        final long departureStep;
+
+        private Transfer(RoutedVehicle vehicle, Link link, long departureStep) {
+            this.vehicle = vehicle;
+            this.link = link;
+            this.departureStep = departureStep;
+        }
+    }
+}
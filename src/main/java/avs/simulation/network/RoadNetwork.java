@@ -0,0 +1,166 @@
+package avs.simulation.network;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Topology of a road network: intersections identified by index and connected by directed links.
+ * The network holds no simulation state, so one instance can be shared by any number of runs.
+ */
+public class RoadNetwork {
+    private static final int EXITS = TrafficLight.Direction.values().length;
+
+    private final List<String> ids = new ArrayList<>();
+    private final List<Intersection.ControllerType> controllerTypes = new ArrayList<>();
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private final List<Link> links = new ArrayList<>();
+    private Link[] linkByExit = new Link[16 * EXITS]; // Indexed by intersection * 4 + exit ordinal
+    private int maxLinkDelay = 1;
+
+    /**
+     * Adds an intersection
+     *
+     * @return The index of the new intersection
+     */
+    public int addIntersection(String id, Intersection.ControllerType controllerType) {
+        if (indexById.containsKey(id)) {
+            throw new IllegalArgumentException("Duplicate intersection id: " + id);
+        }
+        int index = ids.size();
+        ids.add(id);
+        controllerTypes.add(controllerType);
+        indexById.put(id, index);
+        if ((index + 1) * EXITS > linkByExit.length) {
+            linkByExit = Arrays.copyOf(linkByExit, linkByExit.length * 2);
+        }
+        return index;
+    }
+
+    /**
+     * Connects an exit of one intersection to an approach of another, every exit has at most one link
+     *
+     * @param delay Number of steps a vehicle spends on the link, at least 1
+     */
+    public Link addLink(int from, TrafficLight.Direction exit, int to, TrafficLight.Direction approach, int delay) {
+        checkIndex(from);
+        checkIndex(to);
+        if (delay < 1) {
+            throw new IllegalArgumentException("Link delay must be positive: " + delay);
+        }
+        if (linkByExit[from * EXITS + exit.ordinal()] != null) {
+            throw new IllegalArgumentException("Exit " + exit + " of " + ids.get(from) + " is already linked");
+        }
+        Link link = new Link(links.size(), from, exit, to, approach, delay);
+        linkByExit[from * EXITS + exit.ordinal()] = link;
+        links.add(link);
+        maxLinkDelay = Math.max(maxLinkDelay, delay);
+        return link;
+    }
+
+    /**
+     * Builds a grid with rows numbered from north to south and columns from west to east.
+     * Neighbouring intersections are linked in both directions and named "r{row}c{column}".
+     */
+    public static RoadNetwork grid(int rows, int columns, int linkDelay, Intersection.ControllerType controllerType) {
+        if (rows < 1 || columns < 1) {
+            throw new IllegalArgumentException("Grid must have at least one row and column: " + rows + "x" + columns);
+        }
+        RoadNetwork network = new RoadNetwork();
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                network.addIntersection(gridId(row, column), controllerType);
+            }
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int index = row * columns + column;
+                if (column + 1 < columns) {
+                    network.addLink(index, TrafficLight.Direction.EAST, index + 1, TrafficLight.Direction.WEST, linkDelay);
+                    network.addLink(index + 1, TrafficLight.Direction.WEST, index, TrafficLight.Direction.EAST, linkDelay);
+                }
+                if (row + 1 < rows) {
+                    network.addLink(index, TrafficLight.Direction.SOUTH, index + columns, TrafficLight.Direction.NORTH, linkDelay);
+                    network.addLink(index + columns, TrafficLight.Direction.NORTH, index, TrafficLight.Direction.SOUTH, linkDelay);
+                }
+            }
+        }
+        return network;
+    }
+
+    public static String gridId(int row, int column) {
+        return "r" + row + "c" + column;
+    }
+
+    /**
+     * Returns the number of intersections
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    public int indexOf(String id) {
+        Integer index = indexById.get(id);
+        if (index == null) {
+            throw new IllegalArgumentException("Unknown intersection: " + id);
+        }
+        return index;
+    }
+
+    public String getId(int index) {
+        return ids.get(index);
+    }
+
+    public Intersection.ControllerType getControllerType(int index) {
+        return controllerTypes.get(index);
+    }
+
+    /**
+     * Returns the link leaving an intersection through an exit, or null if the exit leaves the network
+     */
+    public Link getLink(int from, TrafficLight.Direction exit) {
+        return linkByExit[from * EXITS + exit.ordinal()];
+    }
+
+    /**
+     * Checks that every exit of a route but the last one is linked
+     *
+     * @param intersection The index of the first intersection of the route
+     * @throws IllegalArgumentException If the route is empty or leaves the network early
+     */
+    public void checkRoute(String vehicleId, int intersection, TrafficLight.Direction[] route) {
+        checkIndex(intersection);
+        if (route.length == 0) {
+            throw new IllegalArgumentException("Vehicle " + vehicleId + " has an empty route");
+        }
+        int node = intersection;
+        for (int hop = 0; hop + 1 < route.length; hop++) {
+            Link link = getLink(node, route[hop]);
+            if (link == null) {
+                throw new IllegalArgumentException("Route of vehicle " + vehicleId + " leaves the network at "
+                        + ids.get(node) + " through " + route[hop]);
+            }
+            node = link.getTo();
+        }
+    }
+
+    public List<Link> getLinks() {
+        return Collections.unmodifiableList(links);
+    }
+
+    public int getMaxLinkDelay() {
+        return maxLinkDelay;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= ids.size()) {
+            throw new IllegalArgumentException("Unknown intersection index: " + index);
+        }
+    }
+}
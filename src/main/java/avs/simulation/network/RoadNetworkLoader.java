@@ -0,0 +1,99 @@
+package avs.simulation.network;
+
+import avs.simulation.UI.utils.DirectionUtils;
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.util.JsonCommandReader;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Reads a road network description from JSON. The description is either a generated grid:
+ * <pre>
+ * {"grid": {"rows": 100, "columns": 100, "linkDelay": 3, "controllerType": "opposing"}}
+ * </pre>
+ * or an explicit graph, where the approach defaults to the road opposite the exit and the delay to 1:
+ * <pre>
+ * {"intersections": [{"id": "A", "controllerType": "standard"}, {"id": "B"}],
+ *  "links": [{"from": "A", "exit": "east", "to": "B", "approach": "west", "delay": 2}]}
+ * </pre>
+ * It may also be the "network" field of a scenario file, whose "commands" array is then left for a command reader.
+ */
+public class RoadNetworkLoader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /**
+     * Reads the network of a scenario or network file, without reading any commands
+     */
+    public static RoadNetwork load(File file) throws IOException {
+        ObjectNode description = MAPPER.createObjectNode();
+        try (JsonParser parser = MAPPER.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object at the start of the input");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                parser.nextToken();
+                switch (fieldName) {
+                    case "network" -> {
+                        return fromJson(MAPPER.readTree(parser));
+                    }
+                    case "grid", "intersections", "links" -> description.set(fieldName, MAPPER.readTree(parser));
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return fromJson(description);
+    }
+
+    /**
+     * Builds a network from a parsed description
+     */
+    public static RoadNetwork fromJson(JsonNode description) throws IOException {
+        JsonNode grid = description.get("grid");
+        if (grid != null) {
+            return RoadNetwork.grid(
+                    grid.path("rows").asInt(),
+                    grid.path("columns").asInt(),
+                    grid.path("linkDelay").asInt(1),
+                    parseControllerType(grid.get("controllerType")));
+        }
+
+        JsonNode intersections = description.get("intersections");
+        if (intersections == null || !intersections.isArray()) {
+            throw new IOException("Network description has neither a \"grid\" nor an \"intersections\" array");
+        }
+        RoadNetwork network = new RoadNetwork();
+        for (JsonNode intersection : intersections) {
+            network.addIntersection(requiredText(intersection, "id"),
+                    parseControllerType(intersection.get("controllerType")));
+        }
+        for (JsonNode link : description.path("links")) {
+            TrafficLight.Direction exit = JsonCommandReader.parseDirection(requiredText(link, "exit"));
+            TrafficLight.Direction approach = link.has("approach")
+                    ? JsonCommandReader.parseDirection(link.get("approach").asText())
+                    : DirectionUtils.getOpposingDirection(exit);
+            network.addLink(network.indexOf(requiredText(link, "from")), exit,
+                    network.indexOf(requiredText(link, "to")), approach, link.path("delay").asInt(1));
+        }
+        return network;
+    }
+
+    private static String requiredText(JsonNode node, String field) throws IOException {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isTextual()) {
+            throw new IOException("Missing \"" + field + "\" in " + node);
+        }
+        return value.asText();
+    }
+
+    private static Intersection.ControllerType parseControllerType(JsonNode type) {
+        return type == null ? Intersection.ControllerType.STANDARD : Intersection.ControllerType.parse(type.asText());
+    }
+}
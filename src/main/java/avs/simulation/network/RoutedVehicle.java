@@ -0,0 +1,58 @@
+package avs.simulation.network;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.Vehicle;
+
+/**
+ * Vehicle crossing several intersections of a road network.
+ * Each instance represents one hop of the route; the next hop is a new instance with the same handle.
+ */
+public class RoutedVehicle extends Vehicle {
+    private final TrafficLight.Direction[] route;
+    private final int hop;
+
+    /**
+     * @param route The exit taken at each intersection of the route
+     * @param hop The position in the route of the intersection the vehicle is waiting at
+     */
+    public RoutedVehicle(int handle, TrafficLight.Direction startRoad, TrafficLight.Direction[] route, int hop,
+                         SimulationClock clock) {
+        this(handle, null, startRoad, route, hop, clock);
+    }
+
+    /**
+     * @param vehicleId The external vehicle id, for display only; workers of a distributed run only know handles
+     */
+    public RoutedVehicle(int handle, String vehicleId, TrafficLight.Direction startRoad,
+                         TrafficLight.Direction[] route, int hop, SimulationClock clock) {
+        super(handle, vehicleId, startRoad, route[hop], clock);
+        this.route = route;
+        this.hop = hop;
+    }
+
+    TrafficLight.Direction[] getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns the position in the route of the intersection the vehicle is waiting at
+     */
+    int getHop() {
+        return hop;
+    }
+
+    /**
+     * Returns true if the vehicle crosses another intersection after this one
+     */
+    public boolean hasNextHop() {
+        return hop + 1 < route.length;
+    }
+
+    /**
+     * Returns the vehicle as it joins the queue of the next intersection of its route
+     */
+    public RoutedVehicle nextHop(TrafficLight.Direction approach, SimulationClock clock) {
+        return new RoutedVehicle(getHandle(), getVehicleId(), approach, route, hop + 1, clock);
+    }
+}
@@ -0,0 +1,84 @@
+package avs.simulation.network;
+
+import java.util.Arrays;
+
+/**
+ * Vehicles travelling on links, bucketed by the step they arrive in.
+ * Link delays are bounded, so a ring of buckets one longer than the longest delay covers every pending arrival.
+ * Within a bucket vehicles keep the order they were added in.
+ * <p>
+ * Link delays are at least one step, so the bucket read in a step is never one that is written in the same step.
+ * The ring therefore works as a double buffer: one thread may add departures while another delivers arrivals.
+ */
+final class TransitCalendar {
+    private final Bucket[] buckets;
+
+    TransitCalendar(int maxDelay) {
+        buckets = new Bucket[maxDelay + 1];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new Bucket();
+        }
+    }
+
+    void add(long arrivalStep, RoutedVehicle vehicle, Link link, long departureStep) {
+        buckets[(int) (arrivalStep % buckets.length)].add(vehicle, link, departureStep);
+    }
+
+    /**
+     * Returns the vehicles arriving in a step. The caller must {@link Bucket#clear()} it once they are delivered.
+     */
+    Bucket arrivals(long step) {
+        return buckets[(int) (step % buckets.length)];
+    }
+
+    /**
+     * Returns the number of consecutive steps whose arrivals can be held at once
+     */
+    int span() {
+        return buckets.length;
+    }
+
+    static final class Bucket {
+        private RoutedVehicle[] vehicles = new RoutedVehicle[16];
+        private Link[] links = new Link[16];
+        private long[] departureSteps = new long[16];
+        private int count = 0;
+
+        private void add(RoutedVehicle vehicle, Link link, long departureStep) {
+            if (count == vehicles.length) {
+                vehicles = Arrays.copyOf(vehicles, count * 2);
+                links = Arrays.copyOf(links, count * 2);
+                departureSteps = Arrays.copyOf(departureSteps, count * 2);
+            }
+            vehicles[count] = vehicle;
+            links[count] = link;
+            departureSteps[count] = departureStep;
+            count++;
+        }
+
+        int size() {
+            return count;
+        }
+
+        RoutedVehicle getVehicle(int index) {
+            return vehicles[index];
+        }
+
+        Link getLink(int index) {
+            return links[index];
+        }
+
+        /**
+         * Returns the step in which the vehicle left the upstream intersection
+         */
+        long getDepartureStep(int index) {
+            return departureSteps[index];
+        }
+
+        void clear() {
+            Arrays.fill(vehicles, 0, count, null);
+            Arrays.fill(links, 0, count, null);
+            count = 0;
+        }
+    }
+}
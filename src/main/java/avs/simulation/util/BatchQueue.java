@@ -0,0 +1,77 @@
+package avs.simulation.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Bounded hand-off between one producer thread and one consumer thread.
+ * Items are grouped into batches so the threads synchronise once per batch instead of once per item,
+ * and the producer blocks when the consumer falls behind, which keeps memory bounded.
+ *
+ * @param <T> The type of item passed between the threads
+ */
+public class BatchQueue<T> {
+    private final BlockingQueue<List<T>> batches;
+    private final List<T> endOfStream = new ArrayList<>(0);
+    private final int batchSize;
+    private List<T> currentBatch;
+
+    /**
+     * @param batchSize Number of items per batch
+     * @param capacity Maximum number of batches waiting for the consumer
+     */
+    public BatchQueue(int batchSize, int capacity) {
+        if (batchSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Batch size and capacity must be positive");
+        }
+        this.batchSize = batchSize;
+        this.batches = new ArrayBlockingQueue<>(capacity);
+        this.currentBatch = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Adds an item, handing the current batch over to the consumer once it is full.
+     * Must only be called from the producer thread.
+     */
+    public void add(T item) throws InterruptedException {
+        currentBatch.add(item);
+        if (currentBatch.size() >= batchSize) {
+            batches.put(currentBatch);
+            currentBatch = new ArrayList<>(batchSize);
+        }
+    }
+
+    /**
+     * Hands over the last partial batch and signals the end of the stream.
+     * Must only be called from the producer thread.
+     */
+    public void close() throws InterruptedException {
+        if (!currentBatch.isEmpty()) {
+            batches.put(currentBatch);
+            currentBatch = new ArrayList<>(0);
+        }
+        batches.put(endOfStream);
+    }
+
+    /**
+     * Waits for the next batch. Must only be called from the consumer thread.
+     *
+     * @return The next batch, or null once the producer has closed the queue
+     */
+    public List<T> take() throws InterruptedException {
+        List<T> batch = batches.take();
+        return batch == endOfStream ? null : batch;
+    }
+
+    /**
+     * Discards batches until the end of the stream, so a producer blocked on a full queue can finish.
+     * Used by a consumer that failed and will not process any more items.
+     */
+    public void drain() throws InterruptedException {
+        while (take() != null) {
+            // Discard
+        }
+    }
+}
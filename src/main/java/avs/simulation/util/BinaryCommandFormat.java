@@ -0,0 +1,61 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+/**
+ * Layout of the compact binary command format.
+ *
+ * A file starts with {@link #MAGIC} and a version byte, followed by records that each begin with a tag byte:
+ * <ul>
+ *   <li>{@link #TAG_STEPS}, varint count: a run of STEP commands</li>
+ *   <li>{@link #TAG_DEFINE_PREFIX}, varint length, UTF-8 bytes: appends a vehicle id prefix to the dictionary</li>
+ *   <li>{@link #TAG_ADD_NUMBERED} | directions, varint prefix index, varint number: ADD_VEHICLE whose id is
+ *       a dictionary prefix followed by a decimal number</li>
+ *   <li>{@link #TAG_ADD_LITERAL} | directions, varint length, UTF-8 bytes: ADD_VEHICLE with an inline id</li>
+ *   <li>{@link #TAG_DEFINE_INTERSECTION}, varint length, UTF-8 bytes: appends an intersection id to the
+ *       dictionary of a road network (since version 2)</li>
+ *   <li>{@link #TAG_ROUTE}, varint intersection index, varint length, one direction ordinal byte per exit:
+ *       the intersection and route of the ADD_VEHICLE record that follows (since version 2)</li>
+ * </ul>
+ * The low nibble of an ADD_VEHICLE tag packs the start road ordinal in bits 2-3 and the end road ordinal in bits 0-1.
+ * Readers accept every version up to {@link #VERSION}, a version 1 file holds no road network records.
+ */
+final class BinaryCommandFormat {
+    static final byte[] MAGIC = {'A', 'V', 'S', 'C'};
+    static final byte VERSION = 2;
+
+    static final int TAG_STEPS = 0x00;
+    static final int TAG_DEFINE_PREFIX = 0x01;
+    static final int TAG_DEFINE_INTERSECTION = 0x02;
+    static final int TAG_ROUTE = 0x03;
+    static final int TAG_ADD_NUMBERED = 0x40;
+    static final int TAG_ADD_LITERAL = 0x60;
+    static final int TAG_KIND_MASK = 0xF0;
+    static final int DIRECTIONS_MASK = 0x0F;
+
+    /** Upper bound on dictionary entries, so memory stays bounded for ids without a shared prefix */
+    static final int MAX_PREFIXES = 1 << 16;
+
+    /** Upper bound on intersection dictionary entries */
+    static final int MAX_INTERSECTIONS = 1 << 16;
+
+    /** Longest decimal suffix that is always representable as a long */
+    static final int MAX_NUMBER_DIGITS = 18;
+
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    private BinaryCommandFormat() {
+    }
+
+    static int packDirections(TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
+        return (startRoad.ordinal() << 2) | endRoad.ordinal();
+    }
+
+    static TrafficLight.Direction unpackStartRoad(int tag) {
+        return DIRECTIONS[(tag >> 2) & 0x03];
+    }
+
+    static TrafficLight.Direction unpackEndRoad(int tag) {
+        return DIRECTIONS[tag & 0x03];
+    }
+}
@@ -0,0 +1,203 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads commands in the binary format described in {@link BinaryCommandFormat} straight from a
+ * memory-mapped file. Files larger than a single mapping are read through a sliding window.
+ */
+public class BinaryCommandReader implements CommandReader {
+    private static final long MAX_MAPPING_SIZE = 1L << 30;
+    private static final Command STEP_COMMAND = new Command(Command.CommandType.STEP);
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long fileSize;
+    private MappedByteBuffer buffer;
+    private long bufferOffset;
+
+    private final List<String> prefixes = new ArrayList<>();
+    private final List<String> intersections = new ArrayList<>();
+    private String routeIntersection; // Set by a route record until the vehicle it belongs to is read
+    private TrafficLight.Direction[] route;
+    private long pendingSteps = 0;
+
+    public BinaryCommandReader(File inputFile) throws IOException {
+        this.file = new RandomAccessFile(inputFile, "r");
+        this.channel = file.getChannel();
+        this.fileSize = channel.size();
+        try {
+            map(0);
+            byte[] magic = new byte[BinaryCommandFormat.MAGIC.length];
+            ensure(magic.length + 1);
+            buffer.get(magic);
+            if (!Arrays.equals(magic, BinaryCommandFormat.MAGIC)) {
+                throw new IOException("Not a binary command file: " + inputFile);
+            }
+            byte version = buffer.get();
+            if (version < 1 || version > BinaryCommandFormat.VERSION) {
+                throw new IOException("Unsupported binary command format version: " + version);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the binary command format header
+     */
+    public static boolean isBinaryCommandFile(File inputFile) throws IOException {
+        try (RandomAccessFile candidate = new RandomAccessFile(inputFile, "r")) {
+            byte[] magic = new byte[BinaryCommandFormat.MAGIC.length];
+            return candidate.read(magic) == magic.length && Arrays.equals(magic, BinaryCommandFormat.MAGIC);
+        }
+    }
+
+    @Override
+    public Command next() throws IOException {
+        while (pendingSteps == 0) {
+            if (bufferOffset + buffer.position() >= fileSize) {
+                return null;
+            }
+
+            ensure(1);
+            int tag = buffer.get() & 0xFF;
+            switch (tag & BinaryCommandFormat.TAG_KIND_MASK) {
+                case BinaryCommandFormat.TAG_STEPS -> {
+                    if (tag == BinaryCommandFormat.TAG_STEPS) {
+                        pendingSteps = readVarint();
+                    } else if (tag == BinaryCommandFormat.TAG_DEFINE_PREFIX) {
+                        prefixes.add(readString());
+                    } else if (tag == BinaryCommandFormat.TAG_DEFINE_INTERSECTION) {
+                        intersections.add(readString());
+                    } else if (tag == BinaryCommandFormat.TAG_ROUTE) {
+                        readRoute();
+                    } else {
+                        throw new IOException("Unknown record tag: " + tag);
+                    }
+                }
+                case BinaryCommandFormat.TAG_ADD_NUMBERED -> {
+                    String prefix = prefix(readVarint());
+                    String vehicleId = prefix.concat(Long.toString(readVarint()));
+                    return addVehicle(tag, vehicleId);
+                }
+                case BinaryCommandFormat.TAG_ADD_LITERAL -> {
+                    return addVehicle(tag, readString());
+                }
+                default -> throw new IOException("Unknown record tag: " + tag);
+            }
+        }
+
+        pendingSteps--;
+        return STEP_COMMAND;
+    }
+
+    private Command addVehicle(int tag, String vehicleId) throws IOException {
+        TrafficLight.Direction startRoad = BinaryCommandFormat.unpackStartRoad(tag);
+        TrafficLight.Direction endRoad = BinaryCommandFormat.unpackEndRoad(tag);
+        if (routeIntersection == null) {
+            return new Command(Command.CommandType.ADD_VEHICLE, vehicleId, startRoad, endRoad);
+        }
+        if (route[0] != endRoad) {
+            throw new IOException("Route of vehicle " + vehicleId + " does not start with its end road");
+        }
+        Command command = new Command(vehicleId, routeIntersection, startRoad, route);
+        routeIntersection = null;
+        route = null;
+        return command;
+    }
+
+    private void readRoute() throws IOException {
+        long index = readVarint();
+        if (index < 0 || index >= intersections.size()) {
+            throw new IOException("Undefined intersection: " + index);
+        }
+        long length = readVarint();
+        if (length < 1 || length > Integer.MAX_VALUE) {
+            throw new IOException("Invalid route length: " + length);
+        }
+        ensure((int) length);
+        TrafficLight.Direction[] exits = new TrafficLight.Direction[(int) length];
+        for (int i = 0; i < exits.length; i++) {
+            int ordinal = buffer.get();
+            if (ordinal < 0 || ordinal >= DIRECTIONS.length) {
+                throw new IOException("Invalid direction in route: " + ordinal);
+            }
+            exits[i] = DIRECTIONS[ordinal];
+        }
+        routeIntersection = intersections.get((int) index);
+        route = exits;
+    }
+
+    private String prefix(long index) throws IOException {
+        if (index < 0 || index >= prefixes.size()) {
+            throw new IOException("Undefined vehicle id prefix: " + index);
+        }
+        return prefixes.get((int) index);
+    }
+
+    private String readString() throws IOException {
+        long length = readVarint();
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("String too long: " + length);
+        }
+        ensure((int) length);
+        byte[] bytes = new byte[(int) length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            ensure(1);
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    /**
+     * Makes sure the next {@code bytes} bytes are inside the current mapping, sliding the window if needed
+     */
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        long position = bufferOffset + buffer.position();
+        if (fileSize - position < bytes) {
+            throw new EOFException("Truncated binary command file");
+        }
+        map(position);
+        if (buffer.remaining() < bytes) {
+            throw new IOException("Record larger than the mapping window");
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.min(MAX_MAPPING_SIZE, fileSize - position);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        bufferOffset = position;
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
@@ -0,0 +1,181 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes simulation commands into the compact binary format described in {@link BinaryCommandFormat}.
+ * Consecutive STEP commands are run-length encoded and vehicle ids of the form prefix + number
+ * are stored as a dictionary index and a varint.
+ */
+public class BinaryCommandWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final DataOutputStream output;
+    private final Map<String, Integer> prefixes = new HashMap<>();
+    private final Map<String, Integer> intersections = new HashMap<>();
+    private long pendingSteps = 0;
+    private boolean closed = false;
+
+    public BinaryCommandWriter(File outputFile) throws IOException {
+        this(new FileOutputStream(outputFile));
+    }
+
+    public BinaryCommandWriter(OutputStream output) throws IOException {
+        this.output = new DataOutputStream(new BufferedOutputStream(output, BUFFER_SIZE));
+        this.output.write(BinaryCommandFormat.MAGIC);
+        this.output.writeByte(BinaryCommandFormat.VERSION);
+    }
+
+    /**
+     * Converts a JSON command file into the binary format
+     *
+     * @return The number of commands converted
+     */
+    public static long convertJsonFile(File jsonFile, File binaryFile) throws IOException {
+        long count = 0;
+        try (JsonCommandReader reader = new JsonCommandReader(jsonFile);
+             BinaryCommandWriter writer = new BinaryCommandWriter(binaryFile)) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                writer.write(command);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public void write(Command command) throws IOException {
+        switch (command.getType()) {
+            case STEP -> pendingSteps++;
+            case ADD_VEHICLE -> {
+                flushSteps();
+                writeAddVehicle(command);
+            }
+        }
+    }
+
+    private void writeAddVehicle(Command command) throws IOException {
+        String vehicleId = command.getVehicleId();
+        if (vehicleId == null) {
+            throw new IllegalArgumentException("Vehicle id is required for the binary format");
+        }
+        if (command.getIntersectionId() != null) {
+            writeRoute(command.getIntersectionId(), command.getRoute());
+        }
+        int directions = BinaryCommandFormat.packDirections(command.getStartRoad(), command.getEndRoad());
+
+        int split = numberSuffixStart(vehicleId);
+        if (split >= 0) {
+            Integer prefixIndex = lookupPrefix(vehicleId.substring(0, split));
+            if (prefixIndex != null) {
+                output.writeByte(BinaryCommandFormat.TAG_ADD_NUMBERED | directions);
+                writeVarint(prefixIndex);
+                writeVarint(Long.parseLong(vehicleId, split, vehicleId.length(), 10));
+                return;
+            }
+        }
+
+        output.writeByte(BinaryCommandFormat.TAG_ADD_LITERAL | directions);
+        writeString(vehicleId);
+    }
+
+    /**
+     * Writes the intersection and route of a road network vehicle, ahead of its ADD_VEHICLE record
+     */
+    private void writeRoute(String intersectionId, TrafficLight.Direction[] route) throws IOException {
+        Integer index = intersections.get(intersectionId);
+        if (index == null) {
+            if (intersections.size() == BinaryCommandFormat.MAX_INTERSECTIONS) {
+                throw new IllegalArgumentException("Too many intersections for the binary format: " + intersectionId);
+            }
+            index = intersections.size();
+            intersections.put(intersectionId, index);
+            output.writeByte(BinaryCommandFormat.TAG_DEFINE_INTERSECTION);
+            writeString(intersectionId);
+        }
+        output.writeByte(BinaryCommandFormat.TAG_ROUTE);
+        writeVarint(index);
+        writeVarint(route.length);
+        for (TrafficLight.Direction exit : route) {
+            output.writeByte(exit.ordinal());
+        }
+    }
+
+    /**
+     * Finds the dictionary index of a prefix, registering it if there is still room
+     *
+     * @return The index, or null if the dictionary is full
+     */
+    private Integer lookupPrefix(String prefix) throws IOException {
+        Integer index = prefixes.get(prefix);
+        if (index == null && prefixes.size() < BinaryCommandFormat.MAX_PREFIXES) {
+            index = prefixes.size();
+            prefixes.put(prefix, index);
+            output.writeByte(BinaryCommandFormat.TAG_DEFINE_PREFIX);
+            writeString(prefix);
+        }
+        return index;
+    }
+
+    /**
+     * Returns where the decimal suffix of an id starts, or -1 if the id has no suffix
+     * that survives a round trip through a long (e.g. "car007" keeps its leading zeros)
+     */
+    static int numberSuffixStart(String vehicleId) {
+        int start = vehicleId.length();
+        while (start > 0 && vehicleId.charAt(start - 1) >= '0' && vehicleId.charAt(start - 1) <= '9') {
+            start--;
+        }
+        int digits = vehicleId.length() - start;
+        if (digits == 0 || digits > BinaryCommandFormat.MAX_NUMBER_DIGITS) {
+            return -1;
+        }
+        if (digits > 1 && vehicleId.charAt(start) == '0') {
+            return -1;
+        }
+        return start;
+    }
+
+    private void flushSteps() throws IOException {
+        if (pendingSteps > 0) {
+            output.writeByte(BinaryCommandFormat.TAG_STEPS);
+            writeVarint(pendingSteps);
+            pendingSteps = 0;
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        output.write(bytes);
+    }
+
+    private void writeVarint(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        flushSteps();
+        output.close();
+    }
+}
@@ -12,6 +12,8 @@ public class Command {
     private String vehicleId;
     private TrafficLight.Direction startRoad;
     private TrafficLight.Direction endRoad;
+    private String intersectionId;
+    private TrafficLight.Direction[] route;
 
     public Command(CommandType type, String vehicleId, TrafficLight.Direction startRoad, TrafficLight.Direction endRoad) {
         this.type = type;
@@ -20,6 +22,18 @@ public class Command {
         this.endRoad = endRoad;
     }
 
+    /**
+     * Creates an ADD_VEHICLE command for a road network
+     *
+     * @param intersectionId The intersection the vehicle enters the network at
+     * @param route The road the vehicle exits through at each intersection it crosses, the first one is its end road
+     */
+    public Command(String vehicleId, String intersectionId, TrafficLight.Direction startRoad, TrafficLight.Direction[] route) {
+        this(CommandType.ADD_VEHICLE, vehicleId, startRoad, route[0]);
+        this.intersectionId = intersectionId;
+        this.route = route;
+    }
+
     public Command(CommandType type) {
         this.type = type;
     }
@@ -39,4 +53,18 @@ public class Command {
     public TrafficLight.Direction getEndRoad() {
         return endRoad;
     }
+
+    /**
+     * Returns the intersection the vehicle enters a road network at, or null for single intersection commands
+     */
+    public String getIntersectionId() {
+        return intersectionId;
+    }
+
+    /**
+     * Returns the exits of the vehicle at each intersection of a road network, or null for single intersection commands
+     */
+    public TrafficLight.Direction[] getRoute() {
+        return route;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,106 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Read-only, compact in-memory copy of a command stream.
+ * Every command takes one byte, plus a reference to its id for ADD_VEHICLE, so a parsed input can be
+ * replayed many times and shared between threads, each replay using its own {@link #reader()}.
+ */
+public class CommandLog {
+    private static final byte STEP = (byte) 0x80;
+    private static final Command STEP_COMMAND = new Command(Command.CommandType.STEP);
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    private final byte[] operations;
+    private final String[] vehicleIds;
+    private final int stepCount;
+
+    private CommandLog(byte[] operations, String[] vehicleIds, int stepCount) {
+        this.operations = operations;
+        this.vehicleIds = vehicleIds;
+        this.stepCount = stepCount;
+    }
+
+    /**
+     * Reads all commands of a reader into a new log and closes the reader
+     */
+    public static CommandLog read(CommandReader commandReader) throws IOException {
+        byte[] operations = new byte[1024];
+        String[] vehicleIds = new String[256];
+        int size = 0;
+        int vehicles = 0;
+        int steps = 0;
+
+        try (CommandReader reader = commandReader) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                if (size == operations.length) {
+                    operations = Arrays.copyOf(operations, grow(size));
+                }
+                if (command.getType() == Command.CommandType.STEP) {
+                    operations[size++] = STEP;
+                    steps++;
+                } else {
+                    if (vehicles == vehicleIds.length) {
+                        vehicleIds = Arrays.copyOf(vehicleIds, grow(vehicles));
+                    }
+                    operations[size++] = (byte) ((command.getStartRoad().ordinal() << 2) | command.getEndRoad().ordinal());
+                    vehicleIds[vehicles++] = command.getVehicleId();
+                }
+            }
+        }
+
+        return new CommandLog(Arrays.copyOf(operations, size), Arrays.copyOf(vehicleIds, vehicles), steps);
+    }
+
+    private static int grow(int length) {
+        if (length >= Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Command log is too large");
+        }
+        return (int) Math.min((long) length * 2, Integer.MAX_VALUE - 8);
+    }
+
+    public int size() {
+        return operations.length;
+    }
+
+    public int getStepCount() {
+        return stepCount;
+    }
+
+    public int getVehicleCount() {
+        return vehicleIds.length;
+    }
+
+    /**
+     * Returns a new reader positioned at the first command. Readers are independent of each other.
+     */
+    public CommandReader reader() {
+        return new CommandReader() {
+            private int position = 0;
+            private int vehicle = 0;
+
+            @Override
+            public Command next() {
+                if (position >= operations.length) {
+                    return null;
+                }
+                byte operation = operations[position++];
+                if (operation == STEP) {
+                    return STEP_COMMAND;
+                }
+                return new Command(Command.CommandType.ADD_VEHICLE, vehicleIds[vehicle++],
+                        DIRECTIONS[(operation >> 2) & 0x03], DIRECTIONS[operation & 0x03]);
+            }
+
+            @Override
+            public void close() {
+                // Nothing to release
+            }
+        };
+    }
+}
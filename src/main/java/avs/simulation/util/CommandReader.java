@@ -0,0 +1,30 @@
+package avs.simulation.util;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Source of simulation commands that are decoded one at a time
+ */
+public interface CommandReader extends Closeable {
+
+    /**
+     * Decodes the next command
+     *
+     * @return The next command, or null when the input is exhausted
+     * @throws IOException If the input cannot be read or is malformed
+     */
+    Command next() throws IOException;
+
+    /**
+     * Opens a reader for a command file, reading binary command files straight from a memory mapping
+     * and anything else as JSON
+     */
+    static CommandReader open(File inputFile) throws IOException {
+        if (BinaryCommandReader.isBinaryCommandFile(inputFile)) {
+            return new BinaryCommandReader(inputFile);
+        }
+        return new JsonCommandReader(inputFile);
+    }
+}
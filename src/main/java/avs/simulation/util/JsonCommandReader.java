@@ -0,0 +1,175 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads simulation commands from a JSON input one entry at a time.
+ * Only the command currently being decoded is kept in memory, so inputs of any size
+ * can be replayed with a flat heap profile.
+ */
+public class JsonCommandReader implements CommandReader {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+    private boolean insideCommands = false;
+    private boolean finished = false;
+
+    public JsonCommandReader(File inputFile) throws IOException {
+        this(JSON_FACTORY.createParser(inputFile));
+    }
+
+    public JsonCommandReader(InputStream input) throws IOException {
+        this(JSON_FACTORY.createParser(input));
+    }
+
+    private JsonCommandReader(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    /**
+     * Decodes the next command from the "commands" array
+     *
+     * @return The next command, or null when the array is exhausted
+     * @throws IOException If the input is not valid JSON or has no "commands" array
+     */
+    @Override
+    public Command next() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (!insideCommands) {
+            seekCommandsArray();
+        }
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                // Entries that are not objects carry no command
+                parser.skipChildren();
+                continue;
+            }
+
+            Command command = readCommand();
+            if (command != null) {
+                return command;
+            }
+        }
+
+        finished = true;
+        return null;
+    }
+
+    /**
+     * Advances the parser to the first element of the top-level "commands" array,
+     * skipping any other fields of the root object
+     */
+    private void seekCommandsArray() throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object at the start of the input");
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("commands".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                insideCommands = true;
+                return;
+            }
+            parser.skipChildren();
+        }
+
+        throw new IOException("Input does not contain a \"commands\" array");
+    }
+
+    /**
+     * Reads a single command object. The parser must be positioned on its START_OBJECT.
+     *
+     * @return The decoded command, or null for unknown command types
+     */
+    private Command readCommand() throws IOException {
+        String type = null;
+        String vehicleId = null;
+        String startRoad = null;
+        String endRoad = null;
+        String intersection = null;
+        List<String> route = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("route".equals(fieldName) && value == JsonToken.START_ARRAY) {
+                route = new ArrayList<>();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    route.add(parser.getValueAsString());
+                }
+                continue;
+            }
+            if (value.isStructStart()) {
+                parser.skipChildren();
+                continue;
+            }
+
+            switch (fieldName) {
+                case "type" -> type = parser.getValueAsString();
+                case "vehicleId" -> vehicleId = parser.getValueAsString();
+                case "startRoad" -> startRoad = parser.getValueAsString();
+                case "endRoad" -> endRoad = parser.getValueAsString();
+                case "intersection" -> intersection = parser.getValueAsString();
+                default -> {
+                    // Unused field
+                }
+            }
+        }
+
+        if ("addVehicle".equals(type) && intersection != null) {
+            return new Command(vehicleId, intersection, parseDirection(startRoad), parseRoute(route, endRoad));
+        } else if ("addVehicle".equals(type)) {
+            return new Command(Command.CommandType.ADD_VEHICLE, vehicleId,
+                    parseDirection(startRoad), parseDirection(endRoad));
+        } else if ("step".equals(type)) {
+            return new Command(Command.CommandType.STEP);
+        }
+        return null;
+    }
+
+    /**
+     * Parses the exits of a network vehicle, a vehicle without a route only crosses one intersection
+     */
+    private static TrafficLight.Direction[] parseRoute(List<String> route, String endRoad) {
+        if (route == null || route.isEmpty()) {
+            return new TrafficLight.Direction[]{parseDirection(endRoad)};
+        }
+        TrafficLight.Direction[] directions = new TrafficLight.Direction[route.size()];
+        for (int i = 0; i < directions.length; i++) {
+            directions[i] = parseDirection(route.get(i));
+        }
+        return directions;
+    }
+
+    public static TrafficLight.Direction parseDirection(String direction) {
+        if (direction == null) {
+            throw new IllegalArgumentException("Missing direction");
+        }
+        return switch (direction.toLowerCase()) {
+            case "north" -> TrafficLight.Direction.NORTH;
+            case "east" -> TrafficLight.Direction.EAST;
+            case "south" -> TrafficLight.Direction.SOUTH;
+            case "west" -> TrafficLight.Direction.WEST;
+            default -> throw new IllegalArgumentException("Unknown direction: " + direction);
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
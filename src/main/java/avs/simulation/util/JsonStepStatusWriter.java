@@ -0,0 +1,157 @@
+package avs.simulation.util;
+
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.VehicleIdDictionary;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the simulation output incrementally, one step status at a time.
+ * The produced document has the same layout as a pretty-printed
+ * {"stepStatuses": [...]} tree, but nothing is retained after a step is written.
+ * <p>
+ * Runs of steps in which no vehicle left are expanded to one {"leftVehicles": []} entry per step by default.
+ * With {@link #setCompactEmptySteps(boolean)} each run is written as a single {"emptySteps": n} entry instead,
+ * which {@link StepLog#read} expands again.
+ */
+public class JsonStepStatusWriter implements Closeable {
+    public static final int DEFAULT_FLUSH_INTERVAL = 1000;
+    public static final String EMPTY_STEPS_FIELD = "emptySteps";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String[] NO_VEHICLES = new String[0];
+
+    private final JsonGenerator generator;
+    private final int flushInterval;
+    private int stepsSinceFlush = 0;
+    private boolean closed = false;
+    private boolean compactEmptySteps = false;
+    private long pendingEmptySteps = 0; // Empty steps not written yet in compact mode
+
+    public JsonStepStatusWriter(File outputFile) throws IOException {
+        this(outputFile, DEFAULT_FLUSH_INTERVAL);
+    }
+
+    /**
+     * @param outputFile The file to write to
+     * @param flushInterval Number of steps written between flushes to the underlying file
+     */
+    public JsonStepStatusWriter(File outputFile, int flushInterval) throws IOException {
+        this(JSON_FACTORY.createGenerator(outputFile, JsonEncoding.UTF8), flushInterval);
+    }
+
+    public JsonStepStatusWriter(OutputStream output, int flushInterval) throws IOException {
+        this(JSON_FACTORY.createGenerator(output, JsonEncoding.UTF8), flushInterval);
+    }
+
+    private JsonStepStatusWriter(JsonGenerator generator, int flushInterval) throws IOException {
+        if (flushInterval < 1) {
+            throw new IllegalArgumentException("Flush interval must be positive: " + flushInterval);
+        }
+        this.generator = generator;
+        this.flushInterval = flushInterval;
+
+        generator.useDefaultPrettyPrinter();
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("stepStatuses");
+    }
+
+    /**
+     * Appends a single step status to the output, resolving vehicle handles to their ids
+     */
+    public void write(StepStatus stepStatus, VehicleIdDictionary vehicleIds) throws IOException {
+        if (compactEmptySteps && stepStatus.isEmpty()) {
+            pendingEmptySteps++;
+            return;
+        }
+        writeEmptyRun();
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("leftVehicles");
+        for (int i = 0; i < stepStatus.getLeftVehicleCount(); i++) {
+            generator.writeString(vehicleIds.resolve(stepStatus.getLeftVehicle(i)));
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        stepWritten();
+    }
+
+    /**
+     * Appends a single step status whose vehicle ids are already resolved
+     */
+    public void write(String[] leftVehicleIds) throws IOException {
+        if (compactEmptySteps && leftVehicleIds.length == 0) {
+            pendingEmptySteps++;
+            return;
+        }
+        writeEmptyRun();
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("leftVehicles");
+        for (String vehicleId : leftVehicleIds) {
+            generator.writeString(vehicleId);
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+        stepWritten();
+    }
+
+    /**
+     * Appends a number of step statuses in which no vehicle left
+     */
+    public void writeEmpty(long count) throws IOException {
+        if (compactEmptySteps) {
+            pendingEmptySteps += count;
+            return;
+        }
+        for (long i = 0; i < count; i++) {
+            write(NO_VEHICLES);
+        }
+    }
+
+    /**
+     * Chooses whether runs of empty steps are written as single {"emptySteps": n} entries.
+     * Steps already passed to the writer keep the encoding they were given under.
+     */
+    public void setCompactEmptySteps(boolean compactEmptySteps) throws IOException {
+        writeEmptyRun();
+        this.compactEmptySteps = compactEmptySteps;
+    }
+
+    private void writeEmptyRun() throws IOException {
+        if (pendingEmptySteps == 0) {
+            return;
+        }
+        generator.writeStartObject();
+        generator.writeNumberField(EMPTY_STEPS_FIELD, pendingEmptySteps);
+        generator.writeEndObject();
+        pendingEmptySteps = 0;
+        stepWritten();
+    }
+
+    private void stepWritten() throws IOException {
+        if (++stepsSinceFlush >= flushInterval) {
+            generator.flush();
+            stepsSinceFlush = 0;
+        }
+    }
+
+    /**
+     * Closes the step array and the root object, then releases the output
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        writeEmptyRun();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.close();
+    }
+}
@@ -0,0 +1,128 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.LogHistogram;
+import avs.simulation.model.SimulationMetrics;
+import avs.simulation.model.Vehicle;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Writes the summary of {@link SimulationMetrics} next to an output file: {@code <output>.metrics.json} holds
+ * the summaries with their histogram buckets, {@code <output>.metrics.csv} one summary row per histogram.
+ */
+public class MetricsWriter {
+    private static final double[] PERCENTILES = {50, 90, 99};
+
+    /**
+     * Returns the file next to an output file with the given suffix, replacing its extension
+     */
+    public static File siblingFile(String outputFile, String suffix) {
+        File file = new File(outputFile);
+        String name = file.getName();
+        int extension = name.lastIndexOf('.');
+        String baseName = extension > 0 ? name.substring(0, extension) : name;
+        return new File(file.getAbsoluteFile().getParentFile(), baseName + suffix);
+    }
+
+    /**
+     * Writes both summaries next to an output file
+     *
+     * @return The JSON summary file
+     */
+    public static File write(SimulationMetrics metrics, String outputFile) throws IOException {
+        File jsonFile = siblingFile(outputFile, ".metrics.json");
+        writeJson(metrics, jsonFile);
+        writeCsv(metrics, siblingFile(outputFile, ".metrics.csv"));
+        return jsonFile;
+    }
+
+    public static void writeJson(SimulationMetrics metrics, File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        root.put("steps", metrics.getSampledSteps());
+        root.put("departures", metrics.getWaitTimes().getTotalCount());
+        putHistogram(root.putObject("waitTime"), metrics.getWaitTimes());
+
+        ObjectNode byDirection = root.putObject("waitTimeByDirection");
+        for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+            putHistogram(byDirection.putObject(name(direction)), metrics.getWaitTimes(direction));
+        }
+        ObjectNode byMovement = root.putObject("waitTimeByMovement");
+        for (Vehicle.MovementType movementType : Vehicle.MovementType.values()) {
+            putHistogram(byMovement.putObject(name(movementType)), metrics.getWaitTimes(movementType));
+        }
+        ObjectNode queues = root.putObject("queueLength");
+        for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+            putHistogram(queues.putObject(name(direction)), metrics.getQueueLengths(direction));
+        }
+        ObjectNode phases = root.putObject("departuresByPhase");
+        for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+            ObjectNode phase = phases.putObject(name(direction));
+            phase.put("departures", metrics.getDeparturesInPhase(direction));
+            phase.put("phasesServed", metrics.getPhasesServed(direction));
+        }
+
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, root);
+    }
+
+    public static void writeCsv(SimulationMetrics metrics, File file) throws IOException {
+        try (PrintWriter out = new PrintWriter(file, StandardCharsets.UTF_8)) {
+            out.println("metric,key,count,mean,max,p50,p90,p99");
+            writeRow(out, "waitTime", "all", metrics.getWaitTimes());
+            for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+                writeRow(out, "waitTime", name(direction), metrics.getWaitTimes(direction));
+            }
+            for (Vehicle.MovementType movementType : Vehicle.MovementType.values()) {
+                writeRow(out, "waitTime", name(movementType), metrics.getWaitTimes(movementType));
+            }
+            for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+                writeRow(out, "queueLength", name(direction), metrics.getQueueLengths(direction));
+            }
+            for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+                long served = metrics.getPhasesServed(direction);
+                long departures = metrics.getDeparturesInPhase(direction);
+                out.printf(Locale.ROOT, "departuresByPhase,%s,%d,%.3f,,,,%n", name(direction), departures,
+                        served == 0 ? 0.0 : (double) departures / served);
+            }
+            if (out.checkError()) {
+                throw new IOException("Error writing metrics to " + file);
+            }
+        }
+    }
+
+    private static void putHistogram(ObjectNode node, LogHistogram histogram) {
+        node.put("count", histogram.getTotalCount());
+        node.put("mean", histogram.getMean());
+        node.put("max", histogram.getMax());
+        for (double percentile : PERCENTILES) {
+            node.put("p" + (int) percentile, histogram.getPercentile(percentile));
+        }
+        ArrayNode buckets = node.putArray("buckets");
+        for (int bucket = 0; bucket < LogHistogram.BUCKET_COUNT; bucket++) {
+            if (histogram.getCount(bucket) > 0) {
+                ObjectNode bucketNode = buckets.addObject();
+                bucketNode.put("from", LogHistogram.lowerBound(bucket));
+                bucketNode.put("to", LogHistogram.upperBound(bucket));
+                bucketNode.put("count", histogram.getCount(bucket));
+            }
+        }
+    }
+
+    private static void writeRow(PrintWriter out, String metric, String key, LogHistogram histogram) {
+        out.printf(Locale.ROOT, "%s,%s,%d,%.3f,%d,%d,%d,%d%n", metric, key, histogram.getTotalCount(),
+                histogram.getMean(), histogram.getMax(), histogram.getPercentile(50),
+                histogram.getPercentile(90), histogram.getPercentile(99));
+    }
+
+    private static String name(Enum<?> value) {
+        return value.name().toLowerCase();
+    }
+}
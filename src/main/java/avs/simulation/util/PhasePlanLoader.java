@@ -0,0 +1,70 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.PhasePlan;
+import avs.simulation.model.LightControlers.TrafficLight;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a fixed-time timing plan from JSON. Every stage lists the directions showing each light state for its
+ * duration, directions that are not listed are red:
+ * <pre>
+ * {"name": "long-green",
+ *  "stages": [{"duration": 10, "green": ["north", "south"]},
+ *             {"duration": 2, "yellow": ["north", "south"]},
+ *             {"duration": 1},
+ *             {"duration": 1, "redYellow": ["east", "west"]}, ...]}
+ * </pre>
+ */
+public class PhasePlanLoader {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Map<String, TrafficLight.LightState> STATE_FIELDS = Map.of(
+            "green", TrafficLight.LightState.GREEN,
+            "yellow", TrafficLight.LightState.YELLOW,
+            "redYellow", TrafficLight.LightState.RED_YELLOW,
+            "red", TrafficLight.LightState.RED);
+
+    /**
+     * Reads a plan, which is named after the file unless it has a "name"
+     */
+    public static PhasePlan load(File file) throws IOException {
+        String fileName = file.getName();
+        int extension = fileName.lastIndexOf('.');
+        return fromJson(MAPPER.readTree(file), extension > 0 ? fileName.substring(0, extension) : fileName);
+    }
+
+    /**
+     * Builds a plan from a parsed description
+     */
+    public static PhasePlan fromJson(JsonNode description, String defaultName) throws IOException {
+        JsonNode stages = description.get("stages");
+        if (stages == null || !stages.isArray() || stages.isEmpty()) {
+            throw new IOException("Timing plan has no \"stages\" array");
+        }
+        List<PhasePlan.Stage> parsed = new ArrayList<>();
+        for (JsonNode stage : stages) {
+            Map<TrafficLight.Direction, TrafficLight.LightState> states = new EnumMap<>(TrafficLight.Direction.class);
+            for (Map.Entry<String, TrafficLight.LightState> field : STATE_FIELDS.entrySet()) {
+                for (JsonNode direction : stage.path(field.getKey())) {
+                    TrafficLight.Direction parsedDirection = JsonCommandReader.parseDirection(direction.asText());
+                    if (states.put(parsedDirection, field.getValue()) != null) {
+                        throw new IOException("Direction " + direction.asText() + " has two states in " + stage);
+                    }
+                }
+            }
+            JsonNode duration = stage.get("duration");
+            if (duration == null || !duration.canConvertToInt()) {
+                throw new IOException("Missing \"duration\" in " + stage);
+            }
+            parsed.add(new PhasePlan.Stage(duration.asInt(), states));
+        }
+        return new PhasePlan(description.path("name").asText(defaultName), parsed);
+    }
+}
@@ -0,0 +1,94 @@
+package avs.simulation.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free queue between exactly one producer thread and one consumer thread.
+ * Each side only writes its own index and publishes it with release semantics, so neither side ever blocks
+ * the other; a full or empty queue is reported to the caller, which decides how to wait.
+ *
+ * @param <T> The type of item passed between the threads
+ */
+public class SpscQueue<T> {
+    private final Object[] items;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong(); // Next item to take, written by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next free slot, written by the producer
+    private long cachedHead = 0; // Producer's last view of the head
+    private long cachedTail = 0; // Consumer's last view of the tail
+
+    /**
+     * @param capacity Maximum number of items in the queue, rounded up to a power of two
+     */
+    public SpscQueue(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.items = new Object[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Appends an item. Must only be called from the producer thread.
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(T item) {
+        long position = tail.get();
+        if (position - cachedHead >= items.length) {
+            cachedHead = head.get();
+            if (position - cachedHead >= items.length) {
+                return false;
+            }
+        }
+        items[(int) (position & mask)] = item;
+        tail.lazySet(position + 1);
+        return true;
+    }
+
+    /**
+     * Returns the oldest item without removing it. Must only be called from the consumer thread.
+     *
+     * @return The item, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        long position = head.get();
+        if (position >= cachedTail) {
+            cachedTail = tail.get();
+            if (position >= cachedTail) {
+                return null;
+            }
+        }
+        return (T) items[(int) (position & mask)];
+    }
+
+    /**
+     * Removes the oldest item. Must only be called from the consumer thread.
+     *
+     * @return The item, or null if the queue is empty
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long position = head.get();
+        if (position >= cachedTail) {
+            cachedTail = tail.get();
+            if (position >= cachedTail) {
+                return null;
+            }
+        }
+        int index = (int) (position & mask);
+        T item = (T) items[index];
+        items[index] = null;
+        head.lazySet(position + 1);
+        return item;
+    }
+
+    public int capacity() {
+        return items.length;
+    }
+}
@@ -0,0 +1,148 @@
+package avs.simulation.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Run-length encoded record of step statuses. Only the steps in which vehicles left are stored, each with
+ * its step index; the empty steps between them cost nothing, however many there are.
+ */
+public class StepLog {
+    private static final String[] NO_VEHICLES = new String[0];
+
+    private long stepCount = 0;
+    private long[] steps = new long[16];                 // Index of each non-empty step, ascending
+    private String[][] leftVehicles = new String[16][];  // Vehicles of each non-empty step
+    private int size = 0;
+
+    /**
+     * Appends one step, an empty array extends the current run of empty steps
+     */
+    public void add(String[] leftVehicleIds) {
+        if (leftVehicleIds.length == 0) {
+            stepCount++;
+            return;
+        }
+        if (size == steps.length) {
+            steps = Arrays.copyOf(steps, size * 2);
+            leftVehicles = Arrays.copyOf(leftVehicles, size * 2);
+        }
+        steps[size] = stepCount++;
+        leftVehicles[size++] = leftVehicleIds;
+    }
+
+    /**
+     * Appends a number of steps in which no vehicle left
+     */
+    public void addEmpty(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Step count must not be negative: " + count);
+        }
+        stepCount += count;
+    }
+
+    /**
+     * Returns the number of steps, empty ones included
+     */
+    public long getStepCount() {
+        return stepCount;
+    }
+
+    public int getNonEmptyStepCount() {
+        return size;
+    }
+
+    /**
+     * Returns the index of a non-empty step
+     */
+    public long getStep(int index) {
+        checkIndex(index);
+        return steps[index];
+    }
+
+    /**
+     * Returns the vehicles that left in a non-empty step
+     */
+    public String[] getLeftVehicles(int index) {
+        checkIndex(index);
+        return leftVehicles[index];
+    }
+
+    /**
+     * Returns the vehicles that left in any step, empty for steps in which none did
+     */
+    public String[] getLeftVehiclesAt(long step) {
+        if (step < 0 || step >= stepCount) {
+            throw new IndexOutOfBoundsException("Step " + step + " out of bounds for " + stepCount + " steps");
+        }
+        int index = Arrays.binarySearch(steps, 0, size, step);
+        return index >= 0 ? leftVehicles[index] : NO_VEHICLES;
+    }
+
+    /**
+     * Writes every step, leaving the encoding of the empty runs to the writer
+     */
+    public void writeTo(JsonStepStatusWriter writer) throws IOException {
+        long next = 0;
+        for (int i = 0; i < size; i++) {
+            writer.writeEmpty(steps[i] - next);
+            writer.write(leftVehicles[i]);
+            next = steps[i] + 1;
+        }
+        writer.writeEmpty(stepCount - next);
+    }
+
+    public void clear() {
+        Arrays.fill(leftVehicles, 0, size, null);
+        stepCount = 0;
+        size = 0;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " non-empty steps");
+        }
+    }
+
+    /**
+     * Reads an output file, with empty steps written either one by one or as runs
+     */
+    public static StepLog read(File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        StepLog log = new StepLog();
+        try (JsonParser parser = mapper.getFactory().createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected a JSON object at the start of the output");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.currentName();
+                if (parser.nextToken() != JsonToken.START_ARRAY || !fieldName.equals("stepStatuses")) {
+                    parser.skipChildren();
+                    continue;
+                }
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    JsonNode status = mapper.readTree(parser);
+                    JsonNode emptySteps = status.get(JsonStepStatusWriter.EMPTY_STEPS_FIELD);
+                    if (emptySteps != null) {
+                        log.addEmpty(emptySteps.asLong());
+                        continue;
+                    }
+                    List<String> vehicles = new ArrayList<>();
+                    for (JsonNode vehicle : status.path("leftVehicles")) {
+                        vehicles.add(vehicle.asText());
+                    }
+                    log.add(vehicles.toArray(NO_VEHICLES));
+                }
+            }
+        }
+        return log;
+    }
+}
@@ -0,0 +1,53 @@
+package avs.simulation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void findInputs_selectsScenarioFilesAndSkipsOutputs() throws IOException {
+        Files.writeString(tempDir.resolve("a.json"), "{}");
+        Files.writeString(tempDir.resolve("b.bin"), "");
+        Files.writeString(tempDir.resolve("a-output.json"), "{}");
+        Files.writeString(tempDir.resolve("notes.txt"), "");
+
+        List<Path> fromDirectory = BatchRunner.findInputs(tempDir.toString());
+        assertEquals(List.of(tempDir.resolve("a.json"), tempDir.resolve("b.bin")), fromDirectory);
+
+        List<Path> fromGlob = BatchRunner.findInputs(tempDir + "/*.json");
+        assertEquals(List.of(tempDir.resolve("a.json")), fromGlob);
+    }
+
+    @Test
+    void outputFileFor_keepsNonJsonExtensions() {
+        assertEquals(tempDir.resolve("a-output.json"), BatchRunner.outputFileFor(tempDir.resolve("a.json")));
+        assertEquals(tempDir.resolve("a-bin-output.json"), BatchRunner.outputFileFor(tempDir.resolve("a.bin")));
+    }
+
+    @Test
+    void run_writesOutputsAndReportsFailures() throws IOException, InterruptedException {
+        Path good = tempDir.resolve("good.json");
+        Path broken = tempDir.resolve("broken.json");
+        Files.writeString(good, Scenarios.randomScenario(500, 1));
+        Files.writeString(broken, "not json");
+
+        List<BatchRunner.FileResult> results = new BatchRunner(null, 2).run(List.of(good, broken));
+
+        assertEquals(2, results.size());
+        assertTrue(results.get(0).isSuccessful(), "Valid scenario should succeed");
+        assertTrue(results.get(0).getSteps() > 0, "Steps should be counted");
+        assertTrue(Files.exists(tempDir.resolve("good-output.json")), "Output should be written next to the input");
+        assertFalse(results.get(1).isSuccessful(), "Broken scenario should be reported as failed");
+    }
+}
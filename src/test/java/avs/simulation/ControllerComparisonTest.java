@@ -0,0 +1,50 @@
+package avs.simulation;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.util.Command;
+import avs.simulation.util.CommandLog;
+import avs.simulation.util.CommandReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerComparisonTest {
+
+    @Test
+    void commandLog_replaysEveryCommand() throws IOException {
+        String scenario = Scenarios.randomScenario(1_000, 3);
+        CommandLog log = CommandLog.read(Scenarios.readerFor(scenario));
+
+        try (CommandReader original = Scenarios.readerFor(scenario); CommandReader replay = log.reader()) {
+            Command expected;
+            while ((expected = original.next()) != null) {
+                Command actual = replay.next();
+                assertNotNull(actual, "Replay ended early");
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getVehicleId(), actual.getVehicleId());
+                assertEquals(expected.getStartRoad(), actual.getStartRoad());
+                assertEquals(expected.getEndRoad(), actual.getEndRoad());
+            }
+            assertNull(replay.next(), "Replay should end with the original stream");
+        }
+    }
+
+    @Test
+    void run_reportsEveryController() throws IOException, InterruptedException {
+        CommandLog log = CommandLog.read(Scenarios.readerFor(Scenarios.randomScenario(5_000, 5)));
+
+        List<ControllerComparison.ControllerReport> reports = new ControllerComparison(log).run();
+
+        assertEquals(Intersection.ControllerType.values().length, reports.size(), "One report per controller");
+        for (ControllerComparison.ControllerReport report : reports) {
+            assertEquals(log.getStepCount(), report.getSteps(), "Every step should be replayed");
+            assertEquals(log.getVehicleCount(), report.getVehiclesAdded(), "Every vehicle should be added");
+            assertTrue(report.getVehiclesDeparted() <= report.getVehiclesAdded());
+            assertTrue(report.getMaxWait() >= report.getMeanWait());
+            assertTrue(report.getMaxQueueLength() >= report.getMeanQueueLength());
+        }
+    }
+}
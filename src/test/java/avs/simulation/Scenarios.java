@@ -0,0 +1,202 @@
+package avs.simulation;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.network.RoadNetwork;
+import avs.simulation.util.Command;
+import avs.simulation.util.JsonCommandReader;
+import avs.simulation.util.JsonStepStatusWriter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Builds the random JSON scenarios shared by the simulation tests and compares the engines on them.
+ * The same seed always gives the same scenario.
+ */
+public final class Scenarios {
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    private Scenarios() {
+    }
+
+    /**
+     * Builds a scenario of random vehicles and steps with the given number of commands
+     */
+    public static String randomScenario(int commandCount, long seed) {
+        return randomScenario(commandCount, seed, null);
+    }
+
+    /**
+     * Builds the same scenario as {@link #randomScenario(int, long)} with every vehicle entering the network at
+     * the given intersection, or without an intersection if it is null
+     */
+    public static String randomScenario(int commandCount, long seed, String intersection) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("{\"commands\": [");
+        int vehicles = 0;
+        for (int i = 0; i < commandCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            if (random.nextDouble() < 0.45) {
+                appendVehicle(json, "car" + ++vehicles, intersection, randomRoad(random));
+                json.append(", \"endRoad\": \"").append(randomRoad(random).name().toLowerCase()).append("\"}");
+            } else {
+                json.append("{\"type\": \"step\"}");
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Builds a scenario of short bursts of traffic separated by long runs of empty steps
+     */
+    public static String sparseScenario(int burstCount, long seed) {
+        Random random = new Random(seed);
+        StringBuilder json = new StringBuilder("{\"commands\": [{\"type\": \"step\"}");
+        int vehicles = 0;
+        for (int burst = 0; burst < burstCount; burst++) {
+            int burstVehicles = 1 + random.nextInt(6);
+            for (int i = 0; i < burstVehicles; i++) {
+                json.append(',');
+                appendVehicle(json, "car" + ++vehicles, null, randomRoad(random));
+                json.append(", \"endRoad\": \"").append(randomRoad(random).name().toLowerCase()).append("\"}");
+            }
+            int steps = 1 + random.nextInt(200);
+            for (int i = 0; i < steps; i++) {
+                json.append(",{\"type\": \"step\"}");
+            }
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Builds a scenario of random vehicles travelling across a square grid of {@link RoadNetwork#grid},
+     * followed by enough steps to drain it
+     */
+    public static String gridScenario(int size, int commandCount, int linkDelay) {
+        Random random = new Random(11);
+        StringBuilder json = new StringBuilder("{\"commands\": [");
+        for (int i = 0; i < commandCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            if (random.nextDouble() < 0.6) {
+                int row = random.nextInt(size);
+                int column = random.nextInt(size);
+                appendVehicle(json, "car" + i, RoadNetwork.gridId(row, column), randomRoad(random));
+                json.append(", \"route\": [");
+                TrafficLight.Direction[] route = randomRoute(random, size, row, column, 6);
+                for (int hop = 0; hop < route.length; hop++) {
+                    json.append(hop > 0 ? ", " : "").append('"').append(route[hop].name().toLowerCase()).append('"');
+                }
+                json.append("]}");
+            } else {
+                json.append("{\"type\": \"step\"}");
+            }
+        }
+        for (int i = 0; i < 200 * linkDelay; i++) {
+            json.append(", {\"type\": \"step\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Builds a route of up to the given number of hops that stays inside a square grid and ends with any exit
+     */
+    public static TrafficLight.Direction[] randomRoute(Random random, int size, int row, int column, int maxHops) {
+        List<TrafficLight.Direction> route = new ArrayList<>();
+        int hops = 1 + random.nextInt(maxHops);
+        while (route.size() + 1 < hops) {
+            TrafficLight.Direction exit = randomRoad(random);
+            int nextRow = row + (exit == TrafficLight.Direction.SOUTH ? 1 : exit == TrafficLight.Direction.NORTH ? -1 : 0);
+            int nextColumn = column + (exit == TrafficLight.Direction.EAST ? 1 : exit == TrafficLight.Direction.WEST ? -1 : 0);
+            if (nextRow < 0 || nextRow >= size || nextColumn < 0 || nextColumn >= size) {
+                continue;
+            }
+            route.add(exit);
+            row = nextRow;
+            column = nextColumn;
+        }
+        route.add(randomRoad(random));
+        return route.toArray(new TrafficLight.Direction[0]);
+    }
+
+    /**
+     * Runs a scenario with every controller type and asserts that each engine mode, run sequentially and pipelined,
+     * writes the same output and counts the same steps as stepping through every command one by one
+     *
+     * @param directory Where the output files are written
+     * @param configure Applied to every simulation before it runs, for example to set a discharge model
+     */
+    public static void assertSameOutput(Path directory, String scenario, Consumer<Simulation> configure)
+            throws IOException {
+        for (Intersection.ControllerType type : Intersection.ControllerType.values()) {
+            Path expectedOutput = directory.resolve(type + "-reference.json");
+            Simulation reference = new Simulation();
+            reference.setIntersectionControllerType(type);
+            configure.accept(reference);
+            try (JsonCommandReader reader = readerFor(scenario);
+                 JsonStepStatusWriter writer = new JsonStepStatusWriter(expectedOutput.toFile())) {
+                Command command;
+                while ((command = reader.next()) != null) {
+                    if (command.getType() == Command.CommandType.STEP) {
+                        writer.write(reference.performSimulationStep(), reference.getVehicleIds());
+                    } else {
+                        reference.addVehicle(command.getVehicleId(), command.getStartRoad(), command.getEndRoad());
+                    }
+                }
+            }
+            String expected = Files.readString(expectedOutput);
+
+            for (Simulation.EngineMode mode : Simulation.EngineMode.values()) {
+                for (boolean pipelined : new boolean[]{false, true}) {
+                    String run = type + " " + mode + (pipelined ? " pipelined" : "");
+                    Path output = directory.resolve(run.replace(' ', '-') + ".json");
+                    Simulation simulation = new Simulation();
+                    simulation.setIntersectionControllerType(type);
+                    configure.accept(simulation);
+                    simulation.setEngineMode(mode);
+                    if (pipelined) {
+                        simulation.runPipelined(readerFor(scenario), output.toString());
+                    } else {
+                        simulation.run(readerFor(scenario), output.toString());
+                    }
+
+                    assertEquals(expected, Files.readString(output), run + " output should match stepping one by one");
+                    assertEquals(reference.getStepCount(), simulation.getStepCount(), run + " step count");
+                }
+            }
+        }
+    }
+
+    public static JsonCommandReader readerFor(String json) throws IOException {
+        return new JsonCommandReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static TrafficLight.Direction randomRoad(Random random) {
+        return DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    }
+
+    /**
+     * Appends an addVehicle command up to its start road, leaving the object open for the destination
+     */
+    private static void appendVehicle(StringBuilder json, String vehicleId, String intersection,
+                                      TrafficLight.Direction startRoad) {
+        json.append("{\"type\": \"addVehicle\", \"vehicleId\": \"").append(vehicleId).append('"');
+        if (intersection != null) {
+            json.append(", \"intersection\": \"").append(intersection).append('"');
+        }
+        json.append(", \"startRoad\": \"").append(startRoad.name().toLowerCase()).append('"');
+    }
+}
@@ -0,0 +1,58 @@
+package avs.simulation;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that a step allocates nothing once the queues have reached their longest length
+ */
+class SimulationAllocationTest {
+
+    /** Allowance for one-off allocations of the runtime, such as a late JIT deoptimisation */
+    private static final long MAX_ALLOCATED_BYTES = 1024;
+
+    @Test
+    void performSimulationStep_allocatesNothingInSteadyState() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+                "Thread allocation counters are not available");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        TrafficLight.Direction[] directions = TrafficLight.Direction.values();
+        for (Intersection.ControllerType type : Intersection.ControllerType.values()) {
+            Simulation simulation = new Simulation();
+            simulation.setIntersectionControllerType(type);
+            long[] departures = new long[1];
+            simulation.addDepartureListener(vehicle -> departures[0]++);
+            Random random = new Random(7);
+
+            long allocatedBytes = 0;
+            int warmUpSteps = 200_000;
+            int measuredSteps = 1_000_000;
+            for (int step = 0; step < warmUpSteps + measuredSteps; step++) {
+                // Adding vehicles allocates them, so only the steps themselves are measured
+                if (random.nextInt(10) < 3) {
+                    simulation.addVehicle("car", directions[random.nextInt(4)], directions[random.nextInt(4)]);
+                }
+                long before = threads.getCurrentThreadAllocatedBytes();
+                simulation.performSimulationStep();
+                long after = threads.getCurrentThreadAllocatedBytes();
+                if (step >= warmUpSteps) {
+                    allocatedBytes += after - before;
+                }
+            }
+
+            assertTrue(departures[0] > 0, "Vehicles should leave the intersection");
+            assertTrue(allocatedBytes < MAX_ALLOCATED_BYTES, type + " steps should not allocate, but allocated "
+                    + allocatedBytes + " bytes in " + measuredSteps + " steps");
+        }
+    }
+}
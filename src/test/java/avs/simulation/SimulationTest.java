@@ -0,0 +1,276 @@
+package avs.simulation;
+
+import avs.simulation.UI.SimulationState;
+import avs.simulation.model.DepartureStatistics;
+import avs.simulation.model.DischargeModel;
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.FixedTimeTrafficLightController;
+import avs.simulation.model.LightControlers.PhasePlan;
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.LogHistogram;
+import avs.simulation.model.SimulationMetrics;
+import avs.simulation.model.VehicleIdDictionary;
+import avs.simulation.model.VehicleRetention;
+import avs.simulation.util.JsonStepStatusWriter;
+import avs.simulation.util.StepLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static avs.simulation.Scenarios.assertSameOutput;
+import static avs.simulation.Scenarios.randomScenario;
+import static avs.simulation.Scenarios.readerFor;
+import static avs.simulation.Scenarios.sparseScenario;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void runPipelined_matchesSequentialRun() throws IOException {
+        String scenario = randomScenario(20_000, 42);
+        Path sequentialOutput = tempDir.resolve("sequential.json");
+        Path pipelinedOutput = tempDir.resolve("pipelined.json");
+
+        new Simulation().run(readerFor(scenario), sequentialOutput.toString());
+        new Simulation().runPipelined(readerFor(scenario), pipelinedOutput.toString());
+
+        assertEquals(Files.readString(sequentialOutput), Files.readString(pipelinedOutput),
+                "Pipelined execution should produce the same output as sequential execution");
+    }
+
+    @Test
+    void runPipelined_reportsParseErrors() {
+        String scenario = "{\"commands\": [{\"type\": \"step\"}, "
+                + "{\"type\": \"addVehicle\", \"vehicleId\": \"x\", \"startRoad\": \"up\", \"endRoad\": \"north\"}]}";
+
+        assertThrows(IllegalArgumentException.class,
+                () -> new Simulation().runPipelined(readerFor(scenario), tempDir.resolve("out.json").toString()));
+    }
+
+    @Test
+    void run_fastForwardedIdleStepsMatchSteppingOneByOne() throws IOException {
+        assertSameOutput(tempDir, sparseScenario(300, 11), simulation -> { });
+    }
+
+    @Test
+    void performIdleSteps_rejectsWaitingVehicles() {
+        Simulation simulation = new Simulation();
+        simulation.addVehicle("car1", TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+
+        assertThrows(IllegalStateException.class, () -> simulation.performIdleSteps(10));
+    }
+
+    @Test
+    void discreteEventMode_matchesTimeSteppedOutput() throws IOException {
+        assertSameOutput(tempDir, randomScenario(20_000, 5), simulation -> { });
+        assertSameOutput(tempDir, sparseScenario(300, 13), simulation -> { });
+    }
+
+    @Test
+    void skipQuietSteps_jumpsToNextPhaseChangeInDiscreteEventMode() {
+        Simulation simulation = new Simulation();
+        // North starts green for 4 steps, so a vehicle waiting in the west cannot leave before the phase changes
+        simulation.addVehicle("car1", TrafficLight.Direction.WEST, TrafficLight.Direction.EAST);
+
+        assertEquals(0, simulation.skipQuietSteps(100), "Time-stepped mode should only skip idle steps");
+
+        simulation.setEngineMode(Simulation.EngineMode.DISCRETE_EVENT);
+        assertEquals(3, simulation.skipQuietSteps(100), "Steps up to the phase change should be skipped");
+        assertEquals(0, simulation.skipQuietSteps(100), "The phase change itself has to be stepped");
+        assertEquals(3, simulation.getStepCount());
+    }
+
+    @Test
+    void performSimulationStep_releasesPlatoonsUnderSaturationFlow() {
+        Simulation simulation = new Simulation();
+        simulation.setDischargeModel(new DischargeModel(3, 0));
+        for (int i = 0; i < 4; i++) {
+            simulation.addVehicle("car" + i, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        }
+
+        assertEquals(3, simulation.performSimulationStep().getLeftVehicleCount());
+        assertEquals(1, simulation.performSimulationStep().getLeftVehicleCount());
+    }
+
+    @Test
+    void performSimulationStep_waitsForStartUpLostTime() {
+        Simulation simulation = new Simulation();
+        simulation.setDischargeModel(new DischargeModel(1, 2));
+        simulation.addVehicle("car1", TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+
+        assertEquals(0, simulation.performSimulationStep().getLeftVehicleCount());
+        assertEquals(0, simulation.performSimulationStep().getLeftVehicleCount());
+        assertEquals(1, simulation.performSimulationStep().getLeftVehicleCount(), "Leaves after two lost steps");
+    }
+
+    @Test
+    void performSimulationStep_endsPlatoonAtMovementThatMustYield() {
+        Simulation simulation = new Simulation();
+        simulation.setIntersectionControllerType(Intersection.ControllerType.OPPOSING);
+        simulation.setDischargeModel(new DischargeModel(3, 0));
+        simulation.addVehicle("straight1", TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        simulation.addVehicle("turning", TrafficLight.Direction.NORTH, TrafficLight.Direction.WEST);
+        simulation.addVehicle("straight2", TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+
+        assertEquals(1, simulation.performSimulationStep().getLeftVehicleCount(),
+                "The turn behind the first vehicle only yields on green");
+        assertEquals(2, simulation.getQueueLength(TrafficLight.Direction.NORTH));
+    }
+
+    @Test
+    void discreteEventMode_matchesTimeSteppedOutputUnderSaturationFlow() throws IOException {
+        assertSameOutput(tempDir, randomScenario(20_000, 17),
+                simulation -> simulation.setDischargeModel(new DischargeModel(3, 1)));
+    }
+
+    @Test
+    void compactOutput_expandsToDefaultOutput() throws IOException {
+        String scenario = sparseScenario(300, 19);
+        Path expectedOutput = tempDir.resolve("expanded.json");
+        new Simulation().run(readerFor(scenario), expectedOutput.toString());
+
+        Path compactOutput = tempDir.resolve("compact.json");
+        Simulation compact = new Simulation();
+        compact.setCompactOutput(true);
+        compact.runPipelined(readerFor(scenario), compactOutput.toString());
+        assertTrue(Files.size(compactOutput) < Files.size(expectedOutput));
+
+        Path expandedOutput = tempDir.resolve("reexpanded.json");
+        try (JsonStepStatusWriter writer = new JsonStepStatusWriter(expandedOutput.toFile())) {
+            StepLog.read(compactOutput.toFile()).writeTo(writer);
+        }
+        assertEquals(Files.readString(expectedOutput), Files.readString(expandedOutput));
+    }
+
+    @Test
+    void visualMode_animatesEachDepartedVehicleOnce() {
+        Simulation simulation = new Simulation();
+        simulation.setVisualMode(true);
+        int first = simulation.addVehicle("car1", TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        int second = simulation.addVehicle("car2", TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST);
+        for (int step = 0; step < 30; step++) {
+            simulation.performSimulationStep();
+        }
+
+        SimulationState state = simulation.getCurrentState();
+        assertEquals(2, state.getCrossingVehicles().size());
+        assertEquals(TrafficLight.Direction.EAST, state.getCrossingVehicles().get(second).getToDirection());
+
+        state.removeVehicleFromAnimation(first);
+        assertFalse(state.isCrossing(first));
+        assertTrue(state.isCrossing(second));
+    }
+
+    @Test
+    void visualMode_releasesHandlesOfDroppedVehiclesOnceAnimated() {
+        TrafficLight.Direction[] directions = TrafficLight.Direction.values();
+        Simulation simulation = new Simulation();
+        simulation.setVisualMode(true);
+        simulation.setCompletedVehicleRetention(VehicleRetention.keepLast(8));
+        SimulationState state = simulation.getCurrentState();
+        VehicleIdDictionary vehicleIds = simulation.getVehicleIds();
+
+        int handleLimit = 0;
+        for (int step = 0; step < 2000; step++) {
+            if (step % 4 == 0) {
+                simulation.addVehicle("car" + step, directions[step / 4 % 4], directions[(step / 4 + 2) % 4]);
+            }
+            simulation.performSimulationStep();
+            // The view ends each animation a few departures later
+            while (state.getCrossingVehicles().size() > 3) {
+                state.removeVehicleFromAnimation(state.getCrossingVehicles().peekFirst().getHandle());
+            }
+            if (step == 500) {
+                handleLimit = vehicleIds.getHandleLimit();
+            }
+        }
+
+        assertEquals(handleLimit, vehicleIds.getHandleLimit());
+        assertTrue(vehicleIds.size() < 64, "Handles in use: " + vehicleIds.size());
+    }
+
+    @Test
+    void completedVehicleRetention_boundsDepartedVehiclesButNotStatistics() {
+        Simulation simulation = new Simulation();
+        simulation.setVisualMode(true);
+        simulation.setCompletedVehicleRetention(VehicleRetention.keepLast(2));
+        for (int i = 0; i < 20; i++) {
+            simulation.addVehicle("car" + i, TrafficLight.Direction.values()[i % 4], TrafficLight.Direction.values()[(i + 2) % 4]);
+        }
+        for (int step = 0; step < 100; step++) {
+            simulation.performSimulationStep();
+        }
+
+        assertEquals(2, simulation.getCompletedVehicles().size());
+        DepartureStatistics statistics = simulation.getDepartureStatistics();
+        assertEquals(20, statistics.getDepartures());
+        assertEquals(5, statistics.getDepartures(TrafficLight.Direction.EAST));
+        assertTrue(statistics.getMeanWait() > 0);
+        assertTrue(statistics.getMaxWait() >= statistics.getMeanWait());
+
+        simulation.setCompletedVehicleRetention(VehicleRetention.keepNone());
+        assertTrue(simulation.getCompletedVehicles().isEmpty());
+    }
+
+    @Test
+    void metrics_countBackToBackPhasesOfOneDirection() {
+        FixedTimeTrafficLightController.register(new PhasePlan("north-twice", List.of(
+                PhasePlan.Stage.of(3, TrafficLight.LightState.GREEN, TrafficLight.Direction.NORTH),
+                PhasePlan.Stage.of(1, TrafficLight.LightState.RED),
+                PhasePlan.Stage.of(3, TrafficLight.LightState.GREEN, TrafficLight.Direction.NORTH),
+                PhasePlan.Stage.of(1, TrafficLight.LightState.RED),
+                PhasePlan.Stage.of(2, TrafficLight.LightState.GREEN, TrafficLight.Direction.EAST),
+                PhasePlan.Stage.of(1, TrafficLight.LightState.RED))));
+        Simulation simulation = new Simulation();
+        simulation.setIntersectionController("north-twice");
+        simulation.setMetrics(new SimulationMetrics());
+        for (int i = 0; i < 20; i++) {
+            simulation.addVehicle("car" + i, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        }
+
+        // The NORTH phase in progress, then the rest of two 11 step cycles
+        for (int step = 1; step < 22; step++) {
+            simulation.performSimulationStep();
+        }
+
+        SimulationMetrics metrics = simulation.getMetrics();
+        assertTrue(metrics.getDeparturesInPhase(TrafficLight.Direction.NORTH) > 0);
+        assertEquals(4, metrics.getPhasesServed(TrafficLight.Direction.NORTH));
+        assertEquals(2, metrics.getPhasesServed(TrafficLight.Direction.EAST));
+        assertEquals(0, metrics.getPhasesServed(TrafficLight.Direction.SOUTH));
+    }
+
+    @Test
+    void metrics_areTheSameForBothEngines() throws IOException {
+        String scenario = sparseScenario(200, 23);
+        SimulationMetrics[] metrics = new SimulationMetrics[2];
+        Simulation.EngineMode[] modes = Simulation.EngineMode.values();
+        for (int i = 0; i < modes.length; i++) {
+            Simulation simulation = new Simulation();
+            simulation.setEngineMode(modes[i]);
+            simulation.setMetrics(new SimulationMetrics());
+            simulation.run(readerFor(scenario), tempDir.resolve("output-" + i + ".json").toString());
+            metrics[i] = simulation.getMetrics();
+        }
+
+        assertTrue(metrics[0].getWaitTimes().getTotalCount() > 0);
+        assertEquals(metrics[0].getSampledSteps(), metrics[1].getSampledSteps());
+        for (TrafficLight.Direction direction : TrafficLight.Direction.values()) {
+            for (int bucket = 0; bucket < LogHistogram.BUCKET_COUNT; bucket++) {
+                assertEquals(metrics[0].getQueueLengths(direction).getCount(bucket),
+                        metrics[1].getQueueLengths(direction).getCount(bucket));
+                assertEquals(metrics[0].getWaitTimes(direction).getCount(bucket),
+                        metrics[1].getWaitTimes(direction).getCount(bucket));
+            }
+            assertEquals(metrics[0].getDeparturesInPhase(direction), metrics[1].getDeparturesInPhase(direction));
+            assertEquals(metrics[0].getPhasesServed(direction), metrics[1].getPhasesServed(direction));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import static avs.simulation.model.LightControlers.TrafficLight.Direction.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepartureStatisticsTest {
+
+    /**
+     * Returns a vehicle that started crossing after waiting the given number of steps
+     */
+    private static Vehicle departed(TrafficLight.Direction from, int wait) {
+        SimulationClock clock = new SimulationClock();
+        Vehicle vehicle = new Vehicle(0, from, TrafficLight.Direction.values()[(from.ordinal() + 2) % 4], clock);
+        clock.advance(wait);
+        vehicle.startCrossing();
+        return vehicle;
+    }
+
+    /**
+     * Waits 2, 4, 4, 4, 5, 5, 7 and 9 steps: mean 5, population variance 4
+     */
+    private static DepartureStatistics sample() {
+        DepartureStatistics statistics = new DepartureStatistics();
+        statistics.accept(departed(NORTH, 2));
+        statistics.accept(departed(NORTH, 4));
+        statistics.accept(departed(NORTH, 4));
+        statistics.accept(departed(EAST, 4));
+        statistics.accept(departed(EAST, 5));
+        statistics.accept(departed(EAST, 5));
+        statistics.accept(departed(SOUTH, 7));
+        statistics.accept(departed(SOUTH, 9));
+        return statistics;
+    }
+
+    @Test
+    void accept_updatesMeanVarianceAndMaximum() {
+        DepartureStatistics statistics = sample();
+
+        assertEquals(8, statistics.getDepartures());
+        assertEquals(5.0, statistics.getMeanWait(), 1e-9);
+        assertEquals(4.0, statistics.getWaitVariance(), 1e-9);
+        assertEquals(9, statistics.getMaxWait());
+    }
+
+    @Test
+    void accept_keepsMeansPerDirection() {
+        DepartureStatistics statistics = sample();
+
+        assertEquals(3, statistics.getDepartures(NORTH));
+        assertEquals(10.0 / 3, statistics.getMeanWait(NORTH), 1e-9);
+        assertEquals(14.0 / 3, statistics.getMeanWait(EAST), 1e-9);
+        assertEquals(8.0, statistics.getMeanWait(SOUTH), 1e-9);
+        assertEquals(0, statistics.getDepartures(WEST));
+        assertEquals(0.0, statistics.getMeanWait(WEST), "A direction without departures has no mean");
+    }
+
+    @Test
+    void reset_forgetsEveryDeparture() {
+        DepartureStatistics statistics = sample();
+        statistics.reset();
+
+        assertEquals(0, statistics.getDepartures());
+        assertEquals(0.0, statistics.getMeanWait());
+        assertEquals(0.0, statistics.getWaitVariance());
+        assertEquals(0, statistics.getMaxWait());
+        assertEquals(0, statistics.getDepartures(NORTH));
+
+        statistics.accept(departed(WEST, 3));
+        assertEquals(3.0, statistics.getMeanWait(), 1e-9);
+        assertEquals(0.0, statistics.getWaitVariance(), 1e-9);
+    }
+}
@@ -0,0 +1,43 @@
+package avs.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DischargeModelTest {
+
+    @Test
+    void constructor_rejectsInvalidValues() {
+        assertThrows(IllegalArgumentException.class, () -> new DischargeModel(0, 0));
+        assertThrows(IllegalArgumentException.class, () -> new DischargeModel(1, -1));
+
+        DischargeModel model = new DischargeModel(3, 2);
+        assertEquals(3, model.getVehiclesPerStep());
+        assertEquals(2, model.getStartUpLostSteps());
+    }
+
+    @Test
+    void parse_readsVehiclesAndOptionalLostSteps() {
+        DischargeModel model = DischargeModel.parse("3");
+        assertEquals(3, model.getVehiclesPerStep());
+        assertEquals(0, model.getStartUpLostSteps());
+
+        model = DischargeModel.parse(" 4 : 2 ");
+        assertEquals(4, model.getVehiclesPerStep());
+        assertEquals(2, model.getStartUpLostSteps());
+    }
+
+    @Test
+    void parse_rejectsInvalidModels() {
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.parse("3:2:1"));
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.parse("x"));
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.parse("3:"));
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.parse("0"));
+        assertThrows(IllegalArgumentException.class, () -> DischargeModel.parse("3:-1"));
+    }
+
+    @Test
+    void toString_describesBothParameters() {
+        assertEquals("3 vehicles per step, 2 start-up lost steps", new DischargeModel(3, 2).toString());
+    }
+}
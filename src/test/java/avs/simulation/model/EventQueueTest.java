@@ -0,0 +1,24 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventQueueTest {
+
+    @Test
+    void poll_returnsEventsInTimeOrder() {
+        EventQueue events = new EventQueue();
+        events.schedule(new SimulationEvent(7, SimulationEvent.Type.DEPARTURE, TrafficLight.Direction.EAST));
+        events.schedule(new SimulationEvent(3, SimulationEvent.Type.DEPARTURE, TrafficLight.Direction.NORTH));
+        events.schedule(new SimulationEvent(3, SimulationEvent.Type.PHASE_CHANGE, null));
+
+        assertEquals(3, events.nextEventTime());
+        assertEquals(SimulationEvent.Type.PHASE_CHANGE, events.poll().getType(), "Phase changes come first within a step");
+        assertEquals(TrafficLight.Direction.NORTH, events.poll().getDirection());
+        assertEquals(7, events.poll().getTime());
+        assertNull(events.poll());
+        assertEquals(Long.MAX_VALUE, events.nextEventTime(), "An empty queue has no next event");
+    }
+}
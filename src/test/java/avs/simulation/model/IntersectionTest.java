@@ -25,9 +25,7 @@ class IntersectionTest {
 
     @Test
     void update() {
-        Map<TrafficLight.Direction, Queue<Vehicle>> queues = new EnumMap<>(TrafficLight.Direction.class);
-        queues.put(TrafficLight.Direction.NORTH, new LinkedList<>());
-        queues.put(TrafficLight.Direction.SOUTH, new LinkedList<>());
+        VehicleQueues queues = new VehicleQueues();
 
         intersection.update(queues);
 
@@ -39,7 +37,8 @@ class IntersectionTest {
 
     @Test
     void getCurrentGreenDirections() {
-        List<TrafficLight.Direction> greenDirs = intersection.getCurrentGreenDirections();
+        VehicleQueues queues = new VehicleQueues();
+        List<TrafficLight.Direction> greenDirs = intersection.getCurrentGreenDirections(queues);
         assertNotNull(greenDirs, "Green directions list should not be null");
         // Depending on controller, this may return 1-2 directions
         assertTrue(greenDirs.size() >= 0, "Green directions list should be zero or more");
@@ -47,22 +46,27 @@ class IntersectionTest {
 
     @Test
     void processVehicles() {
-        Map<TrafficLight.Direction, Queue<Vehicle>> queues = new EnumMap<>(TrafficLight.Direction.class);
-        Queue<Vehicle> northQueue = new LinkedList<>();
-        Vehicle v1 = new Vehicle("V1", TrafficLight.Direction.NORTH, TrafficLight.Direction.NORTH);
-        Vehicle v2 = new Vehicle("V2", TrafficLight.Direction.NORTH, TrafficLight.Direction.NORTH);
-        northQueue.add(v1);
-        northQueue.add(v2);
-        queues.put(TrafficLight.Direction.NORTH, northQueue);
+        VehicleQueues queues = new VehicleQueues();
+        Vehicle v1 = new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        Vehicle v2 = new Vehicle(2, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        queues.add(v1);
+        queues.add(v2);
 
         StepStatus status = new StepStatus();
         List<Vehicle> completed = new ArrayList<>();
 
+        // An approach releases one vehicle per step under the default discharge model
         intersection.processVehicles(queues, status, completed);
+        assertEquals(1, status.getLeftVehicleCount(), "Only the first vehicle should leave in the first step");
+        assertEquals(1, status.getLeftVehicle(0), "V1 should be marked as left");
 
-        assertEquals(2, completed.size(), "Should have processed 2 vehicles");
-        assertTrue(status.getLeftVehicles().contains("V1"), "V1 should be marked as left");
-        assertTrue(status.getLeftVehicles().contains("V2"), "V2 should be marked as left");
+        status.clear();
+        intersection.processVehicles(queues, status, completed);
+        assertEquals(1, status.getLeftVehicleCount(), "The second vehicle should leave in the next step");
+        assertEquals(2, status.getLeftVehicle(0), "V2 should be marked as left");
+
+        assertEquals(List.of(v1, v2), completed, "Should have processed 2 vehicles in order");
+        assertTrue(queues.isEmpty(TrafficLight.Direction.NORTH), "The queue should be drained");
     }
 
     @Test
@@ -76,7 +80,7 @@ class IntersectionTest {
         intersection.setControllerType(Intersection.ControllerType.PRIORITY);
         // Can be tested by checking behavior or internal field, but we rely on behavior:
         // After switching, check update or green direction still works
-        List<TrafficLight.Direction> greens = intersection.getCurrentGreenDirections();
+        List<TrafficLight.Direction> greens = intersection.getCurrentGreenDirections(new VehicleQueues());
         assertNotNull(greens, "Green directions should still be returned after controller switch");
     }
 }
@@ -0,0 +1,87 @@
+package avs.simulation.model.LightControlers;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.Vehicle;
+import avs.simulation.model.VehicleQueues;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ControllerRegistryTest {
+
+    /**
+     * Keeps every light green and lets only straight movements cross unless nothing else waits
+     */
+    static final class StraightFirstController extends CustomTrafficLightController {
+        StraightFirstController(Map<TrafficLight.Direction, TrafficLight> trafficLights) {
+            super(trafficLights);
+        }
+
+        @Override
+        protected void initializeLights() {
+            for (TrafficLight light : trafficLights.values()) {
+                light.setState(TrafficLight.LightState.GREEN, Integer.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void updateLightStates() {
+        }
+
+        @Override
+        public TurnPermission getTurnPermission(TrafficLight.Direction fromDirection, Vehicle.MovementType movementType) {
+            return movementType == Vehicle.MovementType.STRAIGHT ? TurnPermission.CROSS : TurnPermission.YIELD;
+        }
+
+        @Override
+        public TrafficLight.Direction getCurrentGreenDirection() {
+            return null;
+        }
+    }
+
+    static {
+        ControllerRegistry.register("straight-first", StraightFirstController::new);
+    }
+
+    @Test
+    void builtInControllers_areRegistered() {
+        for (Intersection.ControllerType type : Intersection.ControllerType.values()) {
+            assertTrue(ControllerRegistry.isRegistered(type.getControllerName()), type + " should be registered");
+        }
+        Map<TrafficLight.Direction, TrafficLight> lights = new EnumMap<>(TrafficLight.Direction.class);
+        for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
+            lights.put(dir, new TrafficLight());
+        }
+        assertTrue(ControllerRegistry.create("Priority", lights) instanceof PriorityTrafficLightController,
+                "Names should be case-insensitive");
+    }
+
+    @Test
+    void register_rejectsDuplicateAndUnknownNames() {
+        assertThrows(IllegalArgumentException.class,
+                () -> ControllerRegistry.register("standard", StandardTrafficLightController::new));
+        assertThrows(IllegalArgumentException.class, () -> new Intersection("no-such-controller"));
+    }
+
+    @Test
+    void intersection_followsTurnPermissionsOfCustomController() {
+        Intersection intersection = new Intersection("straight-first");
+        assertEquals("straight-first", intersection.getControllerName());
+
+        VehicleQueues queues = new VehicleQueues();
+        queues.add(new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH));
+        queues.add(new Vehicle(2, TrafficLight.Direction.EAST, TrafficLight.Direction.SOUTH));
+        assertEquals(1 << TrafficLight.Direction.NORTH.ordinal(), intersection.getCrossableDirections(queues),
+                "Only the straight movement should cross while a turn yields");
+
+        queues.poll(TrafficLight.Direction.NORTH);
+        assertEquals(1 << TrafficLight.Direction.EAST.ordinal(), intersection.getCrossableDirections(queues),
+                "The yielding turn should cross once nothing else waits");
+
+        intersection.setControllerType(Intersection.ControllerType.STANDARD);
+        assertEquals("standard", intersection.getControllerName());
+    }
+}
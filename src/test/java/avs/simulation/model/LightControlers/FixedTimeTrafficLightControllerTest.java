@@ -0,0 +1,99 @@
+package avs.simulation.model.LightControlers;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedTimeTrafficLightControllerTest {
+
+    private static Map<TrafficLight.Direction, TrafficLight> newLights() {
+        Map<TrafficLight.Direction, TrafficLight> lights = new EnumMap<>(TrafficLight.Direction.class);
+        for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
+            lights.put(dir, new TrafficLight());
+        }
+        return lights;
+    }
+
+    private static void assertSameLights(Map<TrafficLight.Direction, TrafficLight> expected,
+                                         Map<TrafficLight.Direction, TrafficLight> actual, String message) {
+        for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
+            assertEquals(expected.get(dir).getCurrentState(), actual.get(dir).getCurrentState(), message + " " + dir);
+            assertEquals(expected.get(dir).getRemainingTime(), actual.get(dir).getRemainingTime(), message + " " + dir);
+        }
+    }
+
+    @Test
+    void plan_unrollsStagesIntoCycle() {
+        PhasePlan plan = new PhasePlan("test", List.of(
+                PhasePlan.Stage.of(3, TrafficLight.LightState.GREEN, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH),
+                PhasePlan.Stage.of(1, TrafficLight.LightState.RED),
+                PhasePlan.Stage.of(2, TrafficLight.LightState.GREEN, TrafficLight.Direction.WEST)));
+
+        assertEquals(6, plan.getCycleLength());
+        assertEquals(TrafficLight.LightState.GREEN, plan.getState(2, TrafficLight.Direction.SOUTH));
+        assertEquals(TrafficLight.LightState.RED, plan.getState(3, TrafficLight.Direction.NORTH));
+        assertEquals(TrafficLight.Direction.NORTH, plan.getLead(3), "An all-red stage keeps the previous direction");
+        assertEquals(TrafficLight.Direction.WEST, plan.getLead(5));
+        assertEquals(3, plan.getStepsUntilChange(0));
+        assertEquals(1, plan.getStepsUntilChange(5), "The next change wraps around the end of the cycle");
+        assertThrows(IllegalArgumentException.class, () -> PhasePlan.Stage.of(0, TrafficLight.LightState.RED));
+    }
+
+    @Test
+    void updateLightStates_followsPlanAndReportsPhaseChanges() {
+        Map<TrafficLight.Direction, TrafficLight> lights = newLights();
+        StandardTrafficLightController controller = new StandardTrafficLightController(lights);
+        assertEquals(24, controller.getIdleCycleLength());
+
+        for (int step = 0; step < 2 * controller.getIdleCycleLength(); step++) {
+            int untilChange = controller.getStepsUntilPhaseChange();
+            TrafficLight.LightState[] before = new TrafficLight.LightState[4];
+            for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
+                before[dir.ordinal()] = lights.get(dir).getCurrentState();
+            }
+            controller.updateLightStates();
+
+            boolean changed = false;
+            for (TrafficLight.Direction dir : TrafficLight.Direction.values()) {
+                changed |= before[dir.ordinal()] != lights.get(dir).getCurrentState();
+            }
+            assertEquals(untilChange == 1, changed, "Phase change at step " + step);
+        }
+        assertEquals(0, controller.getPosition(), "Two whole cycles end where they started");
+    }
+
+    @Test
+    void advanceIdle_matchesSteppingThrough() {
+        for (long steps : new long[]{1, 5, 13, 14, 29, 1_000_003}) {
+            Map<TrafficLight.Direction, TrafficLight> stepped = newLights();
+            Map<TrafficLight.Direction, TrafficLight> jumped = newLights();
+            OpposingTrafficLightController reference = new OpposingTrafficLightController(stepped);
+            OpposingTrafficLightController controller = new OpposingTrafficLightController(jumped);
+
+            for (long i = 0; i < steps % reference.getIdleCycleLength() + reference.getIdleCycleLength(); i++) {
+                reference.updateLightStates();
+            }
+            assertTrue(controller.advanceIdle(steps));
+            assertSameLights(stepped, jumped, "After " + steps + " steps");
+            assertEquals(reference.getCurrentGreenDirection(), controller.getCurrentGreenDirection());
+        }
+    }
+
+    @Test
+    void register_makesPlanAvailableByName() {
+        PhasePlan plan = new PhasePlan("north-only", List.of(
+                PhasePlan.Stage.of(5, TrafficLight.LightState.GREEN, TrafficLight.Direction.NORTH)));
+        FixedTimeTrafficLightController.register(plan);
+
+        Map<TrafficLight.Direction, TrafficLight> lights = newLights();
+        AbstractTrafficLightController controller = ControllerRegistry.create("north-only", lights);
+        controller.updateLightStates();
+        assertTrue(controller.canVehicleCross(TrafficLight.Direction.NORTH));
+        assertFalse(controller.canVehicleCross(TrafficLight.Direction.EAST));
+        assertThrows(IllegalArgumentException.class, () -> FixedTimeTrafficLightController.register(plan));
+    }
+}
@@ -1,6 +1,7 @@
 package avs.simulation.model.LightControlers;
 
 import avs.simulation.model.Vehicle;
+import avs.simulation.model.VehicleQueues;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -51,10 +52,8 @@ class PriorityTrafficLightControllerTest {
                 "NORTH light should be RED after green ends");
 
         // Add high queue count to SOUTH before switching
-        Map<TrafficLight.Direction, Queue<Vehicle>> queues = new EnumMap<>(TrafficLight.Direction.class);
-        Queue<Vehicle> southQueue = new LinkedList<>();
-        for (int i = 0; i < 5; i++) southQueue.add(new Vehicle("V" + i, TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST));
-        queues.put(TrafficLight.Direction.SOUTH, southQueue);
+        VehicleQueues queues = new VehicleQueues();
+        for (int i = 0; i < 5; i++) queues.get(TrafficLight.Direction.SOUTH).add(new Vehicle(i, TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST));
 
         controller.updateQueueLengths(queues);
 
@@ -88,11 +87,9 @@ class PriorityTrafficLightControllerTest {
 
     @Test
     void updateQueueLengths() {
-        Map<TrafficLight.Direction, Queue<Vehicle>> queues = new EnumMap<>(TrafficLight.Direction.class);
-        Queue<Vehicle> eastQueue = new LinkedList<>();
-        eastQueue.add(new Vehicle("v1", TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST));
-        eastQueue.add(new Vehicle("v2", TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST));
-        queues.put(TrafficLight.Direction.EAST, eastQueue);
+        VehicleQueues queues = new VehicleQueues();
+        queues.get(TrafficLight.Direction.EAST).add(new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST));
+        queues.get(TrafficLight.Direction.EAST).add(new Vehicle(2, TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST));
 
         controller.updateQueueLengths(queues);
 
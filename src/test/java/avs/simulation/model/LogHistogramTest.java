@@ -0,0 +1,46 @@
+package avs.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LogHistogramTest {
+
+    @Test
+    void bucketOf_coversEveryValueOnce() {
+        assertEquals(0, LogHistogram.bucketOf(0));
+        assertEquals(3, LogHistogram.bucketOf(3));
+        for (int bucket = 0; bucket < LogHistogram.BUCKET_COUNT - 1; bucket++) {
+            assertEquals(bucket, LogHistogram.bucketOf(LogHistogram.lowerBound(bucket)));
+            assertEquals(bucket, LogHistogram.bucketOf(LogHistogram.upperBound(bucket)));
+            assertEquals(LogHistogram.upperBound(bucket) + 1, LogHistogram.lowerBound(bucket + 1));
+        }
+        assertEquals(LogHistogram.BUCKET_COUNT - 1, LogHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    void bucketWidth_isAtMostAQuarterOfItsLowerBound() {
+        for (int bucket = 4; bucket < LogHistogram.BUCKET_COUNT - 1; bucket++) {
+            long width = LogHistogram.upperBound(bucket) - LogHistogram.lowerBound(bucket) + 1;
+            assertTrue(width * 4 <= LogHistogram.lowerBound(bucket), "Bucket " + bucket + " is too wide");
+        }
+    }
+
+    @Test
+    void record_tracksCountMeanMaxAndPercentiles() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 1; value <= 100; value++) {
+            histogram.record(value);
+        }
+        histogram.record(0, 100);
+
+        assertEquals(200, histogram.getTotalCount());
+        assertEquals(25.25, histogram.getMean(), 1e-9);
+        assertEquals(100, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(50));
+        long p90 = histogram.getPercentile(90);
+        assertTrue(p90 >= 80 && p90 <= 100, "90th percentile estimate " + p90);
+        assertEquals(100, histogram.getPercentile(100));
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+    }
+}
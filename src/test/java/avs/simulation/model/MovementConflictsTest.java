@@ -0,0 +1,80 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import static avs.simulation.model.LightControlers.TrafficLight.Direction.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovementConflictsTest {
+
+    private static int movement(TrafficLight.Direction from, Vehicle.MovementType type) {
+        return MovementConflicts.index(from, type);
+    }
+
+    private static int approaches(TrafficLight.Direction... directions) {
+        int mask = 0;
+        for (TrafficLight.Direction direction : directions) {
+            mask |= 1 << direction.ordinal();
+        }
+        return mask;
+    }
+
+    @Test
+    void conflicts_areSymmetricAndFollowGeometry() {
+        for (int a = 0; a < MovementConflicts.MOVEMENT_COUNT; a++) {
+            for (int b = 0; b < MovementConflicts.MOVEMENT_COUNT; b++) {
+                assertEquals(MovementConflicts.conflict(a, b), MovementConflicts.conflict(b, a), a + " and " + b);
+            }
+        }
+        assertFalse(MovementConflicts.conflict(movement(NORTH, Vehicle.MovementType.STRAIGHT),
+                movement(SOUTH, Vehicle.MovementType.STRAIGHT)), "Opposing straight flows pass each other");
+        assertTrue(MovementConflicts.conflict(movement(NORTH, Vehicle.MovementType.STRAIGHT),
+                movement(EAST, Vehicle.MovementType.STRAIGHT)), "Crossing straight flows conflict");
+        assertTrue(MovementConflicts.conflict(movement(NORTH, Vehicle.MovementType.RIGHT),
+                movement(SOUTH, Vehicle.MovementType.STRAIGHT)), "RIGHT cuts across the opposing flow");
+        assertFalse(MovementConflicts.conflict(movement(NORTH, Vehicle.MovementType.RIGHT),
+                movement(SOUTH, Vehicle.MovementType.RIGHT)), "Opposing RIGHT movements pass each other");
+        assertTrue(MovementConflicts.conflict(movement(NORTH, Vehicle.MovementType.LEFT),
+                movement(WEST, Vehicle.MovementType.STRAIGHT)), "Both end on the east road");
+        assertFalse(MovementConflicts.conflict(movement(NORTH, Vehicle.MovementType.LEFT),
+                movement(EAST, Vehicle.MovementType.LEFT)), "Short turns of neighbouring roads pass");
+    }
+
+    @Test
+    void conflicts_separateUTurnsFromStraightMovements() {
+        int uTurn = MovementConflicts.index(NORTH, NORTH);
+        assertTrue(MovementConflicts.isUTurn(uTurn));
+        assertNotEquals(movement(NORTH, Vehicle.MovementType.STRAIGHT), uTurn);
+        assertEquals(movement(NORTH, Vehicle.MovementType.STRAIGHT), MovementConflicts.index(NORTH, SOUTH));
+
+        assertTrue(MovementConflicts.conflict(uTurn, movement(SOUTH, Vehicle.MovementType.STRAIGHT)),
+                "A U-turn cuts across the opposing flow");
+        assertTrue(MovementConflicts.conflict(uTurn, movement(SOUTH, Vehicle.MovementType.LEFT)),
+                "A U-turn ends where the opposing short turn passes");
+        assertTrue(MovementConflicts.conflict(uTurn, MovementConflicts.index(SOUTH, SOUTH)));
+        for (Vehicle.MovementType type : Vehicle.MovementType.values()) {
+            assertFalse(MovementConflicts.conflict(uTurn, movement(NORTH, type)), "Same approach never conflicts");
+        }
+
+        int[] movements = {uTurn, 0, movement(SOUTH, Vehicle.MovementType.STRAIGHT), 0};
+        assertEquals(approaches(NORTH), MovementConflicts.admit(movements, approaches(NORTH, SOUTH), 0),
+                "A U-turn is not admitted with the opposing straight flow");
+    }
+
+    @Test
+    void admit_picksLargestCompatibleSet() {
+        int[] movements = {
+                movement(NORTH, Vehicle.MovementType.STRAIGHT),
+                movement(EAST, Vehicle.MovementType.STRAIGHT),
+                movement(SOUTH, Vehicle.MovementType.STRAIGHT),
+                movement(WEST, Vehicle.MovementType.LEFT)};
+        int all = approaches(NORTH, EAST, SOUTH, WEST);
+
+        assertEquals(approaches(NORTH, SOUTH), MovementConflicts.admit(movements, all, 0));
+        assertEquals(approaches(EAST, WEST), MovementConflicts.admit(movements, approaches(EAST), approaches(NORTH, WEST)),
+                "Yielding movements only cross beside the admitted ones");
+        assertEquals(approaches(NORTH), MovementConflicts.admit(movements, 0, approaches(NORTH, EAST)),
+                "Conflicting yields are admitted as if crossing");
+    }
+}
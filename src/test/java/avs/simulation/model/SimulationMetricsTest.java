@@ -0,0 +1,78 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static avs.simulation.model.LightControlers.TrafficLight.Direction.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulationMetricsTest {
+
+    /**
+     * Returns a vehicle that started crossing after waiting the given number of steps
+     */
+    private static Vehicle departed(TrafficLight.Direction from, TrafficLight.Direction to, int wait) {
+        SimulationClock clock = new SimulationClock();
+        Vehicle vehicle = new Vehicle(0, from, to, clock);
+        clock.advance(wait);
+        vehicle.startCrossing();
+        return vehicle;
+    }
+
+    @Test
+    void recordDepartures_groupsWaitTimesByDirectionMovementAndPhase() {
+        SimulationMetrics metrics = new SimulationMetrics();
+        Vehicle straight = departed(NORTH, SOUTH, 3);
+        Vehicle turning = departed(NORTH, EAST, 5);
+        metrics.recordDepartures(List.of(straight, turning), NORTH);
+        metrics.recordDepartures(List.of(departed(WEST, EAST, 8)), null);
+        metrics.recordDepartures(List.of(), SOUTH);
+
+        assertEquals(3, metrics.getWaitTimes().getTotalCount());
+        assertEquals(8, metrics.getWaitTimes().getMax());
+        assertEquals(2, metrics.getWaitTimes(NORTH).getTotalCount());
+        assertEquals(4.0, metrics.getWaitTimes(NORTH).getMean(), 1e-9);
+        assertEquals(1, metrics.getWaitTimes(turning.getMovementType()).getTotalCount());
+        assertEquals(2, metrics.getDeparturesInPhase(NORTH));
+        assertEquals(0, metrics.getDeparturesInPhase(SOUTH));
+        assertEquals(0, metrics.getDeparturesInPhase(WEST), "Departures without a phase count for none");
+    }
+
+    @Test
+    void recordQueueLengths_weightsLengthsByTheStepsTheyHeld() {
+        SimulationMetrics metrics = new SimulationMetrics();
+        VehicleQueues queues = new VehicleQueues();
+        metrics.closeSample(5);
+        assertEquals(0, metrics.getSampledSteps(), "Nothing is sampled before the first queue lengths");
+
+        metrics.recordQueueLengths(10, queues);
+        queues.add(new Vehicle(0, NORTH, SOUTH));
+        queues.add(new Vehicle(1, NORTH, SOUTH));
+        metrics.recordQueueLengths(13, queues);
+        metrics.closeSample(18);
+
+        LogHistogram north = metrics.getQueueLengths(NORTH);
+        assertEquals(8, metrics.getSampledSteps());
+        assertEquals(8, north.getTotalCount());
+        assertEquals(3, north.getCount(LogHistogram.bucketOf(0)));
+        assertEquals(5, north.getCount(LogHistogram.bucketOf(2)));
+        assertEquals(8, metrics.getQueueLengths(EAST).getCount(LogHistogram.bucketOf(0)));
+    }
+
+    @Test
+    void recordPhase_countsGreenStartsOnly() {
+        SimulationMetrics metrics = new SimulationMetrics();
+        metrics.recordPhase(NORTH, true);
+        metrics.recordPhase(NORTH, true);
+        metrics.recordPhase(NORTH, false);
+        metrics.recordPhase(NORTH, true);
+        metrics.recordPhase(SOUTH, true);
+        metrics.recordPhase(null, false);
+
+        assertEquals(2, metrics.getPhasesServed(NORTH));
+        assertEquals(1, metrics.getPhasesServed(SOUTH));
+    }
+
+}
@@ -11,22 +11,34 @@ class StepStatusTest {
     @Test
     void addLeftVehicle() {
         StepStatus stepStatus = new StepStatus();
-        stepStatus.addLeftVehicle("V123");
+        stepStatus.addLeftVehicle(7);
 
-        List<String> leftVehicles = stepStatus.getLeftVehicles();
-        assertEquals(1, leftVehicles.size(), "List should contain one vehicle");
-        assertTrue(leftVehicles.contains("V123"), "Vehicle ID 'V123' should be in the list");
+        assertEquals(1, stepStatus.getLeftVehicleCount(), "Status should contain one vehicle");
+        assertEquals(7, stepStatus.getLeftVehicle(0), "Handle 7 should be in the status");
+        assertFalse(stepStatus.isEmpty());
     }
 
     @Test
     void getLeftVehicles() {
+        VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
         StepStatus stepStatus = new StepStatus();
-        stepStatus.addLeftVehicle("V1");
-        stepStatus.addLeftVehicle("V2");
+        stepStatus.addLeftVehicle(vehicleIds.register("V1"));
+        stepStatus.addLeftVehicle(vehicleIds.register("V2"));
 
-        List<String> leftVehicles = stepStatus.getLeftVehicles();
+        List<String> leftVehicles = stepStatus.getLeftVehicles(vehicleIds);
         assertNotNull(leftVehicles, "Returned list should not be null");
         assertEquals(2, leftVehicles.size(), "List should contain two vehicles");
         assertEquals(List.of("V1", "V2"), leftVehicles, "List should match the added vehicles");
     }
+
+    @Test
+    void grows_beyondInitialCapacity() {
+        StepStatus stepStatus = new StepStatus();
+        for (int i = 0; i < 100; i++) {
+            stepStatus.addLeftVehicle(i);
+        }
+
+        assertEquals(100, stepStatus.getLeftVehicleCount());
+        assertEquals(99, stepStatus.getLeftVehicle(99));
+    }
 }
@@ -0,0 +1,45 @@
+package avs.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleIdDictionaryTest {
+
+    @Test
+    void register_assignsDenseHandles() {
+        VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+
+        assertEquals(0, vehicleIds.register("car1"));
+        assertEquals(1, vehicleIds.register("car2"));
+        assertEquals("car1", vehicleIds.resolve(0));
+        assertEquals("car2", vehicleIds.resolve(1));
+        assertEquals(2, vehicleIds.size());
+    }
+
+    @Test
+    void release_reusesHandles() {
+        VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+        int first = vehicleIds.register("car1");
+        vehicleIds.register("car2");
+
+        vehicleIds.release(first);
+        assertNull(vehicleIds.resolve(first), "Released handles should not resolve");
+        assertEquals(1, vehicleIds.size());
+
+        assertEquals(first, vehicleIds.register("car3"), "Released handle should be reused");
+        assertEquals("car3", vehicleIds.resolve(first));
+        assertEquals(2, vehicleIds.getHandleLimit(), "Reuse should not grow the table");
+    }
+
+    @Test
+    void register_growsBeyondInitialCapacity() {
+        VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+        for (int i = 0; i < 1000; i++) {
+            vehicleIds.register("car" + i);
+        }
+
+        assertEquals(1000, vehicleIds.size());
+        assertEquals("car999", vehicleIds.resolve(999));
+    }
+}
@@ -0,0 +1,84 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleQueueTest {
+
+    @Test
+    void poll_returnsVehiclesInArrivalOrder() {
+        VehicleQueue queue = new VehicleQueue();
+        Vehicle first = new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH);
+        Vehicle second = new Vehicle(2, TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST);
+        queue.add(first);
+        queue.add(second);
+
+        assertSame(first, queue.peek());
+        assertSame(first, queue.poll());
+        assertSame(second, queue.poll());
+        assertNull(queue.poll(), "Empty queue should return null");
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    void grow_keepsOrderWhenWrappedAround() {
+        VehicleQueue queue = new VehicleQueue();
+        Deque<Vehicle> expected = new ArrayDeque<>();
+        Random random = new Random(1);
+
+        for (int i = 0; i < 10_000; i++) {
+            if (random.nextInt(3) == 0) {
+                assertSame(expected.poll(), queue.poll());
+            } else {
+                Vehicle vehicle = new Vehicle(i, TrafficLight.Direction.WEST, TrafficLight.Direction.EAST);
+                expected.add(vehicle);
+                queue.add(vehicle);
+            }
+            assertEquals(expected.size(), queue.size());
+        }
+
+        int index = 0;
+        for (Vehicle vehicle : expected) {
+            assertSame(vehicle, queue.get(index++));
+        }
+    }
+
+    @Test
+    void get_rejectsPositionsOutsideQueue() {
+        VehicleQueue queue = new VehicleQueue();
+        queue.add(new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH));
+
+        assertThrows(NoSuchElementException.class, () -> queue.get(1));
+    }
+
+    @Test
+    void pollMany_removesVehiclesAcrossTheWrapAround() {
+        VehicleQueue queue = new VehicleQueue();
+        for (int i = 0; i < 12; i++) {
+            queue.add(new Vehicle(i, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH));
+        }
+        for (int i = 0; i < 12; i++) {
+            queue.poll();
+        }
+        for (int i = 0; i < 10; i++) {
+            queue.add(new Vehicle(100 + i, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH));
+        }
+
+        Vehicle[] released = new Vehicle[8];
+        assertEquals(8, queue.poll(released, 8));
+        for (int i = 0; i < 8; i++) {
+            assertEquals(100 + i, released[i].getHandle());
+        }
+        assertEquals(2, queue.poll(released, 8), "Only the remaining vehicles are removed");
+        assertEquals(109, released[1].getHandle());
+        assertTrue(queue.isEmpty());
+        assertNull(queue.peek());
+    }
+}
@@ -0,0 +1,62 @@
+package avs.simulation.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleRegistryTest {
+
+    @Test
+    void put_indexesValuesByHandle() {
+        VehicleRegistry<String> registry = new VehicleRegistry<>();
+        registry.put(3, "car3");
+        registry.put(1000, "car1000");
+
+        assertEquals("car3", registry.get(3));
+        assertEquals("car1000", registry.get(1000));
+        assertNull(registry.get(4));
+        assertNull(registry.get(5000));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    void remove_keepsInsertionOrderOfOthers() {
+        VehicleRegistry<String> registry = new VehicleRegistry<>();
+        for (int handle = 0; handle < 5; handle++) {
+            registry.put(handle, "car" + handle);
+        }
+
+        assertEquals("car2", registry.remove(2));
+        assertNull(registry.remove(2), "A removed vehicle should not be removed twice");
+        assertEquals("car0", registry.removeFirst());
+        registry.put(2, "car2b");
+        assertEquals("car1", registry.put(1, "car1b"), "Replacing should keep the position");
+
+        List<String> values = new ArrayList<>();
+        registry.forEach(values::add);
+        assertEquals(List.of("car1b", "car3", "car4", "car2b"), values);
+        assertEquals("car1b", registry.peekFirst());
+    }
+
+    @Test
+    void iterator_allowsRemovingTheCurrentValue() {
+        VehicleRegistry<Integer> registry = new VehicleRegistry<>();
+        for (int handle = 0; handle < 6; handle++) {
+            registry.put(handle, handle);
+        }
+
+        for (Integer value : registry) {
+            if (value % 2 == 0) {
+                registry.remove(value);
+            }
+        }
+
+        List<Integer> values = new ArrayList<>();
+        registry.forEach(values::add);
+        assertEquals(List.of(1, 3, 5), values);
+        assertEquals(3, registry.size());
+    }
+}
@@ -0,0 +1,72 @@
+package avs.simulation.model;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VehicleRetentionTest {
+
+    /**
+     * Registers vehicles that started crossing at steps 0 to count - 1, one per step
+     */
+    private static VehicleRegistry<Vehicle> departed(int count) {
+        SimulationClock clock = new SimulationClock();
+        VehicleRegistry<Vehicle> vehicles = new VehicleRegistry<>();
+        for (int handle = 0; handle < count; handle++) {
+            Vehicle vehicle = new Vehicle(handle, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH, clock);
+            vehicle.startCrossing();
+            vehicles.put(handle, vehicle);
+            clock.advance();
+        }
+        return vehicles;
+    }
+
+    @Test
+    void keepLast_dropsOldestVehicles() {
+        VehicleRegistry<Vehicle> vehicles = departed(10);
+        VehicleRetention.keepLast(3).evict(vehicles, 10);
+
+        assertEquals(3, vehicles.size());
+        assertEquals(7, vehicles.peekFirst().getHandle());
+    }
+
+    @Test
+    void keepWindow_dropsVehiclesThatLeftBeforeTheWindow() {
+        VehicleRegistry<Vehicle> vehicles = departed(10);
+        VehicleRetention.keepWindow(4).evict(vehicles, 10);
+
+        assertEquals(4, vehicles.size());
+        assertEquals(6, vehicles.peekFirst().getHandle());
+    }
+
+    @Test
+    void keepNone_dropsEveryVehicle() {
+        VehicleRegistry<Vehicle> vehicles = departed(10);
+        VehicleRetention.keepNone().evict(vehicles, 10);
+
+        assertTrue(vehicles.isEmpty());
+    }
+
+    @Test
+    void evict_passesDroppedVehiclesOldestFirst() {
+        VehicleRegistry<Vehicle> vehicles = departed(10);
+        List<Integer> evicted = new ArrayList<>();
+        VehicleRetention.keepLast(7).evict(vehicles, 10, vehicle -> evicted.add(vehicle.getHandle()));
+
+        assertEquals(List.of(0, 1, 2), evicted);
+    }
+
+    @Test
+    void parse_readsEveryKind() {
+        assertEquals(VehicleRetention.Kind.NONE, VehicleRetention.parse("none").getKind());
+        assertEquals(500, VehicleRetention.parse("last:500").getLimit());
+        assertEquals(VehicleRetention.Kind.WINDOW, VehicleRetention.parse(" Window:60 ").getKind());
+        assertThrows(IllegalArgumentException.class, () -> VehicleRetention.parse("last"));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRetention.parse("window:-1"));
+        assertThrows(IllegalArgumentException.class, () -> VehicleRetention.parse("all"));
+    }
+}
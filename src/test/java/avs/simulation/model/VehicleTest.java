@@ -9,25 +9,45 @@ import static avs.simulation.model.Vehicle.VehicleState;
 
 class VehicleTest {
 
+    private SimulationClock clock;
     private Vehicle vehicle;
 
     @BeforeEach
     void setUp() {
-        vehicle = new Vehicle("V1", TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST);
+        clock = new SimulationClock();
+        vehicle = new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST, clock);
     }
 
     @Test
-    void update_shouldIncreaseWaitingTime_whenInWaitingState() {
-        vehicle.update();
-        vehicle.update();
-        assertEquals("Vehicle[V1: NORTH->EAST, WAITING, waited: 2s]", vehicle.toString());
+    void waitingTime_shouldIncrease_whenInWaitingState() {
+        clock.advance();
+        clock.advance();
+        assertEquals("Vehicle[#1: NORTH->EAST, WAITING, waited: 2s]", vehicle.toString());
     }
 
     @Test
-    void update_shouldNotIncreaseWaitingTime_whenCrossing() {
+    void waitingTime_shouldNotIncrease_whenCrossing() {
         vehicle.startCrossing();
-        vehicle.update();
-        assertEquals("Vehicle[V1: NORTH->EAST, CROSSING, waited: 0s]", vehicle.toString());
+        clock.advance();
+        assertEquals("Vehicle[#1: NORTH->EAST, CROSSING, waited: 0s]", vehicle.toString());
+    }
+
+    @Test
+    void waitingTime_shouldStopAtCrossing() {
+        clock.advance();
+        clock.advance();
+        clock.advance();
+        vehicle.startCrossing();
+        clock.advance();
+        assertEquals(3, vehicle.getWaitingTime());
+    }
+
+    @Test
+    void waitingTime_shouldStartAtArrival() {
+        clock.advance();
+        Vehicle late = new Vehicle(2, TrafficLight.Direction.SOUTH, TrafficLight.Direction.NORTH, clock);
+        clock.advance();
+        assertEquals(1, late.getWaitingTime());
     }
 
     @Test
@@ -44,8 +64,8 @@ class VehicleTest {
     }
 
     @Test
-    void getVehicleId_shouldReturnCorrectId() {
-        assertEquals("V1", vehicle.getVehicleId());
+    void getHandle_shouldReturnCorrectHandle() {
+        assertEquals(1, vehicle.getHandle());
     }
 
     @Test
@@ -61,12 +81,20 @@ class VehicleTest {
     @Test
     void testToString_shouldContainVehicleInfo() {
         String output = vehicle.toString();
-        assertTrue(output.contains("V1"));
+        assertTrue(output.contains("#1"));
         assertTrue(output.contains("NORTH->EAST"));
         assertTrue(output.contains("WAITING"));
         assertTrue(output.contains("waited: 0s"));
     }
 
+    @Test
+    void testToString_shouldShowVehicleId_whenKnown() {
+        Vehicle named = new Vehicle(1, "V1", TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST, clock);
+        clock.advance();
+        assertEquals("Vehicle[V1: NORTH->EAST, WAITING, waited: 1s]", named.toString());
+        assertEquals("V1", named.getVehicleId());
+    }
+
     @Test
     void getMovementType_shouldReturnCorrectType() {
 
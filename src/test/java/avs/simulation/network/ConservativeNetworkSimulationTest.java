@@ -0,0 +1,52 @@
+package avs.simulation.network;
+
+import avs.simulation.Scenarios;
+import avs.simulation.model.Intersection;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConservativeNetworkSimulationTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void run_matchesLockstepRun() throws IOException {
+        for (int linkDelay : new int[]{1, 4}) {
+            RoadNetwork network = RoadNetwork.grid(10, 10, linkDelay, Intersection.ControllerType.STANDARD);
+            String scenario = Scenarios.gridScenario(10, 3_000, linkDelay);
+
+            Path expected = tempDir.resolve("lockstep-" + linkDelay + ".json");
+            new NetworkSimulation(network).run(Scenarios.readerFor(scenario), expected.toString());
+
+            for (int partitions : new int[]{1, 3, 8}) {
+                Path actual = tempDir.resolve("conservative-" + linkDelay + "-" + partitions + ".json");
+                ConservativeNetworkSimulation simulation = new ConservativeNetworkSimulation(network, partitions);
+                simulation.run(Scenarios.readerFor(scenario), actual.toString());
+
+                assertEquals(Files.readString(expected), Files.readString(actual),
+                        partitions + " partitions with link delay " + linkDelay + " should match the lockstep run");
+                assertTrue(simulation.getStepCount() > 0);
+            }
+        }
+    }
+
+    @Test
+    void run_rejectsRoutesLeavingTheNetwork() {
+        RoadNetwork network = RoadNetwork.grid(2, 2, 1, Intersection.ControllerType.STANDARD);
+        String scenario = """
+                {"commands": [{"type": "addVehicle", "vehicleId": "car1", "intersection": "r0c0",
+                               "startRoad": "south", "route": ["north", "east"]},
+                              {"type": "step"}]}
+                """;
+
+        assertThrows(IllegalArgumentException.class, () -> new ConservativeNetworkSimulation(network, 2)
+                .run(Scenarios.readerFor(scenario), tempDir.resolve("output.json").toString()));
+    }
+}
@@ -0,0 +1,194 @@
+package avs.simulation.network;
+
+import avs.simulation.Scenarios;
+import avs.simulation.util.CommandReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkCoordinatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void run_withWorkerThreadsOverUnixSockets_matchesLockstepRun() throws Exception {
+        Path scenario = writeScenario(3);
+        Path expected = runLockstep(scenario);
+
+        Path actual = tempDir.resolve("distributed.json");
+        try (NetworkCoordinator coordinator = new NetworkCoordinator(scenario.toFile(), 4,
+                UnixDomainSocketAddress.of(tempDir.resolve("coordinator.sock")))) {
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < coordinator.getWorkerCount(); i++) {
+                Thread worker = new Thread(() -> {
+                    try {
+                        NetworkWorker.run(coordinator.getAddress());
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                worker.start();
+                workers.add(worker);
+            }
+
+            coordinator.run(CommandReader.open(scenario.toFile()), actual.toString());
+            for (Thread worker : workers) {
+                worker.join(10_000);
+            }
+            assertNull(failure.get(), "Workers should shut down cleanly");
+            assertTrue(coordinator.getStepCount() > 0);
+        }
+
+        assertEquals(Files.readString(expected), Files.readString(actual));
+    }
+
+    @Test
+    void run_withWorkerProcessesOverTcp_matchesLockstepRun() throws Exception {
+        Path scenario = writeScenario(1);
+        Path expected = runLockstep(scenario);
+
+        Path actual = tempDir.resolve("distributed.json");
+        try (NetworkCoordinator coordinator = new NetworkCoordinator(scenario.toFile(), 3,
+                new InetSocketAddress("127.0.0.1", 0))) {
+            List<Process> processes = coordinator.spawnLocalWorkers();
+            try {
+                coordinator.run(CommandReader.open(scenario.toFile()), actual.toString());
+                for (Process process : processes) {
+                    assertTrue(process.waitFor(30, TimeUnit.SECONDS), "Worker should exit after the run");
+                    assertEquals(0, process.exitValue(), "Worker should exit cleanly");
+                }
+            } finally {
+                processes.forEach(Process::destroyForcibly);
+            }
+        }
+
+        assertEquals(Files.readString(expected), Files.readString(actual));
+    }
+
+    @Test
+    void run_sendsStepsAheadOfWorkersThatHaveNotReportedYet() throws Exception {
+        int steps = 40;
+        int maxStepsAhead = 16;
+        StringBuilder json = new StringBuilder("{\"network\": {\"intersections\": [{\"id\": \"A\"}, {\"id\": \"B\"}]}, "
+                + "\"commands\": [");
+        for (int step = 0; step < steps; step++) {
+            json.append("{\"type\": \"addVehicle\", \"vehicleId\": \"car").append(step)
+                    .append("\", \"intersection\": \"B\", \"startRoad\": \"north\", \"route\": [\"south\"]}, ");
+            json.append("{\"type\": \"step\"}").append(step + 1 < steps ? ", " : "");
+        }
+        Path scenario = tempDir.resolve("unlinked.json");
+        Files.writeString(scenario, json.append("]}").toString());
+        Path expected = runLockstep(scenario);
+
+        Path actual = tempDir.resolve("distributed.json");
+        try (NetworkCoordinator coordinator = new NetworkCoordinator(scenario.toFile(), 2,
+                UnixDomainSocketAddress.of(tempDir.resolve("coordinator.sock")))) {
+            coordinator.setMaxStepsAhead(maxStepsAhead);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread run = new Thread(() -> {
+                try {
+                    coordinator.run(CommandReader.open(scenario.toFile()), actual.toString());
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            });
+            run.start();
+
+            // Connects first and so owns intersection A, which never has any traffic
+            try (FrameConnection lagging = new FrameConnection(Endpoint.connect(coordinator.getAddress()))) {
+                lagging.begin().writeUTF("unused");
+                lagging.send(FrameConnection.HELLO);
+                lagging.flush();
+                Thread worker = new Thread(() -> {
+                    try {
+                        NetworkWorker.run(coordinator.getAddress());
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                });
+                worker.start();
+
+                assertEquals(0, lagging.expect(FrameConnection.ASSIGN).readInt());
+                lagging.begin();
+                lagging.send(FrameConnection.READY);
+                lagging.flush();
+
+                // Without reporting a single step, the other worker can run this far ahead
+                for (long step = 1; step <= maxStepsAhead; step++) {
+                    assertEquals(step, lagging.expect(FrameConnection.STEP).readLong());
+                }
+                // Then each report lets it send one more step
+                for (long step = maxStepsAhead + 1; step <= steps; step++) {
+                    report(lagging, step - maxStepsAhead);
+                    assertEquals(step, lagging.expect(FrameConnection.STEP).readLong());
+                }
+                for (long step = steps - maxStepsAhead + 1; step <= steps; step++) {
+                    report(lagging, step);
+                }
+                lagging.expect(FrameConnection.SHUTDOWN);
+                worker.join(10_000);
+            }
+            run.join(10_000);
+            assertFalse(run.isAlive(), "The run should end once every step is reported");
+            assertNull(failure.get(), "The run and the worker should end cleanly");
+            assertEquals(steps, coordinator.getStepCount());
+        }
+
+        assertTrue(Files.readString(expected).contains("car"));
+        assertEquals(Files.readString(expected), Files.readString(actual));
+    }
+
+    /**
+     * Reports a step without any vehicles leaving the network
+     */
+    private static void report(FrameConnection worker, long step) throws IOException {
+        DataOutputStream payload = worker.begin();
+        payload.writeLong(step);
+        payload.writeInt(0);
+        worker.send(FrameConnection.EXITS);
+        worker.flush();
+    }
+
+    @Test
+    void run_failsWhenWorkersDoNotConnect() throws IOException {
+        Path scenario = writeScenario(1);
+        try (NetworkCoordinator coordinator = new NetworkCoordinator(scenario.toFile(), 2,
+                new InetSocketAddress("127.0.0.1", 0))) {
+            coordinator.setAcceptTimeoutMillis(100);
+            assertThrows(IOException.class, () -> coordinator.run(CommandReader.open(scenario.toFile()),
+                    tempDir.resolve("output.json").toString()));
+        }
+    }
+
+    /**
+     * Writes a scenario with a grid network and random routed vehicles
+     */
+    private Path writeScenario(int linkDelay) throws IOException {
+        String commands = Scenarios.gridScenario(8, 2_000, linkDelay);
+        String network = "{\"network\": {\"grid\": {\"rows\": 8, \"columns\": 8, \"linkDelay\": " + linkDelay + "}}, ";
+        Path scenario = tempDir.resolve("scenario-" + linkDelay + ".json");
+        Files.writeString(scenario, network + commands.substring(1));
+        return scenario;
+    }
+
+    private Path runLockstep(Path scenario) throws IOException {
+        RoadNetwork network = RoadNetworkLoader.load(scenario.toFile());
+        Path output = tempDir.resolve("lockstep.json");
+        new NetworkSimulation(network).run(CommandReader.open(scenario.toFile()), output.toString());
+        return output;
+    }
+}
@@ -0,0 +1,176 @@
+package avs.simulation.network;
+
+import avs.simulation.Scenarios;
+import avs.simulation.Simulation;
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.StepStatus;
+import avs.simulation.util.BinaryCommandWriter;
+import avs.simulation.util.CommandReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NetworkSimulationTest {
+
+    private static final TrafficLight.Direction[] DIRECTIONS = TrafficLight.Direction.values();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void singleIntersection_matchesSimulation() throws IOException {
+        String single = Scenarios.randomScenario(5_000, 3);
+        String routed = Scenarios.randomScenario(5_000, 3, "A");
+
+        for (Intersection.ControllerType type : Intersection.ControllerType.values()) {
+            Path expected = tempDir.resolve(type + "-single.json");
+            Simulation simulation = new Simulation();
+            simulation.setIntersectionControllerType(type);
+            simulation.run(Scenarios.readerFor(single), expected.toString());
+
+            RoadNetwork network = new RoadNetwork();
+            network.addIntersection("A", type);
+            Path actual = tempDir.resolve(type + "-network.json");
+            new NetworkSimulation(network).run(Scenarios.readerFor(routed), actual.toString());
+
+            assertEquals(Files.readString(expected), Files.readString(actual),
+                    type + " network of one intersection should behave like the single intersection simulation");
+        }
+    }
+
+    @Test
+    void vehicle_travelsAlongRouteWithLinkDelays() {
+        RoadNetwork network = new RoadNetwork();
+        int a = network.addIntersection("A", Intersection.ControllerType.STANDARD);
+        int b = network.addIntersection("B", Intersection.ControllerType.STANDARD);
+        network.addLink(a, TrafficLight.Direction.SOUTH, b, TrafficLight.Direction.NORTH, 5);
+        NetworkSimulation simulation = new NetworkSimulation(network);
+
+        // North is green first at both intersections, so the vehicle crosses A in step 1
+        simulation.addVehicle("car1", a, TrafficLight.Direction.NORTH,
+                new TrafficLight.Direction[]{TrafficLight.Direction.SOUTH, TrafficLight.Direction.SOUTH});
+
+        assertTrue(simulation.performStep().isEmpty(), "The vehicle is still inside the network after A");
+        assertEquals(1, simulation.getVehiclesInNetwork());
+        for (int step = 2; step <= 5; step++) {
+            assertTrue(simulation.performStep().isEmpty(), "The vehicle is on the link in step " + step);
+            assertEquals(0, simulation.getQueueLength(b, TrafficLight.Direction.NORTH));
+        }
+
+        List<String> left = new ArrayList<>();
+        while (left.isEmpty() && simulation.getStepCount() < 100) {
+            left = simulation.performStep().getLeftVehicles(simulation.getVehicleIds());
+        }
+        assertEquals(List.of("car1"), left);
+        assertTrue(simulation.getStepCount() >= 6, "The vehicle can only cross B after the link delay");
+        assertEquals(0, simulation.getVehiclesInNetwork());
+    }
+
+    @Test
+    void addVehicle_rejectsRoutesLeavingTheNetwork() {
+        RoadNetwork network = new RoadNetwork();
+        int a = network.addIntersection("A", Intersection.ControllerType.STANDARD);
+        NetworkSimulation simulation = new NetworkSimulation(network);
+
+        assertThrows(IllegalArgumentException.class, () -> simulation.addVehicle("car1", a, TrafficLight.Direction.NORTH,
+                new TrafficLight.Direction[]{TrafficLight.Direction.SOUTH, TrafficLight.Direction.EAST}));
+    }
+
+    @Test
+    void largeGrid_drainsEveryVehicle() {
+        RoadNetwork network = RoadNetwork.grid(100, 100, 2, Intersection.ControllerType.OPPOSING);
+        NetworkSimulation simulation = new NetworkSimulation(network);
+        Random random = new Random(9);
+
+        int vehicles = 5_000;
+        for (int i = 0; i < vehicles; i++) {
+            int row = random.nextInt(100);
+            int column = random.nextInt(100);
+            simulation.addVehicle("car" + i, row * 100 + column, TrafficLight.Direction.WEST, Scenarios.randomRoute(random, 100, row, column, 10));
+            if (i % 10 == 0) {
+                simulation.performStep();
+            }
+        }
+
+        long departed = 0;
+        while (simulation.getVehiclesInNetwork() > 0 && simulation.getStepCount() < 100_000) {
+            StepStatus status = simulation.performStep();
+            departed += status.getLeftVehicleCount();
+        }
+        assertEquals(0, simulation.getVehiclesInNetwork(), "Every vehicle should leave the network");
+        assertEquals(0, simulation.getActiveIntersectionCount());
+        assertTrue(departed > 0);
+    }
+
+    @Test
+    void parallelRun_matchesSequentialRun() {
+        // Two links with different delays feed the same approach, so arrivals from several partitions are merged
+        RoadNetwork network = RoadNetwork.grid(12, 12, 3, Intersection.ControllerType.STANDARD);
+        network.addLink(network.indexOf("r0c0"), TrafficLight.Direction.NORTH,
+                network.indexOf("r11c11"), TrafficLight.Direction.NORTH, 1);
+
+        List<String> expected = runRecorded(new NetworkSimulation(network), 12);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int partitions : new int[]{2, 4, 7, 144}) {
+                NetworkSimulation parallel = new NetworkSimulation(network, pool, partitions);
+                assertEquals(expected, runRecorded(parallel, 12), "Run with " + partitions + " partitions differs");
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Adds random vehicles to a square grid and returns the vehicles leaving the network in every step,
+     * followed by the final queue lengths
+     */
+    private static List<String> runRecorded(NetworkSimulation simulation, int size) {
+        Random random = new Random(17);
+        List<String> recorded = new ArrayList<>();
+        int cornerExit = simulation.getNetwork().indexOf("r0c0");
+        for (int step = 0; step < 600; step++) {
+            for (int i = random.nextInt(30); i > 0; i--) {
+                int row = random.nextInt(size);
+                int column = random.nextInt(size);
+                TrafficLight.Direction[] route = Scenarios.randomRoute(random, size, row, column, 10);
+                if (row * size + column == cornerExit && random.nextBoolean()) {
+                    route = new TrafficLight.Direction[]{TrafficLight.Direction.NORTH, TrafficLight.Direction.EAST};
+                }
+                simulation.addVehicle("car" + step + "-" + i, row * size + column, DIRECTIONS[random.nextInt(4)], route);
+            }
+            recorded.add(simulation.performStep().getLeftVehicles(simulation.getVehicleIds()).toString());
+        }
+        while (simulation.getVehiclesInNetwork() > 0) {
+            recorded.add(simulation.performStep().getLeftVehicles(simulation.getVehicleIds()).toString());
+        }
+        return recorded;
+    }
+
+    @Test
+    void binaryScenario_matchesJsonScenario() throws IOException {
+        RoadNetwork network = RoadNetwork.grid(6, 6, 2, Intersection.ControllerType.STANDARD);
+        Path json = tempDir.resolve("grid.json");
+        Files.writeString(json, Scenarios.gridScenario(6, 2_000, 2));
+        Path binary = tempDir.resolve("grid.bin");
+        BinaryCommandWriter.convertJsonFile(json.toFile(), binary.toFile());
+
+        Path expected = tempDir.resolve("json-output.json");
+        new NetworkSimulation(network).run(CommandReader.open(json.toFile()), expected.toString());
+        Path actual = tempDir.resolve("binary-output.json");
+        new NetworkSimulation(network).run(CommandReader.open(binary.toFile()), actual.toString());
+
+        assertEquals(Files.readString(expected), Files.readString(actual),
+                "A converted network scenario should replay like its JSON source");
+    }
+}
@@ -0,0 +1,66 @@
+package avs.simulation.network;
+
+import avs.simulation.model.Intersection;
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadNetworkLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_readsGraphFromScenarioFile() throws IOException {
+        Path scenario = tempDir.resolve("scenario.json");
+        Files.writeString(scenario, """
+                {"commands": [{"type": "step"}],
+                 "network": {
+                   "intersections": [{"id": "A", "controllerType": "opposing"}, {"id": "B"}],
+                   "links": [{"from": "A", "exit": "east", "to": "B", "delay": 3},
+                             {"from": "B", "exit": "north", "to": "A", "approach": "south"}]}}
+                """);
+
+        RoadNetwork network = RoadNetworkLoader.load(scenario.toFile());
+
+        assertEquals(2, network.size());
+        assertEquals(Intersection.ControllerType.OPPOSING, network.getControllerType(network.indexOf("A")));
+        assertEquals(Intersection.ControllerType.STANDARD, network.getControllerType(network.indexOf("B")));
+
+        Link east = network.getLink(network.indexOf("A"), TrafficLight.Direction.EAST);
+        assertEquals(network.indexOf("B"), east.getTo());
+        assertEquals(TrafficLight.Direction.WEST, east.getApproach(), "Approach should default to the opposite road");
+        assertEquals(3, east.getDelay());
+        assertEquals(1, network.getLink(network.indexOf("B"), TrafficLight.Direction.NORTH).getDelay());
+        assertNull(network.getLink(network.indexOf("A"), TrafficLight.Direction.NORTH), "Unlinked exits leave the network");
+    }
+
+    @Test
+    void load_generatesGrid() throws IOException {
+        Path file = tempDir.resolve("grid.json");
+        Files.writeString(file, "{\"grid\": {\"rows\": 3, \"columns\": 4, \"linkDelay\": 2}}");
+
+        RoadNetwork network = RoadNetworkLoader.load(file.toFile());
+
+        assertEquals(12, network.size());
+        assertEquals(2 * (3 * 3 + 2 * 4), network.getLinks().size(), "Neighbours should be linked both ways");
+        Link south = network.getLink(network.indexOf("r0c1"), TrafficLight.Direction.SOUTH);
+        assertEquals(network.indexOf("r1c1"), south.getTo());
+        assertEquals(TrafficLight.Direction.NORTH, south.getApproach());
+        assertEquals(2, network.getMaxLinkDelay());
+    }
+
+    @Test
+    void load_rejectsMissingIntersections() throws IOException {
+        Path file = tempDir.resolve("empty.json");
+        Files.writeString(file, "{\"commands\": []}");
+
+        assertThrows(IOException.class, () -> RoadNetworkLoader.load(file.toFile()));
+    }
+}
@@ -0,0 +1,135 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryCommandReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private File writeCommands(List<Command> commands) throws IOException {
+        File file = tempDir.resolve("commands.bin").toFile();
+        try (BinaryCommandWriter writer = new BinaryCommandWriter(file)) {
+            for (Command command : commands) {
+                writer.write(command);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    void next_roundTripsCommands() throws IOException {
+        List<Command> commands = List.of(
+                new Command(Command.CommandType.ADD_VEHICLE, "car1", TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH),
+                new Command(Command.CommandType.ADD_VEHICLE, "car12", TrafficLight.Direction.WEST, TrafficLight.Direction.EAST),
+                new Command(Command.CommandType.STEP),
+                new Command(Command.CommandType.STEP),
+                new Command(Command.CommandType.STEP),
+                new Command(Command.CommandType.ADD_VEHICLE, "car007", TrafficLight.Direction.EAST, TrafficLight.Direction.NORTH),
+                new Command(Command.CommandType.ADD_VEHICLE, "truck", TrafficLight.Direction.SOUTH, TrafficLight.Direction.WEST),
+                new Command(Command.CommandType.ADD_VEHICLE, "42", TrafficLight.Direction.SOUTH, TrafficLight.Direction.SOUTH),
+                new Command(Command.CommandType.STEP));
+
+        File file = writeCommands(commands);
+        assertTrue(BinaryCommandReader.isBinaryCommandFile(file));
+
+        List<Command> decoded = new ArrayList<>();
+        try (BinaryCommandReader reader = new BinaryCommandReader(file)) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                decoded.add(command);
+            }
+        }
+
+        assertEquals(commands.size(), decoded.size(), "Every command should be decoded");
+        for (int i = 0; i < commands.size(); i++) {
+            Command expected = commands.get(i);
+            Command actual = decoded.get(i);
+            assertEquals(expected.getType(), actual.getType(), "Type of command " + i);
+            assertEquals(expected.getVehicleId(), actual.getVehicleId(), "Vehicle id of command " + i);
+            assertEquals(expected.getStartRoad(), actual.getStartRoad(), "Start road of command " + i);
+            assertEquals(expected.getEndRoad(), actual.getEndRoad(), "End road of command " + i);
+        }
+    }
+
+    @Test
+    void next_roundTripsNetworkCommands() throws IOException {
+        TrafficLight.Direction[] route = {TrafficLight.Direction.EAST, TrafficLight.Direction.SOUTH, TrafficLight.Direction.SOUTH};
+        List<Command> commands = List.of(
+                new Command("car1", "r0c0", TrafficLight.Direction.NORTH, route),
+                new Command(Command.CommandType.STEP),
+                new Command("car2", "r1c2", TrafficLight.Direction.WEST, new TrafficLight.Direction[]{TrafficLight.Direction.NORTH}),
+                new Command("car3", "r0c0", TrafficLight.Direction.SOUTH, route),
+                new Command(Command.CommandType.ADD_VEHICLE, "car4", TrafficLight.Direction.EAST, TrafficLight.Direction.WEST));
+
+        List<Command> decoded = new ArrayList<>();
+        try (BinaryCommandReader reader = new BinaryCommandReader(writeCommands(commands))) {
+            Command command;
+            while ((command = reader.next()) != null) {
+                decoded.add(command);
+            }
+        }
+
+        assertEquals(commands.size(), decoded.size(), "Every command should be decoded");
+        for (int i = 0; i < commands.size(); i++) {
+            Command expected = commands.get(i);
+            Command actual = decoded.get(i);
+            assertEquals(expected.getVehicleId(), actual.getVehicleId(), "Vehicle id of command " + i);
+            assertEquals(expected.getStartRoad(), actual.getStartRoad(), "Start road of command " + i);
+            assertEquals(expected.getEndRoad(), actual.getEndRoad(), "End road of command " + i);
+            assertEquals(expected.getIntersectionId(), actual.getIntersectionId(), "Intersection of command " + i);
+            assertEquals(expected.getRoute() == null ? null : List.of(expected.getRoute()),
+                    actual.getRoute() == null ? null : List.of(actual.getRoute()), "Route of command " + i);
+        }
+    }
+
+    @Test
+    void constructor_acceptsVersionOneFiles() throws IOException {
+        File file = tempDir.resolve("v1.bin").toFile();
+        byte[] header = new byte[BinaryCommandFormat.MAGIC.length + 3];
+        System.arraycopy(BinaryCommandFormat.MAGIC, 0, header, 0, BinaryCommandFormat.MAGIC.length);
+        header[BinaryCommandFormat.MAGIC.length] = 1;
+        header[BinaryCommandFormat.MAGIC.length + 1] = BinaryCommandFormat.TAG_STEPS;
+        header[BinaryCommandFormat.MAGIC.length + 2] = 2;
+        Files.write(file.toPath(), header);
+
+        try (BinaryCommandReader reader = new BinaryCommandReader(file)) {
+            assertEquals(Command.CommandType.STEP, reader.next().getType());
+            assertEquals(Command.CommandType.STEP, reader.next().getType());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void write_runLengthEncodesSteps() throws IOException {
+        List<Command> steps = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            steps.add(new Command(Command.CommandType.STEP));
+        }
+
+        File file = writeCommands(steps);
+
+        // Header, one tag byte and a three byte varint
+        assertEquals(BinaryCommandFormat.MAGIC.length + 1 + 1 + 3, Files.size(file.toPath()));
+    }
+
+    @Test
+    void constructor_rejectsJsonInput() throws IOException {
+        File file = tempDir.resolve("commands.json").toFile();
+        Files.writeString(file.toPath(), "{\"commands\": []}");
+
+        assertFalse(BinaryCommandReader.isBinaryCommandFile(file));
+        assertThrows(IOException.class, () -> new BinaryCommandReader(file));
+    }
+}
@@ -0,0 +1,69 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonCommandReaderTest {
+
+    private JsonCommandReader readerFor(String json) throws IOException {
+        return new JsonCommandReader(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void next_decodesCommandsInOrder() throws IOException {
+        String json = """
+                {"commands": [
+                  {"type": "addVehicle", "vehicleId": "car1", "startRoad": "north", "endRoad": "South"},
+                  {"type": "step"}
+                ]}""";
+
+        try (JsonCommandReader reader = readerFor(json)) {
+            Command add = reader.next();
+            assertEquals(Command.CommandType.ADD_VEHICLE, add.getType());
+            assertEquals("car1", add.getVehicleId());
+            assertEquals(TrafficLight.Direction.NORTH, add.getStartRoad());
+            assertEquals(TrafficLight.Direction.SOUTH, add.getEndRoad());
+
+            assertEquals(Command.CommandType.STEP, reader.next().getType());
+            assertNull(reader.next(), "Reader should be exhausted after the last command");
+            assertNull(reader.next(), "Reader should stay exhausted");
+        }
+    }
+
+    @Test
+    void next_skipsUnknownFieldsAndCommandTypes() throws IOException {
+        String json = """
+                {"meta": {"version": 2, "tags": ["a", "b"]},
+                 "commands": [
+                  {"type": "pause", "extra": [1, 2]},
+                  {"note": {"x": 1}, "type": "step"}
+                ]}""";
+
+        try (JsonCommandReader reader = readerFor(json)) {
+            assertEquals(Command.CommandType.STEP, reader.next().getType());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void next_failsWithoutCommandsArray() throws IOException {
+        try (JsonCommandReader reader = readerFor("{\"other\": []}")) {
+            assertThrows(IOException.class, reader::next);
+        }
+    }
+
+    @Test
+    void next_rejectsUnknownDirection() throws IOException {
+        String json = "{\"commands\": [{\"type\": \"addVehicle\", \"vehicleId\": \"x\", \"startRoad\": \"up\", \"endRoad\": \"north\"}]}";
+
+        try (JsonCommandReader reader = readerFor(json)) {
+            assertThrows(IllegalArgumentException.class, reader::next);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package avs.simulation.util;
+
+import avs.simulation.model.StepStatus;
+import avs.simulation.model.VehicleIdDictionary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonStepStatusWriterTest {
+
+    @Test
+    void write_matchesPrettyPrintedTreeLayout() throws IOException {
+        VehicleIdDictionary vehicleIds = new VehicleIdDictionary();
+        StepStatus first = new StepStatus();
+        first.addLeftVehicle(vehicleIds.register("car1"));
+        first.addLeftVehicle(vehicleIds.register("car2"));
+        StepStatus second = new StepStatus();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonStepStatusWriter writer = new JsonStepStatusWriter(out, 1)) {
+            writer.write(first, vehicleIds);
+            writer.write(second, vehicleIds);
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode statuses = root.putArray("stepStatuses");
+        statuses.addObject().putArray("leftVehicles").add("car1").add("car2");
+        statuses.addObject().putArray("leftVehicles");
+        String expected = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_flushesAfterInterval() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonStepStatusWriter writer = new JsonStepStatusWriter(out, 2);
+
+        writer.write(new String[0]);
+        assertEquals(0, out.size(), "Nothing should reach the stream before the flush interval");
+
+        writer.write(new String[0]);
+        assertTrue(out.toString(StandardCharsets.UTF_8).contains("leftVehicles"),
+                "Both steps should be flushed once the interval is reached");
+
+        writer.close();
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveInterval() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new JsonStepStatusWriter(new ByteArrayOutputStream(), 0));
+    }
+
+    @Test
+    void write_compactsRunsOfEmptySteps() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonStepStatusWriter writer = new JsonStepStatusWriter(out, 1)) {
+            writer.setCompactEmptySteps(true);
+            writer.write(new String[0]);
+            writer.writeEmpty(1_000_000);
+            writer.write(new String[]{"car1"});
+            writer.writeEmpty(3);
+        }
+
+        ObjectMapper mapper = new ObjectMapper();
+        ObjectNode root = mapper.createObjectNode();
+        ArrayNode statuses = root.putArray("stepStatuses");
+        statuses.addObject().put("emptySteps", 1_000_001);
+        statuses.addObject().putArray("leftVehicles").add("car1");
+        statuses.addObject().put("emptySteps", 3);
+        String expected = mapper.writerWithDefaultPrettyPrinter().writeValueAsString(root);
+
+        assertEquals(expected, out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,92 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.TrafficLight;
+import avs.simulation.model.SimulationClock;
+import avs.simulation.model.SimulationMetrics;
+import avs.simulation.model.Vehicle;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsWriterTest {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Returns metrics of two vehicles from the north that waited 2 and 6 steps during one north phase
+     */
+    private static SimulationMetrics northMetrics() {
+        SimulationMetrics metrics = new SimulationMetrics();
+        metrics.recordPhase(TrafficLight.Direction.NORTH, true);
+        SimulationClock clock = new SimulationClock();
+        Vehicle first = new Vehicle(0, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH, clock);
+        Vehicle second = new Vehicle(1, TrafficLight.Direction.NORTH, TrafficLight.Direction.SOUTH, clock);
+        clock.advance(2);
+        first.startCrossing();
+        clock.advance(4);
+        second.startCrossing();
+        metrics.recordDepartures(List.of(first, second), TrafficLight.Direction.NORTH);
+        return metrics;
+    }
+
+    @Test
+    void siblingFile_replacesTheExtension() {
+        assertEquals(tempDir.resolve("output.metrics.json").toFile(),
+                MetricsWriter.siblingFile(tempDir.resolve("output.json").toString(), ".metrics.json"));
+        assertEquals(tempDir.resolve("output.metrics.csv").toFile(),
+                MetricsWriter.siblingFile(tempDir.resolve("output").toString(), ".metrics.csv"));
+        assertEquals(tempDir.resolve(".hidden.metrics.json").toFile(),
+                MetricsWriter.siblingFile(tempDir.resolve(".hidden").toString(), ".metrics.json"));
+    }
+
+    @Test
+    void write_writesBothSummariesNextToTheOutput() throws IOException {
+        File summary = MetricsWriter.write(northMetrics(), tempDir.resolve("output.json").toString());
+
+        assertEquals(tempDir.resolve("output.metrics.json").toFile(), summary);
+        assertTrue(summary.isFile());
+        assertTrue(Files.isRegularFile(tempDir.resolve("output.metrics.csv")));
+    }
+
+    @Test
+    void writeJson_writesSummariesAndPhaseCounts() throws IOException {
+        File file = tempDir.resolve("metrics.json").toFile();
+        MetricsWriter.writeJson(northMetrics(), file);
+
+        JsonNode root = new ObjectMapper().readTree(file);
+        assertEquals(2, root.get("departures").asLong());
+        assertEquals(4.0, root.get("waitTime").get("mean").asDouble(), 1e-9);
+        assertEquals(6, root.get("waitTime").get("max").asLong());
+        assertEquals(2, root.get("waitTimeByDirection").get("north").get("count").asLong());
+        assertEquals(0, root.get("waitTimeByDirection").get("east").get("count").asLong());
+        assertEquals(2, root.get("waitTimeByMovement").get("straight").get("count").asLong());
+        assertEquals(2, root.get("waitTime").get("buckets").size());
+        assertEquals(2, root.get("departuresByPhase").get("north").get("departures").asLong());
+        assertEquals(1, root.get("departuresByPhase").get("north").get("phasesServed").asLong());
+    }
+
+    @Test
+    void writeCsv_writesOneRowPerHistogram() throws IOException {
+        File file = tempDir.resolve("metrics.csv").toFile();
+        MetricsWriter.writeCsv(northMetrics(), file);
+
+        List<String> lines = Files.readAllLines(file.toPath());
+        assertEquals("metric,key,count,mean,max,p50,p90,p99", lines.get(0));
+        assertEquals("waitTime,all,2,4.000,6,2,6,6", lines.get(1));
+        assertTrue(lines.contains("waitTime,north,2,4.000,6,2,6,6"));
+        assertTrue(lines.contains("departuresByPhase,north,2,2.000,,,,"));
+        int directions = TrafficLight.Direction.values().length;
+        int movements = Vehicle.MovementType.values().length;
+        assertEquals(1 + 1 + directions + movements + directions + directions, lines.size());
+    }
+}
@@ -0,0 +1,51 @@
+package avs.simulation.util;
+
+import avs.simulation.model.LightControlers.PhasePlan;
+import avs.simulation.model.LightControlers.TrafficLight;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhasePlanLoaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void load_readsStagesAndNamesPlanAfterFile() throws IOException {
+        File file = tempDir.resolve("long-green.json").toFile();
+        Files.writeString(file.toPath(), """
+                {"stages": [
+                  {"duration": 10, "green": ["north", "south"]},
+                  {"duration": 2, "yellow": ["north", "south"]},
+                  {"duration": 1},
+                  {"duration": 6, "green": ["east"], "redYellow": ["west"]}
+                ]}
+                """);
+
+        PhasePlan plan = PhasePlanLoader.load(file);
+
+        assertEquals("long-green", plan.getName());
+        assertEquals(19, plan.getCycleLength());
+        assertEquals(TrafficLight.LightState.YELLOW, plan.getState(11, TrafficLight.Direction.SOUTH));
+        assertEquals(TrafficLight.LightState.RED, plan.getState(12, TrafficLight.Direction.NORTH));
+        assertEquals(TrafficLight.LightState.RED_YELLOW, plan.getState(18, TrafficLight.Direction.WEST));
+    }
+
+    @Test
+    void load_rejectsInvalidPlans() throws IOException {
+        File noStages = tempDir.resolve("empty.json").toFile();
+        Files.writeString(noStages.toPath(), "{\"stages\": []}");
+        assertThrows(IOException.class, () -> PhasePlanLoader.load(noStages));
+
+        File twoStates = tempDir.resolve("conflict.json").toFile();
+        Files.writeString(twoStates.toPath(), "{\"stages\": [{\"duration\": 1, \"green\": [\"north\"], \"red\": [\"north\"]}]}");
+        assertThrows(IOException.class, () -> PhasePlanLoader.load(twoStates));
+    }
+}
@@ -0,0 +1,46 @@
+package avs.simulation.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpscQueueTest {
+
+    @Test
+    void offer_rejectsItemsBeyondCapacity() {
+        SpscQueue<Integer> queue = new SpscQueue<>(3);
+        assertEquals(4, queue.capacity(), "Capacity should be rounded up to a power of two");
+
+        for (int i = 0; i < 4; i++) {
+            assertTrue(queue.offer(i));
+        }
+        assertFalse(queue.offer(4), "A full queue should reject items");
+        assertEquals(0, queue.peek().intValue());
+        assertEquals(0, queue.poll().intValue());
+        assertTrue(queue.offer(4), "A slot should be free after a poll");
+    }
+
+    @Test
+    void poll_returnsItemsInOrderAcrossThreads() throws InterruptedException {
+        SpscQueue<Integer> queue = new SpscQueue<>(64);
+        int items = 200_000;
+        Thread producer = new Thread(() -> {
+            for (int i = 0; i < items; i++) {
+                while (!queue.offer(i)) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        producer.start();
+
+        for (int expected = 0; expected < items; expected++) {
+            Integer item;
+            while ((item = queue.poll()) == null) {
+                Thread.onSpinWait();
+            }
+            assertEquals(expected, item.intValue());
+        }
+        producer.join();
+        assertNull(queue.poll());
+    }
+}
@@ -0,0 +1,72 @@
+package avs.simulation.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StepLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void add_storesOnlyNonEmptySteps() {
+        StepLog log = new StepLog();
+        log.add(new String[0]);
+        log.add(new String[]{"car1", "car2"});
+        log.addEmpty(1_000_000_000L);
+        log.add(new String[]{"car3"});
+
+        assertEquals(1_000_000_003L, log.getStepCount());
+        assertEquals(2, log.getNonEmptyStepCount());
+        assertEquals(1, log.getStep(0));
+        assertEquals(1_000_000_002L, log.getStep(1));
+        assertEquals(List.of("car3"), Arrays.asList(log.getLeftVehiclesAt(1_000_000_002L)));
+        assertEquals(0, log.getLeftVehiclesAt(500).length);
+        assertThrows(IndexOutOfBoundsException.class, () -> log.getLeftVehiclesAt(1_000_000_003L));
+    }
+
+    @Test
+    void clear_forgetsAllSteps() {
+        StepLog log = new StepLog();
+        log.add(new String[]{"car1"});
+        log.addEmpty(5);
+        log.clear();
+
+        assertEquals(0, log.getStepCount());
+        assertEquals(0, log.getNonEmptyStepCount());
+    }
+
+    @Test
+    void read_restoresLogWrittenInCompactMode() throws IOException {
+        StepLog log = new StepLog();
+        log.addEmpty(3);
+        log.add(new String[]{"car1", "car2"});
+        log.add(new String[]{"car3"});
+        log.addEmpty(1_000);
+        log.add(new String[]{"car4"});
+        log.addEmpty(2);
+
+        Path compactOutput = tempDir.resolve("compact.json");
+        try (JsonStepStatusWriter writer = new JsonStepStatusWriter(compactOutput.toFile())) {
+            writer.setCompactEmptySteps(true);
+            log.writeTo(writer);
+        }
+        StepLog read = StepLog.read(compactOutput.toFile());
+
+        assertEquals(log.getStepCount(), read.getStepCount());
+        assertEquals(log.getNonEmptyStepCount(), read.getNonEmptyStepCount());
+        for (int i = 0; i < log.getNonEmptyStepCount(); i++) {
+            assertEquals(log.getStep(i), read.getStep(i));
+            assertEquals(Arrays.asList(log.getLeftVehicles(i)), Arrays.asList(read.getLeftVehicles(i)));
+        }
+        assertTrue(Files.size(compactOutput) < 1_000, "Empty runs should take one entry each");
+    }
+}